@@ -0,0 +1,73 @@
+package revolut.backendtest;
+
+import static com.google.common.collect.Lists.reverse;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Service;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import revolut.backendtest.metrics.MetricsModule;
+import revolut.backendtest.persistence.PersistenceModule;
+import revolut.backendtest.persistence.jdbc.DatabaseMigrationService;
+import revolut.backendtest.persistence.jdbc.DatabaseService;
+import revolut.backendtest.service.ServiceModule;
+import revolut.backendtest.service.TransferConfig;
+import revolut.backendtest.service.TransferEngine;
+import revolut.backendtest.service.TransferMode;
+
+/**
+ * Same services as in {@link MoneyTransferServer}, but without REST API.
+ */
+public final class ServiceFixture implements AutoCloseable {
+
+  private final Injector injector;
+  private final List<Service> startedServices = new ArrayList<>();
+
+  private ServiceFixture(TransferMode mode) {
+    this.injector = Guice.createInjector(
+        new MetricsModule(),
+        new PersistenceModule(),
+        new ServiceModule(TransferConfig.of(mode))
+    );
+  }
+
+  public static ServiceFixture start(TransferMode mode) throws TimeoutException {
+    ServiceFixture fixture = new ServiceFixture(mode);
+    try {
+      for (Key<? extends Service> key : ImmutableList.<Key<? extends Service>>of(
+          Key.get(DatabaseService.class),
+          Key.get(DatabaseMigrationService.class),
+          Key.get(TransferEngine.class)
+      )) {
+        Service service = fixture.injector.getInstance(key);
+        fixture.startedServices.add(service);
+        service.startAsync().awaitRunning(1, MINUTES);
+      }
+    } catch (RuntimeException | TimeoutException ex) {
+      fixture.close();
+      throw ex;
+    }
+    return fixture;
+  }
+
+  public <T> T get(Class<T> type) {
+    return injector.getInstance(type);
+  }
+
+  @Override
+  public void close() {
+    for (Service service : reverse(startedServices)) {
+      try {
+        service.stopAsync().awaitTerminated(5, SECONDS);
+      } catch (TimeoutException | IllegalStateException ex) {
+        // the rest should be stopped anyway
+      }
+    }
+  }
+}
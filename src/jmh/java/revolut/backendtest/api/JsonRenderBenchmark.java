@@ -0,0 +1,59 @@
+package revolut.backendtest.api;
+
+import com.google.common.collect.ImmutableList;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import revolut.backendtest.api.spark.JsonResponseTransformer;
+import revolut.backendtest.model.AccountId;
+import revolut.backendtest.model.Money;
+import revolut.backendtest.model.Transfer;
+import revolut.backendtest.model.TransferId;
+
+/**
+ * Rendering of transfer list, same as Spark does it for account transfers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonRenderBenchmark {
+
+  @Param({"1", "100", "10000"})
+  public int transfers;
+
+  private JsonResponseTransformer transformer;
+  private ImmutableList<Transfer> transferList;
+
+  @Setup
+  public void setUp() {
+    transformer = new JsonResponseTransformer(new RestApiModule().objectMapper());
+    transferList = IntStream.range(0, transfers)
+        .mapToObj(i -> new Transfer(
+            new TransferId(i),
+            new AccountId(42),
+            new AccountId(43),
+            Instant.now(),
+            Money.ofCents(1234)
+        ))
+        .collect(ImmutableList.toImmutableList());
+  }
+
+  @Benchmark
+  public String renderTransfers() {
+    return transformer.render(transferList);
+  }
+}
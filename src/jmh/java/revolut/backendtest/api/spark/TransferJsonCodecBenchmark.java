@@ -0,0 +1,84 @@
+package revolut.backendtest.api.spark;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import revolut.backendtest.api.RestApiModule;
+import revolut.backendtest.api.dto.MakeTransferRequest;
+import revolut.backendtest.model.AccountId;
+import revolut.backendtest.model.Money;
+import revolut.backendtest.model.Transfer;
+import revolut.backendtest.model.TransferId;
+
+/**
+ * Single transfer request & response through {@link ObjectMapper}, as Spark & transformers do it,
+ * vs {@link TransferJsonCodec}. Run with {@code -prof gc} to compare bytes allocated per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransferJsonCodecBenchmark {
+
+  private ObjectMapper mapper;
+  private TransferJsonCodec codec;
+  private byte[] request;
+  private Transfer transfer;
+  private ByteArrayOutputStream buffer;
+
+  @Setup
+  public void setUp() {
+    mapper = new RestApiModule().objectMapper();
+    codec = new TransferJsonCodec(mapper);
+    request = "{\"from\":42,\"to\":43,\"amount\":12.34}".getBytes(UTF_8);
+    transfer = new Transfer(
+        new TransferId(1),
+        new AccountId(42),
+        new AccountId(43),
+        Instant.now(),
+        Money.ofCents(1234)
+    );
+    buffer = new ByteArrayOutputStream(256);
+  }
+
+  @Benchmark
+  public MakeTransferRequest readMapper() throws IOException {
+    // Spark decodes body into a string first
+    return mapper.readValue(new String(request, UTF_8), MakeTransferRequest.class);
+  }
+
+  @Benchmark
+  public MakeTransferRequest readCodec() throws IOException {
+    return codec.readRequest(new ByteArrayInputStream(request));
+  }
+
+  @Benchmark
+  public byte[] writeMapper() throws IOException {
+    // Spark encodes rendered string into bytes
+    return mapper.writeValueAsString(transfer).getBytes(UTF_8);
+  }
+
+  @Benchmark
+  public int writeCodec() throws IOException {
+    buffer.reset();
+    codec.writeTransfer(buffer, transfer);
+    return buffer.size();
+  }
+}
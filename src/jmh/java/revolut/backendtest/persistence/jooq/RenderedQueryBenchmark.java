@@ -0,0 +1,117 @@
+package revolut.backendtest.persistence.jooq;
+
+import static org.jooq.impl.DSL.param;
+import static revolut.backendtest.persistence.jooq.codegen.Tables.ACCOUNTS;
+
+import com.google.common.collect.ImmutableMap;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.jooq.DSLContext;
+import org.jooq.Record2;
+import org.jooq.Result;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import revolut.backendtest.ServiceFixture;
+import revolut.backendtest.persistence.jooq.codegen.tables.records.AccountsRecord;
+import revolut.backendtest.service.AccountService;
+import revolut.backendtest.service.IllegalAmountException;
+import revolut.backendtest.service.TransferMode;
+
+/**
+ * Hot queries built & rendered by jOOQ on every call vs the same ones {@link RenderedQuery rendered} once.
+ * The difference is what building & rendering costs, {@code -prof stack} shows where it is spent.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RenderedQueryBenchmark {
+
+  private ServiceFixture fixture;
+  private JooqContextProvider contextProvider;
+  private long account;
+  private long otherAccount;
+
+  private RenderedQuery<AccountsRecord> selectAccount;
+  private RenderedQuery<Record2<Long, BigDecimal>> lockAccounts;
+
+  @Setup
+  public void setUp() throws TimeoutException, IllegalAmountException {
+    fixture = ServiceFixture.start(TransferMode.JDBC);
+    AccountService accountService = fixture.get(AccountService.class);
+    account = accountService.create(BigDecimal.TEN).id.value;
+    otherAccount = accountService.create(BigDecimal.TEN).id.value;
+
+    contextProvider = fixture.get(JooqContextProvider.class);
+    DSLContext context = contextProvider.context();
+    selectAccount = RenderedQuery.of(
+        context,
+        context.selectFrom(ACCOUNTS).where(ACCOUNTS.ACCOUNT_ID.eq(param("account", Long.class))),
+        ACCOUNTS
+    );
+    lockAccounts = RenderedQuery.of(
+        context,
+        contextProvider.rowLock().lock(context
+            .select(ACCOUNTS.ACCOUNT_ID, ACCOUNTS.BALANCE)
+            .from(ACCOUNTS)
+            .where(ACCOUNTS.ACCOUNT_ID.in(param("account", Long.class), param("otherAccount", Long.class)))
+            .orderBy(ACCOUNTS.ACCOUNT_ID)
+        ),
+        ACCOUNTS.ACCOUNT_ID,
+        ACCOUNTS.BALANCE
+    );
+  }
+
+  @TearDown
+  public void tearDown() {
+    fixture.close();
+  }
+
+  @Benchmark
+  public AccountsRecord selectAccountBuilt() {
+    return contextProvider.context()
+        .selectFrom(ACCOUNTS)
+        .where(ACCOUNTS.ACCOUNT_ID.eq(account))
+        .fetchOne();
+  }
+
+  @Benchmark
+  public AccountsRecord selectAccountRendered() {
+    return selectAccount
+        .query(contextProvider.context(), ImmutableMap.of("account", account))
+        .fetchOne();
+  }
+
+  @Benchmark
+  public Result<Record2<Long, BigDecimal>> lockAccountsBuilt() {
+    return contextProvider.context().transactionResult(cfg -> contextProvider.rowLock()
+        .lock(cfg.dsl()
+            .select(ACCOUNTS.ACCOUNT_ID, ACCOUNTS.BALANCE)
+            .from(ACCOUNTS)
+            .where(ACCOUNTS.ACCOUNT_ID.in(account, otherAccount))
+            .orderBy(ACCOUNTS.ACCOUNT_ID)
+        )
+        .fetch()
+    );
+  }
+
+  @Benchmark
+  public Result<Record2<Long, BigDecimal>> lockAccountsRendered() {
+    return contextProvider.context().transactionResult(cfg -> lockAccounts
+        .query(cfg.dsl(), ImmutableMap.of("account", account, "otherAccount", otherAccount))
+        .fetch()
+    );
+  }
+}
@@ -0,0 +1,110 @@
+package revolut.backendtest.service;
+
+import static revolut.backendtest.persistence.jooq.codegen.Tables.TRANSFERS;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.jooq.DSLContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import revolut.backendtest.ServiceFixture;
+import revolut.backendtest.model.AccountId;
+import revolut.backendtest.model.AccountTransfers;
+import revolut.backendtest.model.TransferId;
+import revolut.backendtest.persistence.jooq.JooqContextProvider;
+
+/**
+ * Statement of account with long history, which is shared with another account
+ * and spread over both transfer directions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class AccountTransfersBenchmark {
+
+  private static final OptionalInt PAGE_SIZE = OptionalInt.of(20);
+
+  @Param({"10", "1000", "100000"})
+  public int historySize;
+
+  private ServiceFixture fixture;
+  private AccountService accountService;
+  private AccountId account;
+  private Optional<TransferId> middle;
+
+  @Setup
+  public void setUp() throws TimeoutException, IllegalAmountException {
+    fixture = ServiceFixture.start(TransferMode.JDBC);
+    accountService = fixture.get(AccountService.class);
+
+    account = accountService.create(BigDecimal.ZERO).id;
+    AccountId other = accountService.create(BigDecimal.ZERO).id;
+    AccountId unrelated = accountService.create(BigDecimal.ZERO).id;
+
+    DSLContext context = fixture.get(JooqContextProvider.class).context();
+    context.transaction(cfg -> {
+      insertHistory(cfg.dsl(), account, other, historySize);
+      // history of other accounts must not be read
+      insertHistory(cfg.dsl(), other, unrelated, historySize);
+    });
+
+    middle = Optional.of(new TransferId(
+        context
+            .select(TRANSFERS.TRANSFER_ID)
+            .from(TRANSFERS)
+            .where(TRANSFERS.FROM_ACCOUNT_ID.eq(account.value).or(TRANSFERS.TO_ACCOUNT_ID.eq(account.value)))
+            .orderBy(TRANSFERS.TRANSFER_ID)
+            .offset(historySize / 2)
+            .limit(1)
+            .fetchOne()
+            .value1()
+    ));
+  }
+
+  private static void insertHistory(DSLContext context, AccountId a, AccountId b, int size) {
+    context.execute(
+        "INSERT INTO transfers(from_account_id, to_account_id, amount, transfered_at) "
+            + "SELECT CASE WHEN MOD(x, 2) = 0 THEN CAST(? AS BIGINT) ELSE CAST(? AS BIGINT) END, "
+            + "CASE WHEN MOD(x, 2) = 0 THEN CAST(? AS BIGINT) ELSE CAST(? AS BIGINT) END, 1, "
+            + "DATEADD('MILLISECOND', x, CURRENT_TIMESTAMP()) "
+            + "FROM SYSTEM_RANGE(1, ?)",
+        a.value, b.value, b.value, a.value, size
+    );
+  }
+
+  @TearDown
+  public void tearDown() {
+    fixture.close();
+  }
+
+  @Benchmark
+  public Optional<AccountTransfers> fullHistory() {
+    return accountService.getTransfers(account);
+  }
+
+  @Benchmark
+  public Optional<AccountTransfers> firstPage() {
+    return accountService.getTransfers(account, Optional.empty(), PAGE_SIZE);
+  }
+
+  @Benchmark
+  public Optional<AccountTransfers> middlePage() {
+    return accountService.getTransfers(account, middle, PAGE_SIZE);
+  }
+}
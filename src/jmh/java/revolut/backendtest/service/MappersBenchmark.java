@@ -0,0 +1,56 @@
+package revolut.backendtest.service;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import revolut.backendtest.model.Account;
+import revolut.backendtest.model.Transfer;
+import revolut.backendtest.persistence.jooq.codegen.tables.records.AccountsRecord;
+import revolut.backendtest.persistence.jooq.codegen.tables.records.TransfersRecord;
+
+/**
+ * Mapping takes nanoseconds, which is below timer granularity,
+ * so average time is measured instead of percentiles.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappersBenchmark {
+
+  private final AccountsRecord account = new AccountsRecord(
+      42L,
+      new Timestamp(System.currentTimeMillis()),
+      new BigDecimal("1234.56"),
+      0L
+  );
+
+  private final TransfersRecord transfer = new TransfersRecord(
+      1337L,
+      42L,
+      43L,
+      new Timestamp(System.currentTimeMillis()),
+      new BigDecimal("12.34")
+  );
+
+  @Benchmark
+  public Account accountToModel() {
+    return Mappers.toModel(account);
+  }
+
+  @Benchmark
+  public Transfer transferToModel() {
+    return Mappers.toModel(transfer);
+  }
+}
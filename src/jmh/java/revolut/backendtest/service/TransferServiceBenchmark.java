@@ -0,0 +1,115 @@
+package revolut.backendtest.service;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import revolut.backendtest.ServiceFixture;
+import revolut.backendtest.model.AccountId;
+import revolut.backendtest.model.Transfer;
+
+/**
+ * Transfers between accounts which never run out of money, so every call commits.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+public class TransferServiceBenchmark {
+
+  private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000000000.00");
+  private static final BigDecimal AMOUNT = new BigDecimal("0.01");
+
+  public enum Workload {
+    /**
+     * Any account may send money to any other one.
+     */
+    UNIFORM,
+    /**
+     * Most of transfers touch 1% of accounts.
+     */
+    HOT_SPOT,
+    /**
+     * Accounts are paired and send money to each other only.
+     */
+    BIDIRECTIONAL
+  }
+
+  @Param({"JDBC", "STRIPED_LOCKS", "SEQUENCER", "GROUP_COMMIT", "OPTIMISTIC", "PROCEDURE"})
+  public TransferMode mode;
+
+  @Param({"UNIFORM", "HOT_SPOT", "BIDIRECTIONAL"})
+  public Workload workload;
+
+  @Param("1000")
+  public int accounts;
+
+  private ServiceFixture fixture;
+  private TransferService transferService;
+  private AccountId[] ids;
+
+  @Setup
+  public void setUp() throws TimeoutException, IllegalAmountException {
+    fixture = ServiceFixture.start(mode);
+    transferService = fixture.get(TransferService.class);
+
+    AccountService accountService = fixture.get(AccountService.class);
+    ids = new AccountId[accounts];
+    for (int i = 0; i < accounts; i++) {
+      ids[i] = accountService.create(INITIAL_BALANCE).id;
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    fixture.close();
+  }
+
+  @Benchmark
+  public Transfer makeTransfer() throws Exception {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int from;
+    int to;
+    switch (workload) {
+      case UNIFORM:
+        from = random.nextInt(accounts);
+        to = otherThan(from, random.nextInt(accounts - 1));
+        break;
+      case HOT_SPOT:
+        int hot = Math.max(2, accounts / 100);
+        int range = random.nextInt(10) == 0 ? accounts : hot;
+        from = random.nextInt(range);
+        to = otherThan(from, random.nextInt(range - 1));
+        break;
+      case BIDIRECTIONAL:
+        int pair = random.nextInt(accounts / 2) * 2;
+        int direction = random.nextInt(2);
+        from = pair + direction;
+        to = pair + 1 - direction;
+        break;
+      default:
+        throw new IllegalStateException("Unknown workload: " + workload);
+    }
+    return transferService.makeTransfer(ids[from], ids[to], AMOUNT);
+  }
+
+  private static int otherThan(int index, int candidate) {
+    return candidate >= index ? candidate + 1 : candidate;
+  }
+}
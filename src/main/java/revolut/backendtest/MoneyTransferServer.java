@@ -17,10 +17,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import revolut.backendtest.api.RestApiModule;
 import revolut.backendtest.api.RestApiService;
+import revolut.backendtest.api.spark.AccessLogConfig;
+import revolut.backendtest.config.Config;
+import revolut.backendtest.metrics.MetricsModule;
 import revolut.backendtest.persistence.PersistenceModule;
 import revolut.backendtest.persistence.jdbc.DatabaseMigrationService;
 import revolut.backendtest.persistence.jdbc.DatabaseService;
 import revolut.backendtest.service.ServiceModule;
+import revolut.backendtest.service.TransferConfig;
+import revolut.backendtest.service.TransferEngine;
+import revolut.backendtest.service.TransferMode;
 
 public class MoneyTransferServer {
 
@@ -28,6 +34,9 @@ public class MoneyTransferServer {
 
   private final List<Service> startedServices = new ArrayList<>();
 
+  private final TransferConfig transferConfig;
+  private final Config config;
+
   static {
     calmDownRootLogger();
   }
@@ -38,6 +47,30 @@ public class MoneyTransferServer {
     root.setLevel(Level.INFO);
   }
 
+  public MoneyTransferServer() {
+    this(Config.load());
+  }
+
+  public MoneyTransferServer(TransferMode transferMode) {
+    this(transferMode, Config.load());
+  }
+
+  /**
+   * Transfer mode is given by {@code transfer.mode}.
+   */
+  public MoneyTransferServer(Config config) {
+    this(TransferConfig.from(config), config);
+  }
+
+  public MoneyTransferServer(TransferMode transferMode, Config config) {
+    this(TransferConfig.from(config, transferMode), config);
+  }
+
+  private MoneyTransferServer(TransferConfig transferConfig, Config config) {
+    this.transferConfig = transferConfig;
+    this.config = config;
+  }
+
   public void start() throws TimeoutException {
     try {
       Injector injector = createInjector();
@@ -64,9 +97,10 @@ public class MoneyTransferServer {
 
   private Injector createInjector() {
     return Guice.createInjector(
-        new PersistenceModule(),
-        new ServiceModule(),
-        new RestApiModule()
+        new MetricsModule(),
+        new PersistenceModule(config),
+        new ServiceModule(transferConfig),
+        new RestApiModule(AccessLogConfig.from(config))
     );
   }
 
@@ -74,6 +108,7 @@ public class MoneyTransferServer {
     return ImmutableList.<Key<? extends Service>>builder()
         .add(Key.get(DatabaseService.class))
         .add(Key.get(DatabaseMigrationService.class))
+        .add(Key.get(TransferEngine.class))
         .add(Key.get(RestApiService.class))
         .build();
   }
@@ -0,0 +1,12 @@
+package revolut.backendtest.api;
+
+public class Conflict extends RuntimeException {
+
+  public Conflict(String message) {
+    super(message);
+  }
+
+  public Conflict(String message, Exception ex) {
+    super(message, ex);
+  }
+}
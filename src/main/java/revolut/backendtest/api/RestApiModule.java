@@ -7,6 +7,8 @@ import com.fasterxml.jackson.module.paranamer.ParanamerModule;
 import com.google.inject.PrivateModule;
 import com.google.inject.Provides;
 import com.google.inject.Singleton;
+import revolut.backendtest.api.spark.AccessLogConfig;
+import revolut.backendtest.api.spark.EncodedTransferCache;
 import revolut.backendtest.api.spark.JsonRequestTransformer;
 import revolut.backendtest.api.spark.JsonResponseTransformer;
 import revolut.backendtest.api.spark.RequestTransformer;
@@ -15,11 +17,24 @@ import spark.ResponseTransformer;
 
 public class RestApiModule extends PrivateModule {
 
+  private final AccessLogConfig accessLogConfig;
+
+  public RestApiModule() {
+    this(AccessLogConfig.defaults());
+  }
+
+  public RestApiModule(AccessLogConfig accessLogConfig) {
+    this.accessLogConfig = accessLogConfig;
+  }
+
   @Override
   protected void configure() {
+    bind(AccessLogConfig.class).toInstance(accessLogConfig);
+
     bind(ResponseTransformer.class).to(JsonResponseTransformer.class).asEagerSingleton();
     bind(RequestTransformer.class).to(JsonRequestTransformer.class).asEagerSingleton();
 
+    bind(EncodedTransferCache.class).asEagerSingleton();
     bind(RestApi.class).to(SparkApi.class).asEagerSingleton();
 
     bind(RestApiService.class).asEagerSingleton();
@@ -28,7 +43,7 @@ public class RestApiModule extends PrivateModule {
 
   @Singleton
   @Provides
-  ObjectMapper objectMapper() {
+  public ObjectMapper objectMapper() {
     return new ObjectMapper()
         .registerModule(new JavaTimeModule())
         .registerModule(new ParanamerModule())
@@ -0,0 +1,12 @@
+package revolut.backendtest.api;
+
+public class ServiceUnavailable extends RuntimeException {
+
+  public ServiceUnavailable(String message) {
+    super(message);
+  }
+
+  public ServiceUnavailable(String message, Exception ex) {
+    super(message, ex);
+  }
+}
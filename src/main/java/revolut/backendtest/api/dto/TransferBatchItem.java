@@ -0,0 +1,31 @@
+package revolut.backendtest.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import revolut.backendtest.model.Transfer;
+
+/**
+ * Outcome of single transfer from the batch, {@code status} has the same meaning
+ * as HTTP status of the corresponding single transfer request.
+ */
+@JsonInclude(Include.NON_NULL)
+public final class TransferBatchItem {
+
+  public final int status;
+  public final Transfer transfer;
+  public final String message;
+
+  private TransferBatchItem(int status, Transfer transfer, String message) {
+    this.status = status;
+    this.transfer = transfer;
+    this.message = message;
+  }
+
+  public static TransferBatchItem success(int status, Transfer transfer) {
+    return new TransferBatchItem(status, transfer, null);
+  }
+
+  public static TransferBatchItem failure(int status, String message) {
+    return new TransferBatchItem(status, null, message);
+  }
+}
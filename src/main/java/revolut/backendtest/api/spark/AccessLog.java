@@ -0,0 +1,135 @@
+package revolut.backendtest.api.spark;
+
+import com.google.inject.Inject;
+import java.util.function.Supplier;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.RequestLog;
+import org.eclipse.jetty.server.Response;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import spark.Route;
+import spark.embeddedserver.jetty.JettyServerFactory;
+
+/**
+ * Structured access log, written by Jetty after response is completed,
+ * so it accounts for all the bytes & time including serialization of response.
+ * Same figures are recorded as {@link RequestMetrics}.
+ *
+ * <p>Logger is expected to be asynchronous, see logback.xml.
+ */
+class AccessLog implements RequestLog {
+
+  private static final String CAPTURE = AccessLog.class.getName() + ".capture";
+  private static final String REQUEST_BODY = AccessLog.class.getName() + ".requestBody";
+  private static final String RESPONSE_BODY = AccessLog.class.getName() + ".responseBody";
+
+  private final Logger log = LoggerFactory.getLogger(getClass());
+
+  private final AccessLogConfig config;
+  private final RequestMetrics metrics;
+
+  @Inject
+  AccessLog(AccessLogConfig config, RequestMetrics metrics) {
+    this.config = config;
+    this.metrics = metrics;
+  }
+
+  /**
+   * Route which marks its requests for body capture, if it is configured & sampled.
+   */
+  Route capturing(String method, String path, Route route) {
+    BodyCapture capture = config.forRoute(method, path);
+    if (!capture.isEnabled()) {
+      return route;
+    }
+    return (rq, rs) -> {
+      if (capture.shouldCapture()) {
+        rq.attribute(CAPTURE, capture);
+      }
+      return route.handle(rq, rs);
+    };
+  }
+
+  /**
+   * Should be called after route & exception handlers, while rendered response body is still available.
+   */
+  void captureBodies(spark.Request rq, spark.Response rs) {
+    BodyCapture capture = rq.attribute(CAPTURE);
+    if (capture != null) {
+      rq.attribute(REQUEST_BODY, capture.truncate(rq.body()));
+      if (rq.attribute(RESPONSE_BODY) == null) {
+        rq.attribute(RESPONSE_BODY, capture.truncate(rs.body()));
+      }
+    }
+  }
+
+  /**
+   * Should be called by route which writes response by itself, as its body is not available to Spark.
+   */
+  static void captureWritten(spark.Request rq, Supplier<String> body) {
+    BodyCapture capture = rq.attribute(CAPTURE);
+    if (capture != null) {
+      rq.attribute(RESPONSE_BODY, capture.truncate(body.get()));
+    }
+  }
+
+  @Override
+  public void log(Request request, Response response) {
+    int status = response.getCommittedMetaData().getStatus();
+    long latencyMillis = System.currentTimeMillis() - request.getTimeStamp();
+    metrics.record(request, status, latencyMillis);
+
+    if (!log.isInfoEnabled()) {
+      return;
+    }
+
+    Object requestBody = request.getAttribute(REQUEST_BODY);
+    Object responseBody = request.getAttribute(RESPONSE_BODY);
+    String bodies = requestBody == null && responseBody == null
+        ? ""
+        : " requestBody=" + requestBody + " responseBody=" + responseBody;
+
+    log.info(
+        "method={} path={} status={} latencyMs={} requestBytes={} responseBytes={}{}",
+        request.getMethod(),
+        request.getRequestURI(),
+        status,
+        latencyMillis,
+        request.getHttpInput().getContentConsumed(),
+        response.getHttpChannel().getBytesWritten(),
+        bodies
+    );
+  }
+
+  /**
+   * Same Jetty server as Spark creates by default, but with access log.
+   */
+  JettyServerFactory serverFactory() {
+    return new JettyServerFactory() {
+      @Override
+      public Server create(int maxThreads, int minThreads, int threadTimeoutMillis) {
+        if (maxThreads <= 0) {
+          return withAccessLog(new Server());
+        }
+        return withAccessLog(new Server(new QueuedThreadPool(
+            maxThreads,
+            minThreads > 0 ? minThreads : 8,
+            threadTimeoutMillis > 0 ? threadTimeoutMillis : 60_000
+        )));
+      }
+
+      @Override
+      public Server create(ThreadPool threadPool) {
+        return withAccessLog(threadPool != null ? new Server(threadPool) : new Server());
+      }
+    };
+  }
+
+  private Server withAccessLog(Server server) {
+    server.setRequestLog(this);
+    return server;
+  }
+}
@@ -0,0 +1,69 @@
+package revolut.backendtest.api.spark;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableMap;
+import java.util.List;
+import revolut.backendtest.config.Config;
+
+public final class AccessLogConfig {
+
+  private static final Splitter ROUTES = Splitter.on(',').trimResults().omitEmptyStrings();
+  private static final Splitter ROUTE = Splitter.on(' ').omitEmptyStrings();
+
+  /**
+   * Body capture of routes which are not configured explicitly.
+   */
+  public final BodyCapture defaultCapture;
+
+  /**
+   * Body capture by route, e.g. {@code "POST /transfers"}, paths are relative to API base URL.
+   */
+  public final ImmutableMap<String, BodyCapture> routeCaptures;
+
+  public AccessLogConfig(BodyCapture defaultCapture, ImmutableMap<String, BodyCapture> routeCaptures) {
+    this.defaultCapture = defaultCapture;
+    this.routeCaptures = routeCaptures;
+  }
+
+  /**
+   * Defaults of {@code application.properties}.
+   */
+  public static AccessLogConfig defaults() {
+    return from(Config.of(ImmutableMap.of()));
+  }
+
+  /**
+   * Routes are given as comma separated {@code METHOD /path sample-rate max-length},
+   * e.g. {@code POST /transfers 0.01 1024}.
+   */
+  public static AccessLogConfig from(Config config) {
+    ImmutableMap.Builder<String, BodyCapture> routeCaptures = ImmutableMap.builder();
+    for (String route : ROUTES.split(config.getString("access-log.body.routes"))) {
+      List<String> parts = ROUTE.splitToList(route);
+      if (parts.size() != 4) {
+        throw new IllegalArgumentException("Malformed config value: access-log.body.routes contains " + route);
+      }
+      routeCaptures.put(parts.get(0) + " " + parts.get(1), capture(parts.get(2), parts.get(3), route));
+    }
+    return new AccessLogConfig(
+        capture(
+            config.getString("access-log.body.sample-rate"),
+            config.getString("access-log.body.max-length"),
+            "access-log.body.sample-rate & max-length"
+        ),
+        routeCaptures.build()
+    );
+  }
+
+  private static BodyCapture capture(String sampleRate, String maxLength, String source) {
+    try {
+      return BodyCapture.sampled(Double.parseDouble(sampleRate), Integer.parseInt(maxLength));
+    } catch (IllegalArgumentException ex) {
+      throw new IllegalArgumentException("Malformed body capture of " + source + ": " + ex.getMessage(), ex);
+    }
+  }
+
+  BodyCapture forRoute(String method, String path) {
+    return routeCaptures.getOrDefault(method + " " + path, defaultCapture);
+  }
+}
@@ -1,16 +1,21 @@
 package revolut.backendtest.api.spark;
 
-import com.google.common.collect.ImmutableList;
 import com.google.inject.Inject;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
+import org.eclipse.jetty.http.HttpHeader;
 import revolut.backendtest.api.BadRequest;
 import revolut.backendtest.api.NotFound;
 import revolut.backendtest.api.dto.CreateAccountRequest;
 import revolut.backendtest.model.Account;
 import revolut.backendtest.model.AccountId;
-import revolut.backendtest.model.Transfer;
+import revolut.backendtest.model.TransferId;
 import revolut.backendtest.service.AccountService;
 import revolut.backendtest.service.IllegalAmountException;
+import revolut.backendtest.service.StorageEpoch;
 import spark.Request;
 import spark.Response;
 
@@ -18,14 +23,20 @@ public class AccountController {
 
   private final RequestTransformer transformer;
   private final AccountService accounts;
+  private final JsonStreamWriter streamWriter;
+  private final StorageEpoch epoch;
 
   @Inject
   public AccountController(
       RequestTransformer transformer,
-      AccountService accounts
+      AccountService accounts,
+      JsonStreamWriter streamWriter,
+      StorageEpoch epoch
   ) {
     this.transformer = transformer;
     this.accounts = accounts;
+    this.streamWriter = streamWriter;
+    this.epoch = epoch;
   }
 
   Account createAccount(Request request, Response response) {
@@ -41,13 +52,42 @@ public class AccountController {
     }
   }
 
-  ImmutableList<Account> getAccounts(Request request, Response response) {
-    return accounts.getAll();
+  /**
+   * Page of accounts ordered by id, when limit is given. Otherwise all of them are streamed,
+   * either as JSON array or as newline delimited JSON, if it is accepted by client.
+   */
+  Object getAccounts(Request request, Response response) throws IOException {
+    Optional<AccountId> after = Pagination.getAfter(request, AccountController::parseAccountId);
+    OptionalInt limit = Pagination.getLimit(request);
+    if (limit.isPresent()) {
+      return accounts.getPage(after, limit.getAsInt());
+    }
+
+    try (Stream<Account> all = accounts.stream(after)) {
+      return JsonStreamWriter.acceptsLines(request)
+          ? streamWriter.writeLines(response, all.iterator())
+          : streamWriter.writeArray(response, all.iterator());
+    }
   }
 
-  Account getAccount(Request request, Response response) {
+  Object getAccount(Request request, Response response) throws IOException {
     AccountId accountId = getAccountId(request);
-    return accounts.get(accountId).orElseThrow(notFound(accountId));
+    Account account = accounts.get(accountId).orElseThrow(notFound(accountId));
+    return notModified(request, response, account) ? JsonStreamWriter.STREAMED : account;
+  }
+
+  /**
+   * Account & its transfers are tagged by account version, which is usually cached,
+   * so polling client which is up to date costs neither query nor rendering.
+   * Account id is unique only within storage epoch, so it is a part of the tag as well.
+   */
+  private boolean notModified(Request request, Response response, Account account) throws IOException {
+    response.header(HttpHeader.CACHE_CONTROL.asString(), ConditionalGet.REVALIDATE);
+    return ConditionalGet.notModified(
+        request,
+        response,
+        ConditionalGet.strongTag(epoch.value() + "-" + account.id.value + "-" + account.version)
+    );
   }
 
   private static AccountId getAccountId(Request request) {
@@ -67,9 +107,19 @@ public class AccountController {
     return () -> new NotFound("Cannot find account with id=" + accountId.value);
   }
 
-  ImmutableList<Transfer> getAccountTransfers(Request request, Response response) {
+  /**
+   * Account transfers, the most recent first. Next page is requested with {@code before} cursor.
+   */
+  Object getAccountTransfers(Request request, Response response) throws IOException {
     AccountId accountId = getAccountId(request);
-    return accounts.getTransfers(accountId)
+    Optional<TransferId> before = Pagination.getBefore(request, TransferController::parseTransferId);
+    OptionalInt limit = Pagination.getLimit(request);
+    Account account = accounts.get(accountId).orElseThrow(notFound(accountId));
+    if (notModified(request, response, account)) {
+      return JsonStreamWriter.STREAMED;
+    }
+
+    return accounts.getTransfers(accountId, before, limit)
         .orElseThrow(notFound(accountId))
         .transfers;
   }
@@ -0,0 +1,51 @@
+package revolut.backendtest.api.spark;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * How request & response bodies of a route are captured into access log.
+ */
+public final class BodyCapture {
+
+  public static final BodyCapture NONE = new BodyCapture(0, 0);
+
+  /**
+   * Share of requests with captured bodies, from 0 to 1.
+   */
+  public final double sampleRate;
+
+  /**
+   * Max number of characters captured from every body.
+   */
+  public final int maxLength;
+
+  private BodyCapture(double sampleRate, int maxLength) {
+    this.sampleRate = sampleRate;
+    this.maxLength = maxLength;
+  }
+
+  public static BodyCapture sampled(double sampleRate, int maxLength) {
+    if (sampleRate < 0 || sampleRate > 1) {
+      throw new IllegalArgumentException("Sample rate should be in range [0, 1]: " + sampleRate);
+    }
+    if (maxLength < 0) {
+      throw new IllegalArgumentException("Max length should be non-negative: " + maxLength);
+    }
+    return sampleRate == 0 || maxLength == 0 ? NONE : new BodyCapture(sampleRate, maxLength);
+  }
+
+  boolean isEnabled() {
+    return this != NONE;
+  }
+
+  boolean shouldCapture() {
+    return sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+  }
+
+  String truncate(String body) {
+    if (body == null || body.length() <= maxLength) {
+      return body;
+    }
+    return body.substring(0, maxLength) + "...";
+  }
+}
@@ -0,0 +1,68 @@
+package revolut.backendtest.api.spark;
+
+import com.google.common.base.Splitter;
+import java.io.IOException;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpStatus;
+import spark.Request;
+import spark.Response;
+
+/**
+ * Conditional GET by entity tag: client which already has the current version of resource
+ * gets {@code 304 Not Modified} without body.
+ */
+final class ConditionalGet {
+
+  /**
+   * Representation of immutable resource may be cached forever.
+   */
+  static final String IMMUTABLE = "public, max-age=31536000, immutable";
+
+  /**
+   * Representation of mutable resource may be cached, but should be revalidated on every use.
+   */
+  static final String REVALIDATE = "no-cache";
+
+  private static final Splitter TAGS = Splitter.on(',').trimResults().omitEmptyStrings();
+  private static final String WEAK = "W/";
+
+  private ConditionalGet() {
+  }
+
+  static String strongTag(String opaque) {
+    return '"' + opaque + '"';
+  }
+
+  /**
+   * Tags the response, and completes it with 304 if the client has the same tag.
+   *
+   * @return true if response is completed, so nothing else should be written
+   */
+  static boolean notModified(Request request, Response response, String etag) throws IOException {
+    response.header(HttpHeader.ETAG.asString(), etag);
+    String ifNoneMatch = request.headers(HttpHeader.IF_NONE_MATCH.asString());
+    if (ifNoneMatch == null || !matches(ifNoneMatch, etag)) {
+      return false;
+    }
+
+    response.status(HttpStatus.NOT_MODIFIED_304);
+    // Spark does not write anything into committed response
+    response.raw().flushBuffer();
+    return true;
+  }
+
+  // If-None-Match uses weak comparison, so weakness of tags is ignored
+  private static boolean matches(String ifNoneMatch, String etag) {
+    String opaque = stripWeak(etag);
+    for (String tag : TAGS.split(ifNoneMatch)) {
+      if ("*".equals(tag) || opaque.equals(stripWeak(tag))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static String stripWeak(String tag) {
+    return tag.startsWith(WEAK) ? tag.substring(WEAK.length()) : tag;
+  }
+}
@@ -0,0 +1,46 @@
+package revolut.backendtest.api.spark;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.inject.Inject;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import java.util.Optional;
+import java.util.function.Function;
+import revolut.backendtest.model.Transfer;
+import revolut.backendtest.model.TransferId;
+
+/**
+ * Bounded cache of transfers already encoded as JSON. Transfers never change,
+ * so it is filled when they are made or read & never invalidated.
+ */
+public class EncodedTransferCache {
+
+  private static final int MAX_SIZE = 100_000;
+
+  private final TransferJsonCodec codec;
+  private final Cache<TransferId, byte[]> cache = CacheBuilder.newBuilder()
+      .maximumSize(MAX_SIZE)
+      .recordStats()
+      .build();
+
+  @Inject
+  EncodedTransferCache(TransferJsonCodec codec, MeterRegistry registry) {
+    this.codec = codec;
+    GuavaCacheMetrics.monitor(registry, cache, "encoded_transfers");
+  }
+
+  Optional<byte[]> get(TransferId id, Function<TransferId, Optional<Transfer>> loader) {
+    byte[] cached = cache.getIfPresent(id);
+    if (cached != null) {
+      return Optional.of(cached);
+    }
+    return loader.apply(id).map(this::encode);
+  }
+
+  byte[] encode(Transfer transfer) {
+    byte[] json = codec.encode(transfer);
+    cache.put(transfer.id, json);
+    return json;
+  }
+}
@@ -49,6 +49,14 @@ public class ExceptionHandlers {
     sendErrorResponse(ex, rq, rs, HttpStatus.BAD_REQUEST_400);
   }
 
+  void conflict(Exception ex, Request rq, Response rs) {
+    sendErrorResponse(ex, rq, rs, HttpStatus.CONFLICT_409);
+  }
+
+  void serviceUnavailable(Exception ex, Request rq, Response rs) {
+    sendErrorResponse(ex, rq, rs, HttpStatus.SERVICE_UNAVAILABLE_503);
+  }
+
   private String toErrorResponseJson(Exception ex) {
     return transformer.render(new ErrorResponse(ex.getMessage()));
   }
@@ -0,0 +1,74 @@
+package revolut.backendtest.api.spark;
+
+import static org.eclipse.jetty.http.MimeTypes.Type.APPLICATION_JSON;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.Inject;
+import java.io.IOException;
+import java.util.Iterator;
+import spark.Request;
+import spark.Response;
+
+/**
+ * Writes JSON straight into servlet output stream, item by item,
+ * so memory consumption does not depend on response size.
+ */
+class JsonStreamWriter {
+
+  /**
+   * Route result for already written response.
+   * Spark does not write anything into committed response, so the value itself is ignored.
+   */
+  static final String STREAMED = "";
+
+  static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+  // lines are flushed in chunks, so client may start processing before the whole response is written
+  private static final int LINES_PER_CHUNK = 256;
+
+  private final ObjectMapper mapper;
+
+  @Inject
+  JsonStreamWriter(ObjectMapper mapper) {
+    this.mapper = mapper;
+  }
+
+  String writeArray(Response response, Iterator<?> items) throws IOException {
+    // after-filters are too late for streamed response
+    response.type(APPLICATION_JSON.asString());
+    try (JsonGenerator generator = mapper.getFactory().createGenerator(response.raw().getOutputStream())) {
+      generator.writeStartArray();
+      while (items.hasNext()) {
+        generator.writeObject(items.next());
+      }
+      generator.writeEndArray();
+    }
+    return STREAMED;
+  }
+
+  /**
+   * Writes newline delimited JSON, one item per line.
+   */
+  String writeLines(Response response, Iterator<?> items) throws IOException {
+    response.type(APPLICATION_NDJSON);
+    try (JsonGenerator generator = mapper.getFactory().createGenerator(response.raw().getOutputStream())) {
+      // lines are separated by newline only, not by the default space between root values
+      generator.setRootValueSeparator(null);
+      int lines = 0;
+      while (items.hasNext()) {
+        generator.writeObject(items.next());
+        generator.writeRaw('\n');
+        if (++lines % LINES_PER_CHUNK == 0) {
+          generator.flush();
+        }
+      }
+    }
+    return STREAMED;
+  }
+
+  static boolean acceptsLines(Request request) {
+    String accept = request.headers("Accept");
+    return accept != null && accept.contains(APPLICATION_NDJSON);
+  }
+}
@@ -0,0 +1,25 @@
+package revolut.backendtest.api.spark;
+
+import com.google.inject.Inject;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.prometheus.client.exporter.common.TextFormat;
+import spark.Request;
+import spark.Response;
+
+public class MetricsController {
+
+  private final PrometheusMeterRegistry registry;
+
+  @Inject
+  public MetricsController(PrometheusMeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  /**
+   * All meters in Prometheus text format, should be rendered as is.
+   */
+  String getMetrics(Request request, Response response) {
+    response.type(TextFormat.CONTENT_TYPE_004);
+    return registry.scrape();
+  }
+}
@@ -0,0 +1,45 @@
+package revolut.backendtest.api.spark;
+
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.function.Function;
+import revolut.backendtest.api.BadRequest;
+import spark.Request;
+
+/**
+ * Keyset pagination parameters: {@code limit} is a page size
+ * and {@code after} (or {@code before} for reversed order) is an id of the last item from the previous page.
+ */
+final class Pagination {
+
+  static final int MAX_LIMIT = 1000;
+
+  private Pagination() {
+  }
+
+  static OptionalInt getLimit(Request request) {
+    String limit = request.queryParams("limit");
+    if (limit == null) {
+      return OptionalInt.empty();
+    }
+
+    int value;
+    try {
+      value = Integer.parseInt(limit);
+    } catch (NumberFormatException ex) {
+      throw new BadRequest("Incorrect limit: " + limit, ex);
+    }
+    if (value <= 0 || value > MAX_LIMIT) {
+      throw new BadRequest("Limit should be in range [1, " + MAX_LIMIT + "]");
+    }
+    return OptionalInt.of(value);
+  }
+
+  static <T> Optional<T> getAfter(Request request, Function<String, T> parseId) {
+    return Optional.ofNullable(request.queryParams("after")).map(parseId);
+  }
+
+  static <T> Optional<T> getBefore(Request request, Function<String, T> parseId) {
+    return Optional.ofNullable(request.queryParams("before")).map(parseId);
+  }
+}
@@ -0,0 +1,48 @@
+package revolut.backendtest.api.spark;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import com.google.inject.Inject;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.eclipse.jetty.server.Request;
+import spark.Route;
+
+/**
+ * Timers of HTTP requests by route, fed by {@link AccessLog}.
+ */
+class RequestMetrics {
+
+  private static final String ROUTE = RequestMetrics.class.getName() + ".route";
+
+  // requests which have not matched any route are not split by path, it is unbounded
+  private static final String UNMATCHED = "unmatched";
+
+  private final MeterRegistry registry;
+
+  @Inject
+  RequestMetrics(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  /**
+   * Route which marks its requests, so they are timed by route path rather than by actual one.
+   */
+  Route tagging(String path, Route route) {
+    return (rq, rs) -> {
+      rq.attribute(ROUTE, path);
+      return route.handle(rq, rs);
+    };
+  }
+
+  void record(Request request, int status, long latencyMillis) {
+    Object route = request.getAttribute(ROUTE);
+    Timer.builder("http.server.requests")
+        .tag("method", request.getMethod())
+        .tag("route", route != null ? route.toString() : UNMATCHED)
+        .tag("status", Integer.toString(status))
+        .publishPercentileHistogram()
+        .register(registry)
+        .record(latencyMillis, MILLISECONDS);
+  }
+}
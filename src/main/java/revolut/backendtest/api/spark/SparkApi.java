@@ -2,25 +2,29 @@ package revolut.backendtest.api.spark;
 
 import static org.eclipse.jetty.http.MimeTypes.Type.APPLICATION_JSON;
 import static spark.Spark.after;
+import static spark.Spark.afterAfter;
 import static spark.Spark.awaitInitialization;
 import static spark.Spark.awaitStop;
-import static spark.Spark.before;
 import static spark.Spark.defaultResponseTransformer;
 import static spark.Spark.exception;
-import static spark.Spark.get;
 import static spark.Spark.initExceptionHandler;
 import static spark.Spark.path;
 import static spark.Spark.port;
-import static spark.Spark.post;
 import static spark.Spark.stop;
 
 import com.google.inject.Inject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import revolut.backendtest.api.BadRequest;
+import revolut.backendtest.api.Conflict;
 import revolut.backendtest.api.NotFound;
 import revolut.backendtest.api.RestApi;
+import revolut.backendtest.api.ServiceUnavailable;
 import spark.ResponseTransformer;
+import spark.Route;
+import spark.Spark;
+import spark.embeddedserver.EmbeddedServers;
+import spark.embeddedserver.jetty.EmbeddedJettyFactory;
 
 public class SparkApi implements RestApi {
 
@@ -30,23 +34,39 @@ public class SparkApi implements RestApi {
 
   private final AccountController accounts;
   private final TransferController transfers;
+  private final TransferEventStream transferStream;
   private final ExceptionHandlers exceptionHandlers;
+  private final MetricsController metrics;
+  private final AccessLog accessLog;
+  private final RequestMetrics requestMetrics;
 
   @Inject
   public SparkApi(
       ResponseTransformer transformer,
       AccountController accounts,
       TransferController transfers,
-      ExceptionHandlers exceptionHandlers
+      TransferEventStream transferStream,
+      MetricsController metrics,
+      ExceptionHandlers exceptionHandlers,
+      AccessLog accessLog,
+      RequestMetrics requestMetrics
   ) {
     this.transformer = transformer;
     this.accounts = accounts;
     this.transfers = transfers;
+    this.transferStream = transferStream;
+    this.metrics = metrics;
     this.exceptionHandlers = exceptionHandlers;
+    this.accessLog = accessLog;
+    this.requestMetrics = requestMetrics;
   }
 
   @Override
   public void startUp() {
+    EmbeddedServers.add(
+        EmbeddedServers.defaultIdentifier(),
+        new EmbeddedJettyFactory(accessLog.serverFactory())
+    );
     port(8080);
     defaultResponseTransformer(transformer);
     initExceptionHandler(ex -> log.error("Failed to init", ex));
@@ -54,50 +74,46 @@ public class SparkApi implements RestApi {
     path(
         "/api/v1",
         () -> {
-          before(
-              "/*",
-              (rq, rs) -> log.info(
-                  "Incoming request: {} {} {}",
-                  rq.requestMethod(),
-                  rq.pathInfo(),
-                  rq.body()
-              )
-          );
-
           get("/accounts", accounts::getAccounts);
           get("/accounts/:id", accounts::getAccount);
           get("/accounts/:id/transfers", accounts::getAccountTransfers);
           post("/accounts", accounts::createAccount);
 
           get("/transfers", transfers::getTransfers);
+          // before transfer by id, which would match it otherwise
+          get("/transfers/stream", transferStream::stream);
           get("/transfers/:id", transfers::getTransfer);
           post("/transfers", transfers::makeTransfer);
+          post("/transfers/batch", transfers::makeTransfers);
 
-          after(
-              "/*",
-              (rq, rs) -> {
-                rs.type(APPLICATION_JSON.asString());
-                log.info(
-                    "Outgoing response: {} {} -> {} {}",
-                    rq.requestMethod(),
-                    rq.pathInfo(),
-                    rs.status(),
-                    rs.body()
-                );
-              }
-          );
+          after("/*", (rq, rs) -> rs.type(APPLICATION_JSON.asString()));
+          afterAfter("/*", accessLog::captureBodies);
         }
     );
 
+    // scraped by Prometheus, so it is neither versioned nor rendered as JSON
+    Spark.get("/metrics", requestMetrics.tagging("/metrics", metrics::getMetrics), Object::toString);
+
     exception(BadRequest.class, exceptionHandlers::badRequest);
     exception(NotFound.class, exceptionHandlers::notFound);
+    exception(Conflict.class, exceptionHandlers::conflict);
+    exception(ServiceUnavailable.class, exceptionHandlers::serviceUnavailable);
     exception(Exception.class, exceptionHandlers::serverError);
 
     awaitInitialization();
   }
 
+  private void get(String path, Route route) {
+    Spark.get(path, requestMetrics.tagging(path, accessLog.capturing("GET", path, route)));
+  }
+
+  private void post(String path, Route route) {
+    Spark.post(path, requestMetrics.tagging(path, accessLog.capturing("POST", path, route)));
+  }
+
   @Override
   public void shutDown() {
+    transferStream.closeAll();
     stop();
     awaitStop();
   }
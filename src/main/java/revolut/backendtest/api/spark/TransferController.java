@@ -1,41 +1,75 @@
 package revolut.backendtest.api.spark;
 
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
 import com.google.common.collect.ImmutableList;
 import com.google.inject.Inject;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpStatus;
 import revolut.backendtest.api.BadRequest;
+import revolut.backendtest.api.Conflict;
 import revolut.backendtest.api.NotFound;
 import revolut.backendtest.api.dto.MakeTransferRequest;
+import revolut.backendtest.api.dto.TransferBatchItem;
 import revolut.backendtest.model.AccountId;
 import revolut.backendtest.model.Transfer;
 import revolut.backendtest.model.TransferId;
+import revolut.backendtest.model.TransferOrder;
 import revolut.backendtest.service.AccountNotFoundException;
+import revolut.backendtest.service.BalanceLimitExceededException;
+import revolut.backendtest.service.BatchMode;
+import revolut.backendtest.service.IdempotencyKeyReusedException;
 import revolut.backendtest.service.IllegalAmountException;
 import revolut.backendtest.service.NotEnoughMoneyException;
 import revolut.backendtest.service.SelfTransferException;
+import revolut.backendtest.service.StorageEpoch;
+import revolut.backendtest.service.TransferAbortedException;
+import revolut.backendtest.service.TransferInProgressException;
+import revolut.backendtest.service.TransferOutcome;
 import revolut.backendtest.service.TransferService;
 import spark.Request;
 import spark.Response;
 
 class TransferController {
 
+  private static final int MAX_BATCH_SIZE = 10_000;
+  private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+  private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
   private final RequestTransformer transformer;
   private final TransferService transferService;
+  private final JsonStreamWriter streamWriter;
+  private final TransferJsonCodec codec;
+  private final EncodedTransferCache encodedTransfers;
+  private final StorageEpoch epoch;
 
   @Inject
   TransferController(
       RequestTransformer transformer,
-      TransferService transferService
+      TransferService transferService,
+      JsonStreamWriter streamWriter,
+      TransferJsonCodec codec,
+      EncodedTransferCache encodedTransfers,
+      StorageEpoch epoch
   ) {
     this.transformer = transformer;
     this.transferService = transferService;
+    this.streamWriter = streamWriter;
+    this.codec = codec;
+    this.encodedTransfers = encodedTransfers;
+    this.epoch = epoch;
   }
 
   private static TransferId getTransferId(Request request) {
     return parseTransferId(request.params(":id"));
   }
 
-  private static TransferId parseTransferId(String id) {
+  static TransferId parseTransferId(String id) {
     try {
       return new TransferId(Long.parseLong(id));
     } catch (NumberFormatException ex) {
@@ -47,17 +81,43 @@ class TransferController {
     return () -> new NotFound("Cannot find transfer with id=" + transferId.value);
   }
 
-  ImmutableList<Transfer> getTransfers(Request request, Response response) {
-    return transferService.getAll();
+  /**
+   * Page of transfers ordered by id, when limit is given. Otherwise all of them are streamed.
+   */
+  Object getTransfers(Request request, Response response) throws IOException {
+    Optional<TransferId> after = Pagination.getAfter(request, TransferController::parseTransferId);
+    OptionalInt limit = Pagination.getLimit(request);
+    if (limit.isPresent()) {
+      return transferService.getPage(after, limit.getAsInt());
+    }
+
+    try (Stream<Transfer> transfers = transferService.stream(after)) {
+      return streamWriter.writeArray(response, transfers.iterator());
+    }
   }
 
-  Transfer getTransfer(Request request, Response response) {
+  /**
+   * Transfer never changes, so its id within storage epoch is a strong entity tag of it.
+   * The client may cache it forever only when the storage is persistent, otherwise the same id
+   * refers to another transfer after restart.
+   */
+  Object getTransfer(Request request, Response response) throws IOException {
     TransferId transferId = getTransferId(request);
-    return transferService.get(transferId).orElseThrow(notFound(transferId));
+    byte[] json = encodedTransfers.get(transferId, transferService::get).orElseThrow(notFound(transferId));
+
+    response.header(
+        HttpHeader.CACHE_CONTROL.asString(),
+        epoch.isPersistent() ? ConditionalGet.IMMUTABLE : ConditionalGet.REVALIDATE
+    );
+    String etag = ConditionalGet.strongTag(epoch.value() + "-" + transferId.value);
+    if (ConditionalGet.notModified(request, response, etag)) {
+      return JsonStreamWriter.STREAMED;
+    }
+    return TransferJsonCodec.write(request, response, json);
   }
 
-  Transfer makeTransfer(Request request, Response response) {
-    MakeTransferRequest rq = transformer.transform(request, MakeTransferRequest.class);
+  Object makeTransfer(Request request, Response response) throws IOException {
+    MakeTransferRequest rq = codec.readRequest(request);
     if (rq.amount == null) {
       throw new BadRequest("Missing transfer amount");
     }
@@ -65,17 +125,110 @@ class TransferController {
       throw new BadRequest("from/to is missing");
     }
 
+    Optional<String> idempotencyKey = getIdempotencyKey(request);
+    Transfer transfer;
     try {
-      return tryMakeTransfer(rq);
+      transfer = idempotencyKey.isPresent()
+          ? tryMakeTransfer(idempotencyKey.get(), rq)
+          : tryMakeTransfer(rq);
     } catch (AccountNotFoundException ex) {
       throw new NotFound(ex.getMessage(), ex);
-    } catch (NotEnoughMoneyException | IllegalAmountException | SelfTransferException ex) {
+    } catch (NotEnoughMoneyException | BalanceLimitExceededException | IllegalAmountException
+        | SelfTransferException | IdempotencyKeyReusedException ex) {
       throw new BadRequest(ex.getMessage(), ex);
+    } catch (TransferInProgressException ex) {
+      throw new Conflict(ex.getMessage(), ex);
     }
+    return TransferJsonCodec.write(request, response, encodedTransfers.encode(transfer));
+  }
+
+  private static Optional<String> getIdempotencyKey(Request request) {
+    String key = request.headers(IDEMPOTENCY_KEY);
+    if (key == null) {
+      return Optional.empty();
+    }
+    if (key.isEmpty() || key.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+      throw new BadRequest(
+          IDEMPOTENCY_KEY + " should be from 1 to " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters long"
+      );
+    }
+    return Optional.of(key);
+  }
+
+  ImmutableList<TransferBatchItem> makeTransfers(Request request, Response response) {
+    MakeTransferRequest[] rqs = transformer.transform(request, MakeTransferRequest[].class);
+    if (rqs == null) {
+      throw new BadRequest("Missing transfers");
+    }
+    if (rqs.length > MAX_BATCH_SIZE) {
+      throw new BadRequest("Too many transfers in batch, max is " + MAX_BATCH_SIZE);
+    }
+
+    ImmutableList.Builder<TransferOrder> orders = ImmutableList.builder();
+    for (int i = 0; i < rqs.length; i++) {
+      MakeTransferRequest rq = rqs[i];
+      if (rq == null || rq.amount == null || rq.from == null || rq.to == null) {
+        throw new BadRequest("from/to/amount is missing in transfer #" + i);
+      }
+      orders.add(new TransferOrder(new AccountId(rq.from), new AccountId(rq.to), rq.amount));
+    }
+
+    return transferService.makeTransfers(orders.build(), getBatchMode(request))
+        .stream()
+        .map(TransferController::toBatchItem)
+        .collect(toImmutableList());
+  }
+
+  private static BatchMode getBatchMode(Request request) {
+    String atomic = request.queryParams("atomic");
+    if (atomic == null || "false".equals(atomic)) {
+      return BatchMode.BEST_EFFORT;
+    }
+    if ("true".equals(atomic)) {
+      return BatchMode.ALL_OR_NOTHING;
+    }
+    throw new BadRequest("Incorrect atomic flag: " + atomic);
+  }
+
+  private static TransferBatchItem toBatchItem(TransferOutcome outcome) {
+    return outcome.transfer()
+        .map(transfer -> TransferBatchItem.success(HttpStatus.OK_200, transfer))
+        .orElseGet(() -> {
+          Exception ex = outcome.error().orElseThrow(IllegalStateException::new);
+          return TransferBatchItem.failure(toStatus(ex), ex.getMessage());
+        });
+  }
+
+  private static int toStatus(Exception ex) {
+    if (ex instanceof AccountNotFoundException) {
+      return HttpStatus.NOT_FOUND_404;
+    }
+    if (ex instanceof NotEnoughMoneyException
+        || ex instanceof BalanceLimitExceededException
+        || ex instanceof IllegalAmountException
+        || ex instanceof SelfTransferException) {
+      return HttpStatus.BAD_REQUEST_400;
+    }
+    if (ex instanceof TransferAbortedException) {
+      return HttpStatus.CONFLICT_409;
+    }
+    return HttpStatus.INTERNAL_SERVER_ERROR_500;
+  }
+
+  private Transfer tryMakeTransfer(String idempotencyKey, MakeTransferRequest rq)
+      throws AccountNotFoundException, NotEnoughMoneyException, BalanceLimitExceededException, IllegalAmountException,
+      SelfTransferException, TransferInProgressException, IdempotencyKeyReusedException {
+    return transferService.makeTransfer(
+        idempotencyKey,
+        new AccountId(rq.from),
+        new AccountId(rq.to),
+        rq.amount
+    );
   }
 
   private Transfer tryMakeTransfer(MakeTransferRequest rq)
-      throws AccountNotFoundException, NotEnoughMoneyException, IllegalAmountException, SelfTransferException {
+      throws AccountNotFoundException, NotEnoughMoneyException, BalanceLimitExceededException, IllegalAmountException,
+      SelfTransferException {
     return transferService.makeTransfer(
         new AccountId(rq.from),
         new AccountId(rq.to),
@@ -0,0 +1,156 @@
+package revolut.backendtest.api.spark;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.inject.Inject;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.eclipse.jetty.http.HttpHeader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import revolut.backendtest.api.ServiceUnavailable;
+import revolut.backendtest.model.Transfer;
+import revolut.backendtest.model.TransferId;
+import revolut.backendtest.service.SubscriptionClosedException;
+import revolut.backendtest.service.TooManySubscribersException;
+import revolut.backendtest.service.TransferBus;
+import revolut.backendtest.service.TransferService;
+import spark.Request;
+import spark.Response;
+
+/**
+ * Server-Sent Events of committed transfers, with transfer id as event id.
+ *
+ * <p>Client which reconnects with {@code Last-Event-ID} gets transfers made after that one from the database first,
+ * then new ones as they are committed. Transfers are committed out of id order by concurrent transactions,
+ * so the new ones are deduplicated by id against the ones read from the database, rather than by the last id.
+ * Client which cannot keep up is disconnected & expected to reconnect.
+ */
+class TransferEventStream {
+
+  static final String TEXT_EVENT_STREAM = "text/event-stream";
+
+  private static final String LAST_EVENT_ID = "Last-Event-ID";
+
+  // comment, which keeps idle connection open & detects disconnected client
+  private static final Duration HEARTBEAT_INTERVAL = Duration.ofSeconds(15);
+  private static final byte[] HEARTBEAT = ":\n\n".getBytes(UTF_8);
+
+  private static final byte[] ID = "id: ".getBytes(UTF_8);
+  private static final byte[] DATA = "\nevent: transfer\ndata: ".getBytes(UTF_8);
+  private static final byte[] END = "\n\n".getBytes(UTF_8);
+
+  private final Logger log = LoggerFactory.getLogger(getClass());
+
+  private final TransferBus bus;
+  private final TransferService transferService;
+  private final TransferJsonCodec codec;
+
+  @Inject
+  TransferEventStream(TransferBus bus, TransferService transferService, TransferJsonCodec codec) {
+    this.bus = bus;
+    this.transferService = transferService;
+    this.codec = codec;
+  }
+
+  /**
+   * Holds the request thread until client is disconnected.
+   *
+   * @return {@link JsonStreamWriter#STREAMED}
+   */
+  String stream(Request request, Response response) {
+    Optional<TransferId> lastEventId = Optional.ofNullable(request.headers(LAST_EVENT_ID))
+        .map(TransferController::parseTransferId);
+
+    // subscribed before history is read, so nothing committed meanwhile is missed
+    try (TransferBus.Subscription subscription = bus.subscribe()) {
+      response.type(TEXT_EVENT_STREAM);
+      response.header(HttpHeader.CACHE_CONTROL.asString(), ConditionalGet.REVALIDATE);
+      response.raw().flushBuffer();
+
+      OutputStream out = response.raw().getOutputStream();
+      Set<Long> sentFromHistory = recentIds(bus.bufferSize());
+      if (lastEventId.isPresent()) {
+        writeHistory(out, lastEventId.get(), sentFromHistory);
+      }
+      while (true) {
+        Optional<Transfer> next = subscription.poll(HEARTBEAT_INTERVAL);
+        if (!next.isPresent()) {
+          out.write(HEARTBEAT);
+          out.flush();
+        } else if (!sentFromHistory.remove(next.get().id.value)) {
+          write(out, next.get());
+          // buffered ones are sent together
+          if (!subscription.hasBuffered()) {
+            out.flush();
+          }
+        }
+      }
+    } catch (TooManySubscribersException ex) {
+      throw new ServiceUnavailable(ex.getMessage(), ex);
+    } catch (SubscriptionClosedException ex) {
+      log.info("Transfer stream is closed: {}", ex.getMessage());
+    } catch (IOException ex) {
+      log.debug("Transfer stream client is disconnected", ex);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } catch (RuntimeException ex) {
+      // e.g. history is failed to be read, but the response is committed already, so it just ends
+      log.error("Transfer stream is failed", ex);
+    }
+    return JsonStreamWriter.STREAMED;
+  }
+
+  /**
+   * Writes transfers made after the given one, adding their ids to {@code sent}.
+   */
+  private void writeHistory(OutputStream out, TransferId lastEventId, Set<Long> sent) throws IOException {
+    try (Stream<Transfer> transfers = transferService.stream(Optional.of(lastEventId))) {
+      Iterator<Transfer> iterator = transfers.iterator();
+      while (iterator.hasNext()) {
+        Transfer transfer = iterator.next();
+        write(out, transfer);
+        sent.add(transfer.id.value);
+      }
+    }
+    out.flush();
+  }
+
+  /**
+   * Set of ids keeping only the most recently added ones. Transfers read from the database which are
+   * delivered by the bus as well are committed since the subscription, and there are at most buffer size
+   * of them, otherwise the subscriber is disconnected. So only the last ones by id are worth keeping:
+   * in the rare case an older one is evicted it is sent twice, but a transfer is never missed.
+   */
+  private static Set<Long> recentIds(int maxSize) {
+    return Collections.newSetFromMap(new LinkedHashMap<Long, Boolean>() {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+        return size() > maxSize;
+      }
+    });
+  }
+
+  private void write(OutputStream out, Transfer transfer) throws IOException {
+    out.write(ID);
+    out.write(Long.toString(transfer.id.value).getBytes(UTF_8));
+    out.write(DATA);
+    out.write(codec.encode(transfer));
+    out.write(END);
+  }
+
+  /**
+   * Streams hold server threads, so they should be ended before server is stopped.
+   */
+  void closeAll() {
+    bus.disconnectAll();
+  }
+}
@@ -0,0 +1,195 @@
+package revolut.backendtest.api.spark;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.time.format.DateTimeFormatter.ISO_INSTANT;
+import static org.eclipse.jetty.http.MimeTypes.Type.APPLICATION_JSON;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.Inject;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import revolut.backendtest.api.BadRequest;
+import revolut.backendtest.api.dto.MakeTransferRequest;
+import revolut.backendtest.model.Transfer;
+
+/**
+ * Hand-written JSON codec of the single transfer hot path, so it neither binds by reflection
+ * nor copies request & response bodies into strings, as {@link JsonRequestTransformer} and
+ * {@link JsonResponseTransformer} do. Format is the same as theirs.
+ *
+ * <p>Response is encoded into a buffer reused by the thread, so it is written with known length
+ * & can be {@link EncodedTransferCache cached} as is.
+ */
+class TransferJsonCodec {
+
+  // transfer is small, so the buffer stays small as well
+  private static final ThreadLocal<ByteArrayOutputStream> BUFFER =
+      ThreadLocal.withInitial(() -> new ByteArrayOutputStream(256));
+  private static final ThreadLocal<Text> TEXT = ThreadLocal.withInitial(Text::new);
+
+  private final JsonFactory factory;
+
+  @Inject
+  TransferJsonCodec(ObjectMapper mapper) {
+    this.factory = mapper.getFactory();
+  }
+
+  MakeTransferRequest readRequest(spark.Request request) {
+    try (InputStream in = request.raw().getInputStream()) {
+      return readRequest(in);
+    } catch (JsonProcessingException ex) {
+      throw new BadRequest("invalid input: " + ex.getOriginalMessage(), ex);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  MakeTransferRequest readRequest(InputStream in) throws IOException {
+    try (JsonParser parser = factory.createParser(in)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new BadRequest("invalid input: transfer request should be an object");
+      }
+
+      Long from = null;
+      Long to = null;
+      BigDecimal amount = null;
+      String field;
+      while ((field = parser.nextFieldName()) != null) {
+        JsonToken value = parser.nextToken();
+        switch (field) {
+          case "from":
+            from = readLong(parser, value, field);
+            break;
+          case "to":
+            to = readLong(parser, value, field);
+            break;
+          case "amount":
+            amount = readDecimal(parser, value, field);
+            break;
+          default:
+            throw new BadRequest("invalid input: unknown field " + field);
+        }
+      }
+      return new MakeTransferRequest(from, to, amount);
+    }
+  }
+
+  // numbers in strings are accepted, as Jackson data binding does
+  private static Long readLong(JsonParser parser, JsonToken value, String field) throws IOException {
+    if (value == JsonToken.VALUE_NULL) {
+      return null;
+    }
+    try {
+      if (value == JsonToken.VALUE_NUMBER_INT) {
+        return parser.getLongValue();
+      }
+      if (value == JsonToken.VALUE_STRING) {
+        return Long.parseLong(parser.getText());
+      }
+    } catch (NumberFormatException | JsonProcessingException ex) {
+      throw new BadRequest("invalid input: " + field + " is not a long", ex);
+    }
+    throw new BadRequest("invalid input: " + field + " is not a long");
+  }
+
+  private static BigDecimal readDecimal(JsonParser parser, JsonToken value, String field) throws IOException {
+    if (value == JsonToken.VALUE_NULL) {
+      return null;
+    }
+    try {
+      if (value == JsonToken.VALUE_NUMBER_INT || value == JsonToken.VALUE_NUMBER_FLOAT) {
+        return parser.getDecimalValue();
+      }
+      if (value == JsonToken.VALUE_STRING) {
+        return new BigDecimal(parser.getText());
+      }
+    } catch (NumberFormatException ex) {
+      throw new BadRequest("invalid input: " + field + " is not a decimal", ex);
+    }
+    throw new BadRequest("invalid input: " + field + " is not a decimal");
+  }
+
+  /**
+   * @return the transfer encoded in the buffer of the thread, copied out to fit exactly
+   */
+  byte[] encode(Transfer transfer) {
+    ByteArrayOutputStream buffer = BUFFER.get();
+    try {
+      writeTransfer(buffer, transfer);
+      return buffer.toByteArray();
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    } finally {
+      buffer.reset();
+    }
+  }
+
+  /**
+   * Writes already encoded JSON as the whole response body.
+   *
+   * @return {@link JsonStreamWriter#STREAMED}
+   */
+  static String write(spark.Request request, spark.Response response, byte[] json) throws IOException {
+    AccessLog.captureWritten(request, () -> new String(json, UTF_8));
+
+    // after-filters are too late for written response
+    response.type(APPLICATION_JSON.asString());
+    response.raw().setContentLength(json.length);
+    try (OutputStream out = response.raw().getOutputStream()) {
+      out.write(json);
+    }
+    return JsonStreamWriter.STREAMED;
+  }
+
+  void writeTransfer(OutputStream out, Transfer transfer) throws IOException {
+    try (JsonGenerator generator = factory.createGenerator(out)) {
+      generator.writeStartObject();
+      generator.writeNumberField("id", transfer.id.value);
+      generator.writeNumberField("from", transfer.from.value);
+      generator.writeNumberField("to", transfer.to.value);
+      Text text = TEXT.get();
+      generator.writeFieldName("at");
+      ISO_INSTANT.formatTo(transfer.at, text.clear());
+      generator.writeString(text.chars(), 0, text.length());
+      generator.writeFieldName("amount");
+      transfer.amount.appendTo(text.clear());
+      generator.writeRawValue(text.chars(), 0, text.length());
+      generator.writeEndObject();
+    }
+  }
+
+  /**
+   * Formatted values, copied out to be written, as generator doesn't take char sequences.
+   */
+  private static final class Text {
+
+    private final StringBuilder builder = new StringBuilder(32);
+    private char[] chars = new char[32];
+
+    StringBuilder clear() {
+      builder.setLength(0);
+      return builder;
+    }
+
+    int length() {
+      return builder.length();
+    }
+
+    char[] chars() {
+      if (chars.length < builder.length()) {
+        chars = new char[builder.length()];
+      }
+      builder.getChars(0, builder.length(), chars, 0);
+      return chars;
+    }
+  }
+}
@@ -0,0 +1,184 @@
+package revolut.backendtest.config;
+
+import com.google.common.base.Ascii;
+import com.google.common.base.CharMatcher;
+import com.google.common.collect.ImmutableMap;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * Flat key-value application configuration with typed getters.
+ *
+ * <p>Values are taken from the first of:
+ * <ol>
+ *   <li>system property, e.g. {@code -Ddb.pool.max-size=16}</li>
+ *   <li>environment variable, e.g. {@code DB_POOL_MAX_SIZE=16}</li>
+ *   <li>properties file given by {@code CONFIG_FILE} environment variable or {@code config.file} system property</li>
+ *   <li>{@code application.properties} on classpath, which should declare every known key</li>
+ * </ol>
+ */
+public final class Config {
+
+  private static final String DEFAULTS_RESOURCE = "/application.properties";
+  private static final String CONFIG_FILE_PROPERTY = "config.file";
+
+  private final ImmutableMap<String, String> values;
+
+  private Config(ImmutableMap<String, String> values) {
+    this.values = values;
+  }
+
+  public static Config load() {
+    return load(System.getenv(), System.getProperties());
+  }
+
+  static Config load(Map<String, String> env, Properties systemProperties) {
+    Map<String, String> values = new HashMap<>(readDefaults());
+
+    String configFile = systemProperties.getProperty(
+        CONFIG_FILE_PROPERTY,
+        env.get(toEnvName(CONFIG_FILE_PROPERTY))
+    );
+    if (configFile != null) {
+      values.putAll(readFile(Paths.get(configFile)));
+    }
+
+    for (String key : values.keySet()) {
+      String override = systemProperties.getProperty(key, env.get(toEnvName(key)));
+      if (override != null) {
+        values.put(key, override);
+      }
+    }
+    return new Config(ImmutableMap.copyOf(values));
+  }
+
+  /**
+   * Config with given values on top of the defaults, without any external overrides.
+   */
+  public static Config of(Map<String, String> values) {
+    Map<String, String> merged = new HashMap<>(readDefaults());
+    merged.putAll(values);
+    return new Config(ImmutableMap.copyOf(merged));
+  }
+
+  static String toEnvName(String key) {
+    return Ascii.toUpperCase(CharMatcher.anyOf(".-").replaceFrom(key, '_'));
+  }
+
+  public String getString(String key) {
+    String value = values.get(key);
+    if (value == null) {
+      throw new IllegalArgumentException("Missing config value: " + key);
+    }
+    return value.trim();
+  }
+
+  /**
+   * Empty value is treated as absent one.
+   */
+  public Optional<String> getOptionalString(String key) {
+    return Optional.of(getString(key)).filter(value -> !value.isEmpty());
+  }
+
+  public int getInt(String key) {
+    String value = getString(key);
+    try {
+      return Integer.parseInt(value);
+    } catch (NumberFormatException ex) {
+      throw malformed(key, value, ex);
+    }
+  }
+
+  public boolean getBoolean(String key) {
+    String value = getString(key);
+    if (value.equalsIgnoreCase("true")) {
+      return true;
+    }
+    if (value.equalsIgnoreCase("false")) {
+      return false;
+    }
+    throw malformed(key, value, null);
+  }
+
+  /**
+   * Duration either in ISO-8601 format, or as a number with one of {@code ms, s, m, h} units, e.g. {@code 30s}.
+   */
+  public Duration getDuration(String key) {
+    String value = getString(key);
+    try {
+      if (value.startsWith("P") || value.startsWith("p")) {
+        return Duration.parse(value);
+      }
+      if (value.endsWith("ms")) {
+        return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+      }
+      long amount = Long.parseLong(value.substring(0, value.length() - 1));
+      switch (value.charAt(value.length() - 1)) {
+        case 's':
+          return Duration.ofSeconds(amount);
+        case 'm':
+          return Duration.ofMinutes(amount);
+        case 'h':
+          return Duration.ofHours(amount);
+        default:
+          throw malformed(key, value, null);
+      }
+    } catch (NumberFormatException | DateTimeParseException | StringIndexOutOfBoundsException ex) {
+      throw malformed(key, value, ex);
+    }
+  }
+
+  public <E extends Enum<E>> E getEnum(String key, Class<E> type) {
+    String value = getString(key);
+    try {
+      return Enum.valueOf(type, Ascii.toUpperCase(value));
+    } catch (IllegalArgumentException ex) {
+      throw malformed(key, value, ex);
+    }
+  }
+
+  private static IllegalArgumentException malformed(String key, String value, Exception cause) {
+    return new IllegalArgumentException("Malformed config value: " + key + "=" + value, cause);
+  }
+
+  private static Map<String, String> readDefaults() {
+    try (InputStream in = Config.class.getResourceAsStream(DEFAULTS_RESOURCE)) {
+      if (in == null) {
+        throw new IllegalStateException("Missing config defaults: " + DEFAULTS_RESOURCE);
+      }
+      Properties properties = new Properties();
+      properties.load(in);
+      return toMap(properties);
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Failed to read config defaults", ex);
+    }
+  }
+
+  private static Map<String, String> readFile(Path file) {
+    try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      Properties properties = new Properties();
+      properties.load(reader);
+      return toMap(properties);
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Failed to read config file: " + file, ex);
+    }
+  }
+
+  private static Map<String, String> toMap(Properties properties) {
+    Map<String, String> map = new HashMap<>();
+    properties.stringPropertyNames().forEach(key -> map.put(key, properties.getProperty(key)));
+    return map;
+  }
+}
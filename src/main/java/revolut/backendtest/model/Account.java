@@ -1,20 +1,28 @@
 package revolut.backendtest.model;
 
-import java.math.BigDecimal;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.time.Instant;
 
 public final class Account {
   public final AccountId id;
   public final Instant createdAt;
-  public final BigDecimal balance;
+  public final Money balance;
+
+  /**
+   * Incremented by every transfer of the account, so it tells whether the account or its transfers have changed.
+   */
+  @JsonIgnore
+  public final long version;
 
   public Account(
       AccountId id,
       Instant createdAt,
-      BigDecimal balance
+      Money balance,
+      long version
   ) {
     this.id = id;
     this.createdAt = createdAt;
     this.balance = balance;
+    this.version = version;
   }
 }
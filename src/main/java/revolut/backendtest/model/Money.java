@@ -0,0 +1,121 @@
+package revolut.backendtest.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Amount of money in cents, so arithmetic & comparisons on the hot path don't allocate.
+ * Arithmetic is exact, overflow throws {@link ArithmeticException}.
+ *
+ * <p>{@link BigDecimal} is used only at the edges: for database columns & incoming requests.
+ */
+@JsonSerialize(using = Money.Serializer.class)
+public final class Money implements Comparable<Money> {
+
+  public static final int SCALE = 2;
+  public static final Money ZERO = new Money(0);
+  /**
+   * Greatest amount, account balances are bounded by it in the database as well.
+   */
+  public static final Money MAX = new Money(Long.MAX_VALUE);
+
+  private static final int CENTS = 100;
+
+  public final long cents;
+
+  private Money(long cents) {
+    this.cents = cents;
+  }
+
+  public static Money ofCents(long cents) {
+    return cents == 0 ? ZERO : new Money(cents);
+  }
+
+  /**
+   * @throws ArithmeticException if amount has non-zero digits beyond cents or doesn't fit
+   */
+  public static Money of(BigDecimal amount) {
+    return ofCents(amount.setScale(SCALE).unscaledValue().longValueExact());
+  }
+
+  public BigDecimal toBigDecimal() {
+    return BigDecimal.valueOf(cents, SCALE);
+  }
+
+  public Money plus(Money other) {
+    return ofCents(Math.addExact(cents, other.cents));
+  }
+
+  public Money minus(Money other) {
+    return ofCents(Math.subtractExact(cents, other.cents));
+  }
+
+  public Money negate() {
+    return ofCents(Math.negateExact(cents));
+  }
+
+  public int signum() {
+    return Long.signum(cents);
+  }
+
+  @Override
+  public int compareTo(Money other) {
+    return Long.compare(cents, other.cents);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    return cents == ((Money) o).cents;
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(cents);
+  }
+
+  /**
+   * Plain decimal notation with exactly two fraction digits, e.g. {@code -0.05}.
+   */
+  @Override
+  public String toString() {
+    return appendTo(new StringBuilder(24)).toString();
+  }
+
+  /**
+   * Appends the same as {@link #toString()}, so it can be written without intermediate string.
+   */
+  public StringBuilder appendTo(StringBuilder sb) {
+    if (cents < 0) {
+      sb.append('-');
+    }
+    // division keeps Long.MIN_VALUE in range before abs
+    sb.append(Math.abs(cents / CENTS)).append('.');
+    int fraction = (int) Math.abs(cents % CENTS);
+    if (fraction < 10) {
+      sb.append('0');
+    }
+    return sb.append(fraction);
+  }
+
+  public static final class Serializer extends StdSerializer<Money> {
+
+    public Serializer() {
+      super(Money.class);
+    }
+
+    @Override
+    public void serialize(Money value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+      gen.writeNumber(value.toString());
+    }
+  }
+}
@@ -1,6 +1,5 @@
 package revolut.backendtest.model;
 
-import java.math.BigDecimal;
 import java.time.Instant;
 
 public final class Transfer {
@@ -8,14 +7,14 @@ public final class Transfer {
   public final AccountId from;
   public final AccountId to;
   public final Instant at;
-  public final BigDecimal amount;
+  public final Money amount;
 
   public Transfer(
       TransferId id,
       AccountId from,
       AccountId to,
       Instant at,
-      BigDecimal amount
+      Money amount
   ) {
     this.id = id;
     this.from = from;
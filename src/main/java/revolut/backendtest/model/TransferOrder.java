@@ -0,0 +1,22 @@
+package revolut.backendtest.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Transfer which is requested, but not yet made.
+ */
+public final class TransferOrder {
+  public final AccountId from;
+  public final AccountId to;
+  public final BigDecimal amount;
+
+  public TransferOrder(
+      AccountId from,
+      AccountId to,
+      BigDecimal amount
+  ) {
+    this.from = from;
+    this.to = to;
+    this.amount = amount;
+  }
+}
@@ -1,19 +1,43 @@
 package revolut.backendtest.persistence;
 
 import com.google.inject.PrivateModule;
-import com.google.inject.Provides;
-import com.google.inject.Singleton;
+import revolut.backendtest.config.Config;
 import revolut.backendtest.persistence.jdbc.DataSourceProvider;
 import revolut.backendtest.persistence.jdbc.DatabaseMigrationService;
 import revolut.backendtest.persistence.jdbc.DatabaseService;
+import revolut.backendtest.persistence.jdbc.DatabaseType;
 import revolut.backendtest.persistence.jdbc.JdbcConfig;
 import revolut.backendtest.persistence.jooq.H2JooqContextProvider;
 import revolut.backendtest.persistence.jooq.JooqContextProvider;
+import revolut.backendtest.persistence.jooq.PostgresJooqContextProvider;
+import revolut.backendtest.persistence.jooq.RowLock;
 
 public class PersistenceModule extends PrivateModule {
 
+  private final JdbcConfig jdbcConfig;
+  private final RowLock rowLock;
+
+  public PersistenceModule() {
+    this(Config.load());
+  }
+
+  public PersistenceModule(Config config) {
+    this(JdbcConfig.from(config), config.getEnum("db.row-lock", RowLock.class));
+  }
+
+  public PersistenceModule(JdbcConfig jdbcConfig, RowLock rowLock) {
+    if (jdbcConfig.type == DatabaseType.H2 && rowLock != RowLock.WAIT) {
+      throw new IllegalArgumentException("H2 supports only waiting row locks, got: " + rowLock);
+    }
+    this.jdbcConfig = jdbcConfig;
+    this.rowLock = rowLock;
+  }
+
   @Override
   protected void configure() {
+    bind(JdbcConfig.class).toInstance(jdbcConfig);
+    bind(RowLock.class).toInstance(rowLock);
+
     bind(DataSourceProvider.class).to(DatabaseService.class).asEagerSingleton();
     bind(DatabaseService.class).asEagerSingleton();
     expose(DatabaseService.class);
@@ -21,19 +45,21 @@ public class PersistenceModule extends PrivateModule {
     bind(DatabaseMigrationService.class).asEagerSingleton();
     expose(DatabaseMigrationService.class);
 
-    bind(JooqContextProvider.class).to(H2JooqContextProvider.class).asEagerSingleton();
+    bindJooqContextProvider();
     expose(JooqContextProvider.class);
   }
 
-  @Provides
-  @Singleton
-  private JdbcConfig jdbcConfig() {
-    //TODO: configure in file?
-    return new JdbcConfig(
-      "jdbc:h2:mem:revolut;DB_CLOSE_DELAY=-1",
-      "sa",
-      ""
-    );
+  private void bindJooqContextProvider() {
+    switch (jdbcConfig.type) {
+      case H2:
+        bind(JooqContextProvider.class).to(H2JooqContextProvider.class).asEagerSingleton();
+        break;
+      case POSTGRES:
+        bind(JooqContextProvider.class).to(PostgresJooqContextProvider.class).asEagerSingleton();
+        break;
+      default:
+        throw new IllegalArgumentException("Unsupported database type: " + jdbcConfig.type);
+    }
   }
 }
 
@@ -2,27 +2,87 @@ package revolut.backendtest.persistence.jdbc;
 
 import com.google.common.util.concurrent.AbstractIdleService;
 import com.google.inject.Inject;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Optional;
+import javax.sql.DataSource;
 import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class DatabaseMigrationService extends AbstractIdleService {
 
+  /**
+   * Version of the latest migration in {@code db/migration}, should be bumped with every new one.
+   * Migrations of every database type have the same versions.
+   */
+  static final String SCHEMA_VERSION = "9";
+
+  private static final String HISTORY_TABLE = "flyway_schema_history";
+
+  private final Logger log = LoggerFactory.getLogger(getClass());
+
   private final DataSourceProvider dataSourceProvider;
+  private final JdbcConfig config;
 
   @Inject
-  public DatabaseMigrationService(DataSourceProvider dataSourceProvider) {
+  public DatabaseMigrationService(DataSourceProvider dataSourceProvider, JdbcConfig config) {
     this.dataSourceProvider = dataSourceProvider;
+    this.config = config;
   }
 
   @Override
-  protected void startUp() {
-    Flyway.configure()
-        .dataSource(dataSourceProvider.dataSource())
-        .load()
-        .migrate();
+  protected void startUp() throws SQLException {
+    DataSource dataSource = dataSourceProvider.dataSource();
+
+    // reopened database is usually current, so classpath scan & validation of all migrations is skipped
+    Optional<String> installed = installedVersion(dataSource);
+    if (installed.equals(Optional.of(SCHEMA_VERSION))) {
+      log.info("Schema is current, version {}", SCHEMA_VERSION);
+      return;
+    }
+
+    Flyway flyway = Flyway.configure()
+        .dataSource(dataSource)
+        .locations(config.type.migrations)
+        .load();
+    flyway.migrate();
+
+    String migrated = Optional.ofNullable(flyway.info().current())
+        .map(MigrationInfo::getVersion)
+        .map(Object::toString)
+        .orElse(null);
+    if (!SCHEMA_VERSION.equals(migrated)) {
+      throw new IllegalStateException(
+          "Schema is migrated to version " + migrated + ", but " + SCHEMA_VERSION + " is expected"
+      );
+    }
+  }
+
+  private static Optional<String> installedVersion(DataSource dataSource) throws SQLException {
+    try (Connection connection = dataSource.getConnection()) {
+      try (ResultSet tables = connection.getMetaData().getTables(null, null, HISTORY_TABLE, null)) {
+        if (!tables.next()) {
+          return Optional.empty();
+        }
+      }
+
+      // any failed migration should be reported by Flyway
+      try (PreparedStatement statement = connection.prepareStatement(
+          "SELECT \"version\", \"success\" FROM \"" + HISTORY_TABLE + "\""
+              + " WHERE \"version\" IS NOT NULL ORDER BY \"installed_rank\" DESC LIMIT 1"
+      ); ResultSet rs = statement.executeQuery()) {
+        return rs.next() && rs.getBoolean(2)
+            ? Optional.of(rs.getString(1))
+            : Optional.empty();
+      }
+    }
   }
 
   @Override
   protected void shutDown() {
   }
 }
-
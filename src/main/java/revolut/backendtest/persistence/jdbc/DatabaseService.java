@@ -3,18 +3,23 @@ package revolut.backendtest.persistence.jdbc;
 import com.google.common.util.concurrent.AbstractIdleService;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.Optional;
 import javax.inject.Inject;
 
 public class DatabaseService extends AbstractIdleService implements DataSourceProvider {
 
+  private static final String POOL_NAME = "revolut";
+
   private final JdbcConfig config;
+  private final MeterRegistry meterRegistry;
 
   private Optional<HikariDataSource> dataSource = Optional.empty();
 
   @Inject
-  public DatabaseService(JdbcConfig config) {
+  public DatabaseService(JdbcConfig config, MeterRegistry meterRegistry) {
     this.config = config;
+    this.meterRegistry = meterRegistry;
   }
 
   @Override
@@ -24,6 +29,15 @@ public class DatabaseService extends AbstractIdleService implements DataSourcePr
     hikariConfig.setUsername(config.user);
     hikariConfig.setPassword(config.password);
     hikariConfig.setAutoCommit(false);
+    hikariConfig.setMaximumPoolSize(config.pool.maxSize);
+    hikariConfig.setMinimumIdle(config.pool.minIdle);
+    hikariConfig.setConnectionTimeout(config.pool.connectionTimeout.toMillis());
+    hikariConfig.setIdleTimeout(config.pool.idleTimeout.toMillis());
+    hikariConfig.setMaxLifetime(config.pool.maxLifetime.toMillis());
+    config.driverProperties.forEach(hikariConfig::addDataSourceProperty);
+    hikariConfig.setPoolName(POOL_NAME);
+    // active, idle & pending connections, acquire time
+    hikariConfig.setMetricRegistry(meterRegistry);
 
     dataSource = Optional.of(new HikariDataSource(hikariConfig));
   }
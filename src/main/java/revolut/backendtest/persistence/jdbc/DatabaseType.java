@@ -0,0 +1,15 @@
+package revolut.backendtest.persistence.jdbc;
+
+public enum DatabaseType {
+  H2("classpath:db/migration/h2"),
+  POSTGRES("classpath:db/migration/postgres");
+
+  /**
+   * Flyway location of the migrations written in the database dialect.
+   */
+  public final String migrations;
+
+  DatabaseType(String migrations) {
+    this.migrations = migrations;
+  }
+}
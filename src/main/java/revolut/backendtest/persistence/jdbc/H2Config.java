@@ -0,0 +1,95 @@
+package revolut.backendtest.persistence.jdbc;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import revolut.backendtest.config.Config;
+
+/**
+ * H2 database location & settings, which are passed in JDBC URL.
+ */
+public final class H2Config {
+
+  public enum Storage {
+    MEM,
+    FILE
+  }
+
+  public final Storage storage;
+  public final String name;
+
+  /**
+   * Directory of database files, used by {@link Storage#FILE} only.
+   */
+  public final Path dir;
+
+  public final boolean mvStore;
+  public final Duration lockTimeout;
+  public final int cacheSizeKb;
+
+  /**
+   * Number of recently prepared statements reused by every connection.
+   */
+  public final int queryCacheSize;
+
+  /**
+   * How long committed changes may stay in memory before they are written to file,
+   * zero makes every commit wait for the write, but costs commit latency.
+   */
+  public final Duration writeDelay;
+
+  /**
+   * How long file is compacted on close, so it is smaller & faster to reopen.
+   */
+  public final Duration maxCompactTime;
+
+  public H2Config(
+      Storage storage,
+      String name,
+      Path dir,
+      boolean mvStore,
+      Duration lockTimeout,
+      int cacheSizeKb,
+      int queryCacheSize,
+      Duration writeDelay,
+      Duration maxCompactTime
+  ) {
+    this.storage = storage;
+    this.name = name;
+    this.dir = dir;
+    this.mvStore = mvStore;
+    this.lockTimeout = lockTimeout;
+    this.cacheSizeKb = cacheSizeKb;
+    this.queryCacheSize = queryCacheSize;
+    this.writeDelay = writeDelay;
+    this.maxCompactTime = maxCompactTime;
+  }
+
+  public static H2Config from(Config config) {
+    return new H2Config(
+        config.getEnum("db.h2.storage", Storage.class),
+        config.getString("db.h2.name"),
+        Paths.get(config.getString("db.h2.dir")),
+        config.getBoolean("db.h2.mv-store"),
+        config.getDuration("db.h2.lock-timeout"),
+        config.getInt("db.h2.cache-size-kb"),
+        config.getInt("db.h2.query-cache-size"),
+        config.getDuration("db.h2.write-delay"),
+        config.getDuration("db.h2.max-compact-time")
+    );
+  }
+
+  public String url() {
+    String location = storage == Storage.MEM
+        // in-memory database should outlive its last connection, pool may close all of them
+        ? "mem:" + name + ";DB_CLOSE_DELAY=-1"
+        : "file:" + dir.resolve(name).toAbsolutePath()
+            + ";WRITE_DELAY=" + writeDelay.toMillis()
+            + ";MAX_COMPACT_TIME=" + maxCompactTime.toMillis();
+    return "jdbc:h2:" + location
+        + ";MV_STORE=" + Boolean.toString(mvStore).toUpperCase()
+        + ";LOCK_TIMEOUT=" + lockTimeout.toMillis()
+        + ";CACHE_SIZE=" + cacheSizeKb
+        + ";QUERY_CACHE_SIZE=" + queryCacheSize;
+  }
+}
@@ -1,15 +1,67 @@
 package revolut.backendtest.persistence.jdbc;
 
+import com.google.common.collect.ImmutableMap;
+import revolut.backendtest.config.Config;
+
 public final class JdbcConfig {
 
+  public final DatabaseType type;
   public final String url;
   public final String user;
   public final String password;
+  public final PoolConfig pool;
+
+  /**
+   * Properties of JDBC driver, on top of the ones given in URL.
+   */
+  public final ImmutableMap<String, String> driverProperties;
 
-  public JdbcConfig(String url, String user, String password) {
+  public JdbcConfig(
+      DatabaseType type,
+      String url,
+      String user,
+      String password,
+      PoolConfig pool,
+      ImmutableMap<String, String> driverProperties
+  ) {
+    this.type = type;
     this.url = url;
     this.user = user;
     this.password = password;
+    this.pool = pool;
+    this.driverProperties = driverProperties;
+  }
+
+  /**
+   * Explicit {@code db.url} takes precedence over H2 URL built from {@code db.h2.*} settings,
+   * it is required for any other database.
+   */
+  public static JdbcConfig from(Config config) {
+    DatabaseType type = config.getEnum("db.type", DatabaseType.class);
+    return new JdbcConfig(
+        type,
+        config.getOptionalString("db.url").orElseGet(() -> {
+          if (type != DatabaseType.H2) {
+            throw new IllegalArgumentException("Missing config value: db.url");
+          }
+          return H2Config.from(config).url();
+        }),
+        config.getString("db.user"),
+        config.getString("db.password"),
+        PoolConfig.from(config),
+        driverProperties(type, config)
+    );
+  }
+
+  private static ImmutableMap<String, String> driverProperties(DatabaseType type, Config config) {
+    if (type != DatabaseType.POSTGRES) {
+      // H2 statement cache is set in URL
+      return ImmutableMap.of();
+    }
+    return ImmutableMap.of(
+        "prepareThreshold", Integer.toString(config.getInt("db.postgres.prepare-threshold")),
+        "preparedStatementCacheQueries", Integer.toString(config.getInt("db.postgres.statement-cache-size"))
+    );
   }
 
 }
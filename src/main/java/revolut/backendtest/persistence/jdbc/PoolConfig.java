@@ -0,0 +1,49 @@
+package revolut.backendtest.persistence.jdbc;
+
+import java.time.Duration;
+import revolut.backendtest.config.Config;
+
+/**
+ * Connection pool parameters, see HikariCP documentation for their meaning.
+ */
+public final class PoolConfig {
+
+  public final int maxSize;
+  public final int minIdle;
+  public final Duration connectionTimeout;
+  public final Duration idleTimeout;
+  public final Duration maxLifetime;
+
+  public PoolConfig(
+      int maxSize,
+      int minIdle,
+      Duration connectionTimeout,
+      Duration idleTimeout,
+      Duration maxLifetime
+  ) {
+    this.maxSize = maxSize;
+    this.minIdle = minIdle;
+    this.connectionTimeout = connectionTimeout;
+    this.idleTimeout = idleTimeout;
+    this.maxLifetime = maxLifetime;
+  }
+
+  /**
+   * Zero max size is derived from number of cores, zero min idle means fixed size pool.
+   */
+  public static PoolConfig from(Config config) {
+    int maxSize = config.getInt("db.pool.max-size");
+    if (maxSize == 0) {
+      // well-known starting point for a pool of connections to a single disk database
+      maxSize = Runtime.getRuntime().availableProcessors() * 2 + 1;
+    }
+    int minIdle = config.getInt("db.pool.min-idle");
+    return new PoolConfig(
+        maxSize,
+        minIdle == 0 ? maxSize : minIdle,
+        config.getDuration("db.pool.connection-timeout"),
+        config.getDuration("db.pool.idle-timeout"),
+        config.getDuration("db.pool.max-lifetime")
+    );
+  }
+}
@@ -0,0 +1,143 @@
+package revolut.backendtest.persistence.jdbc;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Timestamp;
+import java.sql.Types;
+import org.h2.tools.SimpleResultSet;
+import revolut.backendtest.model.Money;
+
+/**
+ * Whole transfer made by H2 within single call of {@code MAKE_TRANSFER} alias created by migration,
+ * i.e. {@code SELECT * FROM MAKE_TRANSFER(from, to, amount)} returns inserted transfers row.
+ * Postgres migration creates function with the same name, result & error codes.
+ *
+ * <p>Accounts are updated in id order, same as they are locked by other transfers.
+ * Debit is conditional on enough balance, credit on balance limit, and rejections are told apart
+ * by checking the account once affected row count is zero.
+ * Errors are the same as by other transfer modes: from account is checked before to account.
+ *
+ * <p>H2 re-executes the calling query when it fails on concurrent update, without undoing statements
+ * already executed by the function, so they are rolled back to a savepoint before the error is rethrown.
+ * Even so MVStore loses concurrent updates made by the function, so it is called only with page store.
+ */
+public final class TransferProcedure {
+
+  public static final String FROM_ACCOUNT_NOT_FOUND = "TR001";
+  public static final String TO_ACCOUNT_NOT_FOUND = "TR002";
+  public static final String NOT_ENOUGH_MONEY = "TR003";
+  public static final String BALANCE_LIMIT_EXCEEDED = "TR004";
+
+  private static final String COLUMN_LIST_URL = "jdbc:columnlist:connection";
+
+  private static final String DEBIT = "UPDATE ACCOUNTS SET BALANCE = BALANCE - ?, VERSION = VERSION + 1"
+      + " WHERE ACCOUNT_ID = ? AND BALANCE >= ?";
+  private static final String CREDIT = "UPDATE ACCOUNTS SET BALANCE = BALANCE + ?, VERSION = VERSION + 1"
+      + " WHERE ACCOUNT_ID = ? AND BALANCE <= " + Money.MAX + " - ?";
+  private static final String ACCOUNT_EXISTS = "SELECT 1 FROM ACCOUNTS WHERE ACCOUNT_ID = ?";
+  private static final String INSERT = "INSERT INTO TRANSFERS (FROM_ACCOUNT_ID, TO_ACCOUNT_ID, AMOUNT)"
+      + " VALUES (?, ?, ?)";
+  private static final String[] GENERATED_COLUMNS = {"TRANSFER_ID", "TRANSFERED_AT"};
+
+  private TransferProcedure() {
+  }
+
+  public static ResultSet makeTransfer(
+      Connection connection,
+      long from,
+      long to,
+      BigDecimal amount
+  ) throws SQLException {
+    SimpleResultSet result = new SimpleResultSet();
+    result.addColumn("TRANSFER_ID", Types.BIGINT, 19, 0);
+    result.addColumn("FROM_ACCOUNT_ID", Types.BIGINT, 19, 0);
+    result.addColumn("TO_ACCOUNT_ID", Types.BIGINT, 19, 0);
+    result.addColumn("TRANSFERED_AT", Types.TIMESTAMP, 26, 6);
+    result.addColumn("AMOUNT", Types.DECIMAL, 20, 2);
+
+    // table function is called once more beforehand just to find out its columns
+    if (COLUMN_LIST_URL.equals(connection.getMetaData().getURL())) {
+      return result;
+    }
+
+    Savepoint savepoint = connection.setSavepoint();
+    try {
+      if (from < to) {
+        debit(connection, from, amount);
+        credit(connection, to, amount);
+      } else if (tryCredit(connection, to, amount)) {
+        debit(connection, from, amount);
+      } else {
+        // rejected the same way as by other transfer modes, which check from account first
+        debit(connection, from, amount);
+        throw creditRejected(connection, to);
+      }
+
+      try (PreparedStatement insert = connection.prepareStatement(INSERT, GENERATED_COLUMNS)) {
+        insert.setLong(1, from);
+        insert.setLong(2, to);
+        insert.setBigDecimal(3, amount);
+        insert.executeUpdate();
+        try (ResultSet keys = insert.getGeneratedKeys()) {
+          keys.next();
+          long id = keys.getLong(1);
+          Timestamp transferedAt = keys.getTimestamp(2);
+          result.addRow(id, from, to, transferedAt, amount);
+        }
+      }
+    } catch (SQLException | RuntimeException e) {
+      connection.rollback(savepoint);
+      throw e;
+    }
+    return result;
+  }
+
+  private static void debit(Connection connection, long id, BigDecimal amount) throws SQLException {
+    try (PreparedStatement debit = connection.prepareStatement(DEBIT)) {
+      debit.setBigDecimal(1, amount);
+      debit.setLong(2, id);
+      debit.setBigDecimal(3, amount);
+      if (debit.executeUpdate() > 0) {
+        return;
+      }
+    }
+    try (PreparedStatement exists = connection.prepareStatement(ACCOUNT_EXISTS)) {
+      exists.setLong(1, id);
+      try (ResultSet rs = exists.executeQuery()) {
+        throw rs.next()
+            ? new SQLException("Not enough money to transfer", NOT_ENOUGH_MONEY)
+            : new SQLException("Cannot find account with id=" + id, FROM_ACCOUNT_NOT_FOUND);
+      }
+    }
+  }
+
+  private static void credit(Connection connection, long id, BigDecimal amount) throws SQLException {
+    if (!tryCredit(connection, id, amount)) {
+      throw creditRejected(connection, id);
+    }
+  }
+
+  private static boolean tryCredit(Connection connection, long id, BigDecimal amount) throws SQLException {
+    try (PreparedStatement credit = connection.prepareStatement(CREDIT)) {
+      credit.setBigDecimal(1, amount);
+      credit.setLong(2, id);
+      credit.setBigDecimal(3, amount);
+      return credit.executeUpdate() > 0;
+    }
+  }
+
+  private static SQLException creditRejected(Connection connection, long id) throws SQLException {
+    try (PreparedStatement exists = connection.prepareStatement(ACCOUNT_EXISTS)) {
+      exists.setLong(1, id);
+      try (ResultSet rs = exists.executeQuery()) {
+        return rs.next()
+            ? new SQLException("Balance of recipient account would exceed its limit", BALANCE_LIMIT_EXCEEDED)
+            : new SQLException("Cannot find account with id=" + id, TO_ACCOUNT_NOT_FOUND);
+      }
+    }
+  }
+}
@@ -1,12 +1,8 @@
 package revolut.backendtest.persistence.jooq;
 
 import com.google.inject.Inject;
-import java.sql.Connection;
-import java.sql.SQLException;
-import org.jooq.ConnectionProvider;
 import org.jooq.DSLContext;
 import org.jooq.SQLDialect;
-import org.jooq.exception.DataAccessException;
 import org.jooq.impl.DSL;
 import org.jooq.impl.DefaultConfiguration;
 import revolut.backendtest.persistence.jdbc.DataSourceProvider;
@@ -19,27 +15,7 @@ public class H2JooqContextProvider implements JooqContextProvider {
   public H2JooqContextProvider(DataSourceProvider dataSourceProvider) {
     ctx = DSL.using(
         new DefaultConfiguration()
-            .set(
-                new ConnectionProvider() {
-                  @Override
-                  public Connection acquire() throws DataAccessException {
-                    try {
-                      return dataSourceProvider.dataSource().getConnection();
-                    } catch (SQLException ex) {
-                      throw new DataAccessException("unable to get connection from pool", ex);
-                    }
-                  }
-
-                  @Override
-                  public void release(Connection connection) throws DataAccessException {
-                    try {
-                      connection.close();
-                    } catch (SQLException ex) {
-                      throw new DataAccessException("exception while close connection", ex);
-                    }
-                  }
-                }
-            )
+            .set(new PooledConnectionProvider(dataSourceProvider))
             .set(SQLDialect.H2)
     );
   }
@@ -49,5 +25,9 @@ public class H2JooqContextProvider implements JooqContextProvider {
     return ctx;
   }
 
-}
+  @Override
+  public RowLock rowLock() {
+    return RowLock.WAIT;
+  }
 
+}
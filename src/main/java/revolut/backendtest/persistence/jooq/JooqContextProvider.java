@@ -5,4 +5,6 @@ import org.jooq.DSLContext;
 public interface JooqContextProvider {
 
   DSLContext context();
+
+  RowLock rowLock();
 }
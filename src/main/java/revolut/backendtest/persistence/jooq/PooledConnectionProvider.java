@@ -0,0 +1,34 @@
+package revolut.backendtest.persistence.jooq;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import org.jooq.ConnectionProvider;
+import org.jooq.exception.DataAccessException;
+import revolut.backendtest.persistence.jdbc.DataSourceProvider;
+
+class PooledConnectionProvider implements ConnectionProvider {
+
+  private final DataSourceProvider dataSourceProvider;
+
+  PooledConnectionProvider(DataSourceProvider dataSourceProvider) {
+    this.dataSourceProvider = dataSourceProvider;
+  }
+
+  @Override
+  public Connection acquire() throws DataAccessException {
+    try {
+      return dataSourceProvider.dataSource().getConnection();
+    } catch (SQLException ex) {
+      throw new DataAccessException("unable to get connection from pool", ex);
+    }
+  }
+
+  @Override
+  public void release(Connection connection) throws DataAccessException {
+    try {
+      connection.close();
+    } catch (SQLException ex) {
+      throw new DataAccessException("exception while close connection", ex);
+    }
+  }
+}
@@ -0,0 +1,46 @@
+package revolut.backendtest.persistence.jooq;
+
+import com.google.inject.Inject;
+import org.jooq.DSLContext;
+import org.jooq.SQLDialect;
+import org.jooq.conf.RenderNameCase;
+import org.jooq.conf.RenderQuotedNames;
+import org.jooq.conf.Settings;
+import org.jooq.impl.DSL;
+import org.jooq.impl.DefaultConfiguration;
+import revolut.backendtest.persistence.jdbc.DataSourceProvider;
+
+/**
+ * Same generated schema as for H2, which has upper case names in PUBLIC schema,
+ * is rendered as unquoted lower case names in default schema of Postgres.
+ */
+public class PostgresJooqContextProvider implements JooqContextProvider {
+
+  private final DSLContext ctx;
+  private final RowLock rowLock;
+
+  @Inject
+  public PostgresJooqContextProvider(DataSourceProvider dataSourceProvider, RowLock rowLock) {
+    this.ctx = DSL.using(
+        new DefaultConfiguration()
+            .set(new PooledConnectionProvider(dataSourceProvider))
+            .set(SQLDialect.POSTGRES)
+            .set(new Settings()
+                .withRenderSchema(false)
+                .withRenderNameCase(RenderNameCase.LOWER)
+                .withRenderQuotedNames(RenderQuotedNames.NEVER)
+            )
+    );
+    this.rowLock = rowLock;
+  }
+
+  @Override
+  public DSLContext context() {
+    return ctx;
+  }
+
+  @Override
+  public RowLock rowLock() {
+    return rowLock;
+  }
+}
@@ -0,0 +1,117 @@
+package revolut.backendtest.persistence.jooq;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Param;
+import org.jooq.Query;
+import org.jooq.Record;
+import org.jooq.Record1;
+import org.jooq.Record2;
+import org.jooq.ResultQuery;
+import org.jooq.Table;
+import org.jooq.impl.DSL;
+
+/**
+ * Query rendered to SQL once, so hot paths don't build & render jOOQ query tree on every call,
+ * but only bind values of its named {@link DSL#param(String, Class) params}.
+ * The same SQL string on every call also lets driver reuse statement it has already parsed.
+ *
+ * <p>Results are coerced to the fields of the original query,
+ * so they are typed the same as if it was executed as is.
+ */
+public final class RenderedQuery<R extends Record> {
+
+  private static final Pattern NAMED_PARAM = Pattern.compile(":(\\w+)");
+
+  private final String sql;
+  // in order of placeholders in sql, the same param may occur several times
+  private final ImmutableList<Param<?>> params;
+  private final Function<ResultQuery<Record>, ResultQuery<R>> coercion;
+
+  private RenderedQuery(
+      DSLContext context,
+      Query query,
+      Function<ResultQuery<Record>, ResultQuery<R>> coercion
+  ) {
+    Map<String, Param<?>> declared = query.getParams();
+    ImmutableList.Builder<Param<?>> params = ImmutableList.builder();
+    Matcher placeholders = NAMED_PARAM.matcher(context.renderNamedParams(query));
+    while (placeholders.find()) {
+      Param<?> param = declared.get(placeholders.group(1));
+      if (param == null) {
+        throw new IllegalArgumentException("Query has unnamed bind value: " + query);
+      }
+      params.add(param);
+    }
+
+    this.sql = context.render(query);
+    this.params = params.build();
+    this.coercion = coercion;
+  }
+
+  public static RenderedQuery<Record> of(DSLContext context, Query query) {
+    return new RenderedQuery<>(context, query, Function.identity());
+  }
+
+  /**
+   * @param query selecting or returning rows of the table
+   */
+  public static <R extends Record> RenderedQuery<R> of(
+      DSLContext context,
+      Query query,
+      Table<R> table
+  ) {
+    return new RenderedQuery<>(context, query, rendered -> rendered.coerce(table));
+  }
+
+  public static <T1> RenderedQuery<Record1<T1>> of(
+      DSLContext context,
+      ResultQuery<Record1<T1>> query,
+      Field<T1> field1
+  ) {
+    return new RenderedQuery<>(context, query, rendered -> rendered.coerce(field1));
+  }
+
+  public static <T1, T2> RenderedQuery<Record2<T1, T2>> of(
+      DSLContext context,
+      ResultQuery<Record2<T1, T2>> query,
+      Field<T1> field1,
+      Field<T2> field2
+  ) {
+    return new RenderedQuery<>(context, query, rendered -> rendered.coerce(field1, field2));
+  }
+
+  /**
+   * @param values by param name, all params of the query should have them
+   * @return number of affected rows
+   */
+  public int execute(DSLContext context, ImmutableMap<String, ?> values) {
+    return context.execute(sql, bindings(values));
+  }
+
+  /**
+   * @param values by param name, all params of the query should have them
+   */
+  public ResultQuery<R> query(DSLContext context, ImmutableMap<String, ?> values) {
+    return coercion.apply(context.resultQuery(sql, bindings(values)));
+  }
+
+  private Object[] bindings(ImmutableMap<String, ?> values) {
+    Object[] bindings = new Object[params.size()];
+    for (int i = 0; i < bindings.length; i++) {
+      Param<?> param = params.get(i);
+      Object value = values.get(param.getParamName());
+      if (value == null) {
+        throw new IllegalArgumentException("Missing value of param: " + param.getParamName());
+      }
+      bindings[i] = DSL.val(value, param.getDataType());
+    }
+    return bindings;
+  }
+}
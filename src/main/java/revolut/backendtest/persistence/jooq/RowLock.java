@@ -0,0 +1,34 @@
+package revolut.backendtest.persistence.jooq;
+
+import org.jooq.Record;
+import org.jooq.SelectForUpdateStep;
+import org.jooq.SelectOptionStep;
+
+/**
+ * How rows selected for update are locked when they are already locked by other transaction.
+ */
+public enum RowLock {
+
+  /**
+   * Waits for other transaction up to lock timeout of the database.
+   */
+  WAIT {
+    @Override
+    public <R extends Record> SelectOptionStep<R> lock(SelectForUpdateStep<R> select) {
+      return select.forUpdate();
+    }
+  },
+
+  /**
+   * Fails right away, so contended transaction gives up its own locks sooner.
+   * Not supported by H2.
+   */
+  NOWAIT {
+    @Override
+    public <R extends Record> SelectOptionStep<R> lock(SelectForUpdateStep<R> select) {
+      return select.forUpdate().noWait();
+    }
+  };
+
+  public abstract <R extends Record> SelectOptionStep<R> lock(SelectForUpdateStep<R> select);
+}
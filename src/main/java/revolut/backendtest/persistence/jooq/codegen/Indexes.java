@@ -11,6 +11,7 @@ import org.jooq.OrderField;
 import org.jooq.impl.Internal;
 
 import revolut.backendtest.persistence.jooq.codegen.tables.Accounts;
+import revolut.backendtest.persistence.jooq.codegen.tables.IdempotencyKeys;
 import revolut.backendtest.persistence.jooq.codegen.tables.Transfers;
 
 
@@ -31,19 +32,29 @@ public class Indexes {
     // INDEX definitions
     // -------------------------------------------------------------------------
 
-    public static final Index PRIMARY_KEY_A = Indexes0.PRIMARY_KEY_A;
+    public static final Index PRIMARY_KEY_6A = Indexes0.PRIMARY_KEY_6A;
+    public static final Index CONSTRAINT_INDEX_6 = Indexes0.CONSTRAINT_INDEX_6;
+    public static final Index IDEMPOTENCY_KEYS_CLAIMED_AT_IDX = Indexes0.IDEMPOTENCY_KEYS_CLAIMED_AT_IDX;
+    public static final Index PRIMARY_KEY_63 = Indexes0.PRIMARY_KEY_63;
     public static final Index CONSTRAINT_INDEX_E = Indexes0.CONSTRAINT_INDEX_E;
     public static final Index CONSTRAINT_INDEX_E4 = Indexes0.CONSTRAINT_INDEX_E4;
     public static final Index PRIMARY_KEY_E = Indexes0.PRIMARY_KEY_E;
+    public static final Index TRANSFERS_FROM_ACCOUNT_IDX = Indexes0.TRANSFERS_FROM_ACCOUNT_IDX;
+    public static final Index TRANSFERS_TO_ACCOUNT_IDX = Indexes0.TRANSFERS_TO_ACCOUNT_IDX;
 
     // -------------------------------------------------------------------------
     // [#1459] distribute members to avoid static initialisers > 64kb
     // -------------------------------------------------------------------------
 
     private static class Indexes0 {
-        public static Index PRIMARY_KEY_A = Internal.createIndex("PRIMARY_KEY_A", Accounts.ACCOUNTS, new OrderField[] { Accounts.ACCOUNTS.ACCOUNT_ID }, true);
+        public static Index PRIMARY_KEY_6A = Internal.createIndex("PRIMARY_KEY_6A", Accounts.ACCOUNTS, new OrderField[] { Accounts.ACCOUNTS.ACCOUNT_ID }, true);
+        public static Index CONSTRAINT_INDEX_6 = Internal.createIndex("CONSTRAINT_INDEX_6", IdempotencyKeys.IDEMPOTENCY_KEYS, new OrderField[] { IdempotencyKeys.IDEMPOTENCY_KEYS.TRANSFER_ID }, false);
+        public static Index IDEMPOTENCY_KEYS_CLAIMED_AT_IDX = Internal.createIndex("IDEMPOTENCY_KEYS_CLAIMED_AT_IDX", IdempotencyKeys.IDEMPOTENCY_KEYS, new OrderField[] { IdempotencyKeys.IDEMPOTENCY_KEYS.CLAIMED_AT }, false);
+        public static Index PRIMARY_KEY_63 = Internal.createIndex("PRIMARY_KEY_63", IdempotencyKeys.IDEMPOTENCY_KEYS, new OrderField[] { IdempotencyKeys.IDEMPOTENCY_KEYS.IDEMPOTENCY_KEY }, true);
         public static Index CONSTRAINT_INDEX_E = Internal.createIndex("CONSTRAINT_INDEX_E", Transfers.TRANSFERS, new OrderField[] { Transfers.TRANSFERS.FROM_ACCOUNT_ID }, false);
         public static Index CONSTRAINT_INDEX_E4 = Internal.createIndex("CONSTRAINT_INDEX_E4", Transfers.TRANSFERS, new OrderField[] { Transfers.TRANSFERS.TO_ACCOUNT_ID }, false);
         public static Index PRIMARY_KEY_E = Internal.createIndex("PRIMARY_KEY_E", Transfers.TRANSFERS, new OrderField[] { Transfers.TRANSFERS.TRANSFER_ID }, true);
+        public static Index TRANSFERS_FROM_ACCOUNT_IDX = Internal.createIndex("TRANSFERS_FROM_ACCOUNT_IDX", Transfers.TRANSFERS, new OrderField[] { Transfers.TRANSFERS.FROM_ACCOUNT_ID, Transfers.TRANSFERS.TRANSFERED_AT, Transfers.TRANSFERS.TRANSFER_ID }, false);
+        public static Index TRANSFERS_TO_ACCOUNT_IDX = Internal.createIndex("TRANSFERS_TO_ACCOUNT_IDX", Transfers.TRANSFERS, new OrderField[] { Transfers.TRANSFERS.TO_ACCOUNT_ID, Transfers.TRANSFERS.TRANSFERED_AT, Transfers.TRANSFERS.TRANSFER_ID }, false);
     }
 }
@@ -12,8 +12,10 @@ import org.jooq.UniqueKey;
 import org.jooq.impl.Internal;
 
 import revolut.backendtest.persistence.jooq.codegen.tables.Accounts;
+import revolut.backendtest.persistence.jooq.codegen.tables.IdempotencyKeys;
 import revolut.backendtest.persistence.jooq.codegen.tables.Transfers;
 import revolut.backendtest.persistence.jooq.codegen.tables.records.AccountsRecord;
+import revolut.backendtest.persistence.jooq.codegen.tables.records.IdempotencyKeysRecord;
 import revolut.backendtest.persistence.jooq.codegen.tables.records.TransfersRecord;
 
 
@@ -43,12 +45,14 @@ public class Keys {
     // -------------------------------------------------------------------------
 
     public static final UniqueKey<AccountsRecord> CONSTRAINT_A = UniqueKeys0.CONSTRAINT_A;
+    public static final UniqueKey<IdempotencyKeysRecord> CONSTRAINT_6 = UniqueKeys0.CONSTRAINT_6;
     public static final UniqueKey<TransfersRecord> CONSTRAINT_E = UniqueKeys0.CONSTRAINT_E;
 
     // -------------------------------------------------------------------------
     // FOREIGN KEY definitions
     // -------------------------------------------------------------------------
 
+    public static final ForeignKey<IdempotencyKeysRecord, TransfersRecord> CONSTRAINT_63 = ForeignKeys0.CONSTRAINT_63;
     public static final ForeignKey<TransfersRecord, AccountsRecord> CONSTRAINT_E4 = ForeignKeys0.CONSTRAINT_E4;
     public static final ForeignKey<TransfersRecord, AccountsRecord> CONSTRAINT_E4D = ForeignKeys0.CONSTRAINT_E4D;
 
@@ -63,10 +67,12 @@ public class Keys {
 
     private static class UniqueKeys0 {
         public static final UniqueKey<AccountsRecord> CONSTRAINT_A = Internal.createUniqueKey(Accounts.ACCOUNTS, "CONSTRAINT_A", Accounts.ACCOUNTS.ACCOUNT_ID);
+        public static final UniqueKey<IdempotencyKeysRecord> CONSTRAINT_6 = Internal.createUniqueKey(IdempotencyKeys.IDEMPOTENCY_KEYS, "CONSTRAINT_6", IdempotencyKeys.IDEMPOTENCY_KEYS.IDEMPOTENCY_KEY);
         public static final UniqueKey<TransfersRecord> CONSTRAINT_E = Internal.createUniqueKey(Transfers.TRANSFERS, "CONSTRAINT_E", Transfers.TRANSFERS.TRANSFER_ID);
     }
 
     private static class ForeignKeys0 {
+        public static final ForeignKey<IdempotencyKeysRecord, TransfersRecord> CONSTRAINT_63 = Internal.createForeignKey(revolut.backendtest.persistence.jooq.codegen.Keys.CONSTRAINT_E, IdempotencyKeys.IDEMPOTENCY_KEYS, "CONSTRAINT_63", IdempotencyKeys.IDEMPOTENCY_KEYS.TRANSFER_ID);
         public static final ForeignKey<TransfersRecord, AccountsRecord> CONSTRAINT_E4 = Internal.createForeignKey(revolut.backendtest.persistence.jooq.codegen.Keys.CONSTRAINT_A, Transfers.TRANSFERS, "CONSTRAINT_E4", Transfers.TRANSFERS.FROM_ACCOUNT_ID);
         public static final ForeignKey<TransfersRecord, AccountsRecord> CONSTRAINT_E4D = Internal.createForeignKey(revolut.backendtest.persistence.jooq.codegen.Keys.CONSTRAINT_A, Transfers.TRANSFERS, "CONSTRAINT_E4D", Transfers.TRANSFERS.TO_ACCOUNT_ID);
     }
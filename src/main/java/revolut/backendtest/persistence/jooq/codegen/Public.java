@@ -15,6 +15,8 @@ import org.jooq.Table;
 import org.jooq.impl.SchemaImpl;
 
 import revolut.backendtest.persistence.jooq.codegen.tables.Accounts;
+import revolut.backendtest.persistence.jooq.codegen.tables.DatabaseEpoch;
+import revolut.backendtest.persistence.jooq.codegen.tables.IdempotencyKeys;
 import revolut.backendtest.persistence.jooq.codegen.tables.Transfers;
 
 
@@ -31,7 +33,7 @@ import revolut.backendtest.persistence.jooq.codegen.tables.Transfers;
 @SuppressWarnings({ "all", "unchecked", "rawtypes" })
 public class Public extends SchemaImpl {
 
-    private static final long serialVersionUID = 1477730528;
+    private static final long serialVersionUID = 1179622482;
 
     /**
      * The reference instance of <code>PUBLIC</code>
@@ -43,6 +45,16 @@ public class Public extends SchemaImpl {
      */
     public final Accounts ACCOUNTS = revolut.backendtest.persistence.jooq.codegen.tables.Accounts.ACCOUNTS;
 
+    /**
+     * The table <code>PUBLIC.DATABASE_EPOCH</code>.
+     */
+    public final DatabaseEpoch DATABASE_EPOCH = revolut.backendtest.persistence.jooq.codegen.tables.DatabaseEpoch.DATABASE_EPOCH;
+
+    /**
+     * The table <code>PUBLIC.IDEMPOTENCY_KEYS</code>.
+     */
+    public final IdempotencyKeys IDEMPOTENCY_KEYS = revolut.backendtest.persistence.jooq.codegen.tables.IdempotencyKeys.IDEMPOTENCY_KEYS;
+
     /**
      * The table <code>PUBLIC.TRANSFERS</code>.
      */
@@ -71,6 +83,8 @@ public class Public extends SchemaImpl {
     private final List<Table<?>> getTables0() {
         return Arrays.<Table<?>>asList(
             Accounts.ACCOUNTS,
+            DatabaseEpoch.DATABASE_EPOCH,
+            IdempotencyKeys.IDEMPOTENCY_KEYS,
             Transfers.TRANSFERS);
     }
 }
@@ -7,6 +7,8 @@ package revolut.backendtest.persistence.jooq.codegen;
 import javax.annotation.Generated;
 
 import revolut.backendtest.persistence.jooq.codegen.tables.Accounts;
+import revolut.backendtest.persistence.jooq.codegen.tables.DatabaseEpoch;
+import revolut.backendtest.persistence.jooq.codegen.tables.IdempotencyKeys;
 import revolut.backendtest.persistence.jooq.codegen.tables.Transfers;
 
 
@@ -28,6 +30,16 @@ public class Tables {
      */
     public static final Accounts ACCOUNTS = Accounts.ACCOUNTS;
 
+    /**
+     * The table <code>PUBLIC.DATABASE_EPOCH</code>.
+     */
+    public static final DatabaseEpoch DATABASE_EPOCH = DatabaseEpoch.DATABASE_EPOCH;
+
+    /**
+     * The table <code>PUBLIC.IDEMPOTENCY_KEYS</code>.
+     */
+    public static final IdempotencyKeys IDEMPOTENCY_KEYS = IdempotencyKeys.IDEMPOTENCY_KEYS;
+
     /**
      * The table <code>PUBLIC.TRANSFERS</code>.
      */
@@ -17,7 +17,7 @@ import org.jooq.Identity;
 import org.jooq.Index;
 import org.jooq.Name;
 import org.jooq.Record;
-import org.jooq.Row3;
+import org.jooq.Row4;
 import org.jooq.Schema;
 import org.jooq.Table;
 import org.jooq.TableField;
@@ -44,7 +44,7 @@ import revolut.backendtest.persistence.jooq.codegen.tables.records.AccountsRecor
 @SuppressWarnings({ "all", "unchecked", "rawtypes" })
 public class Accounts extends TableImpl<AccountsRecord> {
 
-    private static final long serialVersionUID = -1205564649;
+    private static final long serialVersionUID = -1318809663;
 
     /**
      * The reference instance of <code>PUBLIC.ACCOUNTS</code>
@@ -74,6 +74,11 @@ public class Accounts extends TableImpl<AccountsRecord> {
      */
     public final TableField<AccountsRecord, BigDecimal> BALANCE = createField(DSL.name("BALANCE"), org.jooq.impl.SQLDataType.DECIMAL(20, 2).defaultValue(org.jooq.impl.DSL.field("0", org.jooq.impl.SQLDataType.DECIMAL)), this, "");
 
+    /**
+     * The column <code>PUBLIC.ACCOUNTS.VERSION</code>.
+     */
+    public final TableField<AccountsRecord, Long> VERSION = createField(DSL.name("VERSION"), org.jooq.impl.SQLDataType.BIGINT.nullable(false).defaultValue(org.jooq.impl.DSL.field("0", org.jooq.impl.SQLDataType.BIGINT)), this, "");
+
     /**
      * Create a <code>PUBLIC.ACCOUNTS</code> table reference
      */
@@ -114,7 +119,7 @@ public class Accounts extends TableImpl<AccountsRecord> {
 
     @Override
     public List<Index> getIndexes() {
-        return Arrays.<Index>asList(Indexes.PRIMARY_KEY_A);
+        return Arrays.<Index>asList(Indexes.PRIMARY_KEY_6A);
     }
 
     @Override
@@ -159,11 +164,11 @@ public class Accounts extends TableImpl<AccountsRecord> {
     }
 
     // -------------------------------------------------------------------------
-    // Row3 type methods
+    // Row4 type methods
     // -------------------------------------------------------------------------
 
     @Override
-    public Row3<Long, Timestamp, BigDecimal> fieldsRow() {
-        return (Row3) super.fieldsRow();
+    public Row4<Long, Timestamp, BigDecimal, Long> fieldsRow() {
+        return (Row4) super.fieldsRow();
     }
 }
@@ -0,0 +1,171 @@
+/*
+ * This file is generated by jOOQ.
+ */
+package revolut.backendtest.persistence.jooq.codegen.tables;
+
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.annotation.Generated;
+
+import org.jooq.Field;
+import org.jooq.ForeignKey;
+import org.jooq.Index;
+import org.jooq.Name;
+import org.jooq.Record;
+import org.jooq.Row3;
+import org.jooq.Schema;
+import org.jooq.Table;
+import org.jooq.TableField;
+import org.jooq.UniqueKey;
+import org.jooq.impl.DSL;
+import org.jooq.impl.TableImpl;
+
+import revolut.backendtest.persistence.jooq.codegen.Indexes;
+import revolut.backendtest.persistence.jooq.codegen.Keys;
+import revolut.backendtest.persistence.jooq.codegen.Public;
+import revolut.backendtest.persistence.jooq.codegen.tables.records.IdempotencyKeysRecord;
+
+
+/**
+ * This class is generated by jOOQ.
+ */
+@Generated(
+    value = {
+        "http://www.jooq.org",
+        "jOOQ version:3.12.1"
+    },
+    comments = "This class is generated by jOOQ"
+)
+@SuppressWarnings({ "all", "unchecked", "rawtypes" })
+public class IdempotencyKeys extends TableImpl<IdempotencyKeysRecord> {
+
+    private static final long serialVersionUID = 1986454466;
+
+    /**
+     * The reference instance of <code>PUBLIC.IDEMPOTENCY_KEYS</code>
+     */
+    public static final IdempotencyKeys IDEMPOTENCY_KEYS = new IdempotencyKeys();
+
+    /**
+     * The class holding records for this type
+     */
+    @Override
+    public Class<IdempotencyKeysRecord> getRecordType() {
+        return IdempotencyKeysRecord.class;
+    }
+
+    /**
+     * The column <code>PUBLIC.IDEMPOTENCY_KEYS.IDEMPOTENCY_KEY</code>.
+     */
+    public final TableField<IdempotencyKeysRecord, String> IDEMPOTENCY_KEY = createField(DSL.name("IDEMPOTENCY_KEY"), org.jooq.impl.SQLDataType.VARCHAR(255).nullable(false), this, "");
+
+    /**
+     * The column <code>PUBLIC.IDEMPOTENCY_KEYS.TRANSFER_ID</code>.
+     */
+    public final TableField<IdempotencyKeysRecord, Long> TRANSFER_ID = createField(DSL.name("TRANSFER_ID"), org.jooq.impl.SQLDataType.BIGINT, this, "");
+
+    /**
+     * The column <code>PUBLIC.IDEMPOTENCY_KEYS.CLAIMED_AT</code>.
+     */
+    public final TableField<IdempotencyKeysRecord, Timestamp> CLAIMED_AT = createField(DSL.name("CLAIMED_AT"), org.jooq.impl.SQLDataType.TIMESTAMP.precision(6).nullable(false).defaultValue(org.jooq.impl.DSL.field("CURRENT_TIMESTAMP", org.jooq.impl.SQLDataType.TIMESTAMP)), this, "");
+
+    /**
+     * Create a <code>PUBLIC.IDEMPOTENCY_KEYS</code> table reference
+     */
+    public IdempotencyKeys() {
+        this(DSL.name("IDEMPOTENCY_KEYS"), null);
+    }
+
+    /**
+     * Create an aliased <code>PUBLIC.IDEMPOTENCY_KEYS</code> table reference
+     */
+    public IdempotencyKeys(String alias) {
+        this(DSL.name(alias), IDEMPOTENCY_KEYS);
+    }
+
+    /**
+     * Create an aliased <code>PUBLIC.IDEMPOTENCY_KEYS</code> table reference
+     */
+    public IdempotencyKeys(Name alias) {
+        this(alias, IDEMPOTENCY_KEYS);
+    }
+
+    private IdempotencyKeys(Name alias, Table<IdempotencyKeysRecord> aliased) {
+        this(alias, aliased, null);
+    }
+
+    private IdempotencyKeys(Name alias, Table<IdempotencyKeysRecord> aliased, Field<?>[] parameters) {
+        super(alias, null, aliased, parameters, DSL.comment(""));
+    }
+
+    public <O extends Record> IdempotencyKeys(Table<O> child, ForeignKey<O, IdempotencyKeysRecord> key) {
+        super(child, key, IDEMPOTENCY_KEYS);
+    }
+
+    @Override
+    public Schema getSchema() {
+        return Public.PUBLIC;
+    }
+
+    @Override
+    public List<Index> getIndexes() {
+        return Arrays.<Index>asList(Indexes.CONSTRAINT_INDEX_6, Indexes.IDEMPOTENCY_KEYS_CLAIMED_AT_IDX, Indexes.PRIMARY_KEY_63);
+    }
+
+    @Override
+    public UniqueKey<IdempotencyKeysRecord> getPrimaryKey() {
+        return Keys.CONSTRAINT_6;
+    }
+
+    @Override
+    public List<UniqueKey<IdempotencyKeysRecord>> getKeys() {
+        return Arrays.<UniqueKey<IdempotencyKeysRecord>>asList(Keys.CONSTRAINT_6);
+    }
+
+    @Override
+    public List<ForeignKey<IdempotencyKeysRecord, ?>> getReferences() {
+        return Arrays.<ForeignKey<IdempotencyKeysRecord, ?>>asList(Keys.CONSTRAINT_63);
+    }
+
+    public Transfers transfers() {
+        return new Transfers(this, Keys.CONSTRAINT_63);
+    }
+
+    @Override
+    public IdempotencyKeys as(String alias) {
+        return new IdempotencyKeys(DSL.name(alias), this);
+    }
+
+    @Override
+    public IdempotencyKeys as(Name alias) {
+        return new IdempotencyKeys(alias, this);
+    }
+
+    /**
+     * Rename this table
+     */
+    @Override
+    public IdempotencyKeys rename(String name) {
+        return new IdempotencyKeys(DSL.name(name), null);
+    }
+
+    /**
+     * Rename this table
+     */
+    @Override
+    public IdempotencyKeys rename(Name name) {
+        return new IdempotencyKeys(name, null);
+    }
+
+    // -------------------------------------------------------------------------
+    // Row3 type methods
+    // -------------------------------------------------------------------------
+
+    @Override
+    public Row3<String, Long, Timestamp> fieldsRow() {
+        return (Row3) super.fieldsRow();
+    }
+}
@@ -44,7 +44,7 @@ import revolut.backendtest.persistence.jooq.codegen.tables.records.TransfersReco
 @SuppressWarnings({ "all", "unchecked", "rawtypes" })
 public class Transfers extends TableImpl<TransfersRecord> {
 
-    private static final long serialVersionUID = -1539253622;
+    private static final long serialVersionUID = -1565589189;
 
     /**
      * The reference instance of <code>PUBLIC.TRANSFERS</code>
@@ -124,7 +124,7 @@ public class Transfers extends TableImpl<TransfersRecord> {
 
     @Override
     public List<Index> getIndexes() {
-        return Arrays.<Index>asList(Indexes.CONSTRAINT_INDEX_E, Indexes.CONSTRAINT_INDEX_E4, Indexes.PRIMARY_KEY_E);
+        return Arrays.<Index>asList(Indexes.CONSTRAINT_INDEX_E, Indexes.CONSTRAINT_INDEX_E4, Indexes.PRIMARY_KEY_E, Indexes.TRANSFERS_FROM_ACCOUNT_IDX, Indexes.TRANSFERS_TO_ACCOUNT_IDX);
     }
 
     @Override
@@ -11,8 +11,8 @@ import javax.annotation.Generated;
 
 import org.jooq.Field;
 import org.jooq.Record1;
-import org.jooq.Record3;
-import org.jooq.Row3;
+import org.jooq.Record4;
+import org.jooq.Row4;
 import org.jooq.impl.UpdatableRecordImpl;
 
 import revolut.backendtest.persistence.jooq.codegen.tables.Accounts;
@@ -29,9 +29,9 @@ import revolut.backendtest.persistence.jooq.codegen.tables.Accounts;
     comments = "This class is generated by jOOQ"
 )
 @SuppressWarnings({ "all", "unchecked", "rawtypes" })
-public class AccountsRecord extends UpdatableRecordImpl<AccountsRecord> implements Record3<Long, Timestamp, BigDecimal> {
+public class AccountsRecord extends UpdatableRecordImpl<AccountsRecord> implements Record4<Long, Timestamp, BigDecimal, Long> {
 
-    private static final long serialVersionUID = -360847644;
+    private static final long serialVersionUID = 1802133925;
 
     /**
      * Setter for <code>PUBLIC.ACCOUNTS.ACCOUNT_ID</code>.
@@ -75,6 +75,20 @@ public class AccountsRecord extends UpdatableRecordImpl<AccountsRecord> implemen
         return (BigDecimal) get(2);
     }
 
+    /**
+     * Setter for <code>PUBLIC.ACCOUNTS.VERSION</code>.
+     */
+    public void setVersion(Long value) {
+        set(3, value);
+    }
+
+    /**
+     * Getter for <code>PUBLIC.ACCOUNTS.VERSION</code>.
+     */
+    public Long getVersion() {
+        return (Long) get(3);
+    }
+
     // -------------------------------------------------------------------------
     // Primary key information
     // -------------------------------------------------------------------------
@@ -85,17 +99,17 @@ public class AccountsRecord extends UpdatableRecordImpl<AccountsRecord> implemen
     }
 
     // -------------------------------------------------------------------------
-    // Record3 type implementation
+    // Record4 type implementation
     // -------------------------------------------------------------------------
 
     @Override
-    public Row3<Long, Timestamp, BigDecimal> fieldsRow() {
-        return (Row3) super.fieldsRow();
+    public Row4<Long, Timestamp, BigDecimal, Long> fieldsRow() {
+        return (Row4) super.fieldsRow();
     }
 
     @Override
-    public Row3<Long, Timestamp, BigDecimal> valuesRow() {
-        return (Row3) super.valuesRow();
+    public Row4<Long, Timestamp, BigDecimal, Long> valuesRow() {
+        return (Row4) super.valuesRow();
     }
 
     @Override
@@ -113,6 +127,11 @@ public class AccountsRecord extends UpdatableRecordImpl<AccountsRecord> implemen
         return Accounts.ACCOUNTS.BALANCE;
     }
 
+    @Override
+    public Field<Long> field4() {
+        return Accounts.ACCOUNTS.VERSION;
+    }
+
     @Override
     public Long component1() {
         return getAccountId();
@@ -128,6 +147,11 @@ public class AccountsRecord extends UpdatableRecordImpl<AccountsRecord> implemen
         return getBalance();
     }
 
+    @Override
+    public Long component4() {
+        return getVersion();
+    }
+
     @Override
     public Long value1() {
         return getAccountId();
@@ -143,6 +167,11 @@ public class AccountsRecord extends UpdatableRecordImpl<AccountsRecord> implemen
         return getBalance();
     }
 
+    @Override
+    public Long value4() {
+        return getVersion();
+    }
+
     @Override
     public AccountsRecord value1(Long value) {
         setAccountId(value);
@@ -162,10 +191,17 @@ public class AccountsRecord extends UpdatableRecordImpl<AccountsRecord> implemen
     }
 
     @Override
-    public AccountsRecord values(Long value1, Timestamp value2, BigDecimal value3) {
+    public AccountsRecord value4(Long value) {
+        setVersion(value);
+        return this;
+    }
+
+    @Override
+    public AccountsRecord values(Long value1, Timestamp value2, BigDecimal value3, Long value4) {
         value1(value1);
         value2(value2);
         value3(value3);
+        value4(value4);
         return this;
     }
 
@@ -183,11 +219,12 @@ public class AccountsRecord extends UpdatableRecordImpl<AccountsRecord> implemen
     /**
      * Create a detached, initialised AccountsRecord
      */
-    public AccountsRecord(Long accountId, Timestamp createdAt, BigDecimal balance) {
+    public AccountsRecord(Long accountId, Timestamp createdAt, BigDecimal balance, Long version) {
         super(Accounts.ACCOUNTS);
 
         set(0, accountId);
         set(1, createdAt);
         set(2, balance);
+        set(3, version);
     }
 }
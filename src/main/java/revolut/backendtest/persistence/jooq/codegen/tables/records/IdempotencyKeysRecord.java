@@ -0,0 +1,192 @@
+/*
+ * This file is generated by jOOQ.
+ */
+package revolut.backendtest.persistence.jooq.codegen.tables.records;
+
+
+import java.sql.Timestamp;
+
+import javax.annotation.Generated;
+
+import org.jooq.Field;
+import org.jooq.Record1;
+import org.jooq.Record3;
+import org.jooq.Row3;
+import org.jooq.impl.UpdatableRecordImpl;
+
+import revolut.backendtest.persistence.jooq.codegen.tables.IdempotencyKeys;
+
+
+/**
+ * This class is generated by jOOQ.
+ */
+@Generated(
+    value = {
+        "http://www.jooq.org",
+        "jOOQ version:3.12.1"
+    },
+    comments = "This class is generated by jOOQ"
+)
+@SuppressWarnings({ "all", "unchecked", "rawtypes" })
+public class IdempotencyKeysRecord extends UpdatableRecordImpl<IdempotencyKeysRecord> implements Record3<String, Long, Timestamp> {
+
+    private static final long serialVersionUID = -1575117801;
+
+    /**
+     * Setter for <code>PUBLIC.IDEMPOTENCY_KEYS.IDEMPOTENCY_KEY</code>.
+     */
+    public void setIdempotencyKey(String value) {
+        set(0, value);
+    }
+
+    /**
+     * Getter for <code>PUBLIC.IDEMPOTENCY_KEYS.IDEMPOTENCY_KEY</code>.
+     */
+    public String getIdempotencyKey() {
+        return (String) get(0);
+    }
+
+    /**
+     * Setter for <code>PUBLIC.IDEMPOTENCY_KEYS.TRANSFER_ID</code>.
+     */
+    public void setTransferId(Long value) {
+        set(1, value);
+    }
+
+    /**
+     * Getter for <code>PUBLIC.IDEMPOTENCY_KEYS.TRANSFER_ID</code>.
+     */
+    public Long getTransferId() {
+        return (Long) get(1);
+    }
+
+    /**
+     * Setter for <code>PUBLIC.IDEMPOTENCY_KEYS.CLAIMED_AT</code>.
+     */
+    public void setClaimedAt(Timestamp value) {
+        set(2, value);
+    }
+
+    /**
+     * Getter for <code>PUBLIC.IDEMPOTENCY_KEYS.CLAIMED_AT</code>.
+     */
+    public Timestamp getClaimedAt() {
+        return (Timestamp) get(2);
+    }
+
+    // -------------------------------------------------------------------------
+    // Primary key information
+    // -------------------------------------------------------------------------
+
+    @Override
+    public Record1<String> key() {
+        return (Record1) super.key();
+    }
+
+    // -------------------------------------------------------------------------
+    // Record3 type implementation
+    // -------------------------------------------------------------------------
+
+    @Override
+    public Row3<String, Long, Timestamp> fieldsRow() {
+        return (Row3) super.fieldsRow();
+    }
+
+    @Override
+    public Row3<String, Long, Timestamp> valuesRow() {
+        return (Row3) super.valuesRow();
+    }
+
+    @Override
+    public Field<String> field1() {
+        return IdempotencyKeys.IDEMPOTENCY_KEYS.IDEMPOTENCY_KEY;
+    }
+
+    @Override
+    public Field<Long> field2() {
+        return IdempotencyKeys.IDEMPOTENCY_KEYS.TRANSFER_ID;
+    }
+
+    @Override
+    public Field<Timestamp> field3() {
+        return IdempotencyKeys.IDEMPOTENCY_KEYS.CLAIMED_AT;
+    }
+
+    @Override
+    public String component1() {
+        return getIdempotencyKey();
+    }
+
+    @Override
+    public Long component2() {
+        return getTransferId();
+    }
+
+    @Override
+    public Timestamp component3() {
+        return getClaimedAt();
+    }
+
+    @Override
+    public String value1() {
+        return getIdempotencyKey();
+    }
+
+    @Override
+    public Long value2() {
+        return getTransferId();
+    }
+
+    @Override
+    public Timestamp value3() {
+        return getClaimedAt();
+    }
+
+    @Override
+    public IdempotencyKeysRecord value1(String value) {
+        setIdempotencyKey(value);
+        return this;
+    }
+
+    @Override
+    public IdempotencyKeysRecord value2(Long value) {
+        setTransferId(value);
+        return this;
+    }
+
+    @Override
+    public IdempotencyKeysRecord value3(Timestamp value) {
+        setClaimedAt(value);
+        return this;
+    }
+
+    @Override
+    public IdempotencyKeysRecord values(String value1, Long value2, Timestamp value3) {
+        value1(value1);
+        value2(value2);
+        value3(value3);
+        return this;
+    }
+
+    // -------------------------------------------------------------------------
+    // Constructors
+    // -------------------------------------------------------------------------
+
+    /**
+     * Create a detached IdempotencyKeysRecord
+     */
+    public IdempotencyKeysRecord() {
+        super(IdempotencyKeys.IDEMPOTENCY_KEYS);
+    }
+
+    /**
+     * Create a detached, initialised IdempotencyKeysRecord
+     */
+    public IdempotencyKeysRecord(String idempotencyKey, Long transferId, Timestamp claimedAt) {
+        super(IdempotencyKeys.IDEMPOTENCY_KEYS);
+
+        set(0, idempotencyKey);
+        set(1, transferId);
+        set(2, claimedAt);
+    }
+}
@@ -0,0 +1,78 @@
+package revolut.backendtest.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.inject.Inject;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import revolut.backendtest.model.Account;
+import revolut.backendtest.model.AccountId;
+
+/**
+ * Bounded read-through cache of account snapshots, invalidated after every balance change.
+ */
+public class AccountCache {
+
+  private static final int MAX_SIZE = 100_000;
+  private static final int STRIPES = 1024;
+
+  private final Cache<AccountId, Account> cache = CacheBuilder.newBuilder()
+      .maximumSize(MAX_SIZE)
+      .recordStats()
+      .build();
+
+  // Bumped on every invalidation, so snapshot loaded concurrently with a change is never kept.
+  // Striped to stay bounded, false conflicts only cost an extra load.
+  private final AtomicLongArray versions = new AtomicLongArray(STRIPES);
+
+  @Inject
+  AccountCache(MeterRegistry registry) {
+    GuavaCacheMetrics.monitor(registry, cache, "accounts");
+  }
+
+  Optional<Account> get(AccountId id, Function<AccountId, Optional<Account>> loader) {
+    Account cached = cache.getIfPresent(id);
+    if (cached != null) {
+      return Optional.of(cached);
+    }
+
+    int stripe = stripe(id);
+    long version = versions.get(stripe);
+    Optional<Account> loaded = loader.apply(id);
+    loaded.ifPresent(account -> {
+      cache.put(id, account);
+      if (versions.get(stripe) != version) {
+        cache.invalidate(id);
+      }
+    });
+    return loaded;
+  }
+
+  void put(Account account) {
+    cache.put(account.id, account);
+  }
+
+  /**
+   * Should be called after changes of account are committed.
+   */
+  void invalidate(AccountId id) {
+    versions.incrementAndGet(stripe(id));
+    cache.invalidate(id);
+  }
+
+  public long size() {
+    return cache.size();
+  }
+
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  private static int stripe(AccountId id) {
+    return (int) Math.floorMod(id.value, (long) STRIPES);
+  }
+}
@@ -2,34 +2,84 @@ package revolut.backendtest.service;
 
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static java.util.stream.Collectors.collectingAndThen;
+import static org.jooq.impl.DSL.param;
+import static org.jooq.impl.DSL.row;
+import static org.jooq.impl.DSL.select;
 import static revolut.backendtest.persistence.jooq.codegen.Tables.ACCOUNTS;
 import static revolut.backendtest.persistence.jooq.codegen.tables.Transfers.TRANSFERS;
-import static revolut.backendtest.service.Preconditions.checkScale;
+import static revolut.backendtest.service.Preconditions.toMoney;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.inject.Inject;
 import java.math.BigDecimal;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.stream.Stream;
+import org.jooq.Condition;
+import org.jooq.Cursor;
 import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.Record1;
 import org.jooq.Result;
+import org.jooq.Select;
+import org.jooq.SelectLimitStep;
+import org.jooq.Table;
+import org.jooq.impl.DSL;
 import revolut.backendtest.model.Account;
 import revolut.backendtest.model.AccountId;
 import revolut.backendtest.model.AccountTransfers;
+import revolut.backendtest.model.Money;
+import revolut.backendtest.model.TransferId;
 import revolut.backendtest.persistence.jooq.JooqContextProvider;
+import revolut.backendtest.persistence.jooq.RenderedQuery;
+import revolut.backendtest.persistence.jooq.codegen.tables.Transfers;
 import revolut.backendtest.persistence.jooq.codegen.tables.records.AccountsRecord;
 import revolut.backendtest.persistence.jooq.codegen.tables.records.TransfersRecord;
 
 public class AccountService {
 
+  private static final int STREAM_FETCH_SIZE = 500;
+
   private static final Optional<AccountTransfers> EmptyTransfers = Optional.of(
       AccountTransfers.Empty
   );
 
+  private static final String ACCOUNT = "account";
+  private static final String BEFORE = "before";
+  private static final String LIMIT = "limit";
+
   private final JooqContextProvider contextProvider;
+  private final AccountCache cache;
+
+  private final RenderedQuery<AccountsRecord> selectAccount;
+  private final RenderedQuery<Record1<Integer>> accountExists;
+  // by presence of before & limit, see transfersQuery()
+  private final ImmutableList<RenderedQuery<TransfersRecord>> selectTransfers;
 
   @Inject
-  public AccountService(JooqContextProvider contextProvider) {
+  public AccountService(JooqContextProvider contextProvider, AccountCache cache) {
     this.contextProvider = contextProvider;
+    this.cache = cache;
+
+    DSLContext context = contextProvider.context();
+    this.selectAccount = RenderedQuery.of(
+        context,
+        context.selectFrom(ACCOUNTS).where(ACCOUNTS.ACCOUNT_ID.eq(param(ACCOUNT, Long.class))),
+        ACCOUNTS
+    );
+    this.accountExists = RenderedQuery.of(
+        context,
+        context.selectOne().from(ACCOUNTS).where(ACCOUNTS.ACCOUNT_ID.eq(param(ACCOUNT, Long.class))),
+        DSL.one()
+    );
+    this.selectTransfers = ImmutableList.of(
+        RenderedQuery.of(context, transfersOf(context, false, false), TRANSFERS),
+        RenderedQuery.of(context, transfersOf(context, false, true), TRANSFERS),
+        RenderedQuery.of(context, transfersOf(context, true, false), TRANSFERS),
+        RenderedQuery.of(context, transfersOf(context, true, true), TRANSFERS)
+    );
   }
 
   private DSLContext context() {
@@ -37,60 +87,102 @@ public class AccountService {
   }
 
   public Optional<Account> get(AccountId id) {
-    return context()
-        .selectFrom(ACCOUNTS)
-        .where(ACCOUNTS.ACCOUNT_ID.eq(id.value))
+    return cache.get(id, this::load);
+  }
+
+  private Optional<Account> load(AccountId id) {
+    return selectAccount
+        .query(context(), ImmutableMap.of(ACCOUNT, id.value))
         .fetchOptional()
         .map(Mappers::toModel);
   }
 
-  public ImmutableList<Account> getAll() {
+  public ImmutableList<Account> getPage(Optional<AccountId> after, int limit) {
     return context()
         .selectFrom(ACCOUNTS)
+        .where(isAfter(after))
+        .orderBy(ACCOUNTS.ACCOUNT_ID)
+        .limit(limit)
         .fetch()
         .stream()
         .map(Mappers::toModel)
         .collect(toImmutableList());
   }
 
+  /**
+   * Lazily fetched accounts ordered by id, holding database connection until closed.
+   */
+  public Stream<Account> stream(Optional<AccountId> after) {
+    Cursor<AccountsRecord> cursor = context()
+        .selectFrom(ACCOUNTS)
+        .where(isAfter(after))
+        .orderBy(ACCOUNTS.ACCOUNT_ID)
+        .fetchSize(STREAM_FETCH_SIZE)
+        .fetchLazy();
+    return cursor.stream()
+        .map(Mappers::toModel)
+        .onClose(cursor::close);
+  }
+
+  private static Condition isAfter(Optional<AccountId> after) {
+    return after
+        .map(id -> ACCOUNTS.ACCOUNT_ID.gt(id.value))
+        .orElseGet(DSL::noCondition);
+  }
+
   public Account create(BigDecimal initialBalance) throws IllegalAmountException {
-    checkNonNegative(initialBalance);
-    checkScale(initialBalance);
+    Money balance = toMoney(initialBalance);
+    checkNonNegative(balance);
 
-    return context().transactionResult(
+    Account account = context().transactionResult(
         cfg -> {
           AccountsRecord record = cfg.dsl()
               .insertInto(ACCOUNTS)
-              .set(ACCOUNTS.BALANCE, initialBalance)
+              .set(ACCOUNTS.BALANCE, balance.toBigDecimal())
               .returning()
               .fetchOne();
 
           return Mappers.toModel(record);
         }
     );
+    cache.put(account);
+    return account;
   }
 
-  private static void checkNonNegative(BigDecimal balance) throws IllegalAmountException {
-    if (balance.compareTo(BigDecimal.ZERO) < 0) {
+  private static void checkNonNegative(Money balance) throws IllegalAmountException {
+    if (balance.signum() < 0) {
       throw new IllegalAmountException("Amount should be non-negative");
     }
   }
 
   public Optional<AccountTransfers> getTransfers(AccountId id) {
-    Result<TransfersRecord> result = context()
-        .select(TRANSFERS.fields())
-        .from(ACCOUNTS).leftJoin(TRANSFERS)
-        .on(TRANSFERS.FROM_ACCOUNT_ID.eq(id.value).or(TRANSFERS.TO_ACCOUNT_ID.eq(id.value)))
-        .where(ACCOUNTS.ACCOUNT_ID.eq(id.value))
-        .orderBy(TRANSFERS.TRANSFERED_AT.desc())
-        .fetchInto(TRANSFERS);
+    return getTransfers(id, Optional.empty(), OptionalInt.empty());
+  }
 
-    if (result.isEmpty()) {
-      return Optional.empty();
-    }
+  /**
+   * Account transfers, the most recent first.
+   *
+   * @param before id of the last transfer from the previous page
+   * @param limit max number of transfers to return, all of them by default
+   */
+  public Optional<AccountTransfers> getTransfers(
+      AccountId id,
+      Optional<TransferId> before,
+      OptionalInt limit
+  ) {
+    ImmutableMap.Builder<String, Object> values = ImmutableMap.builder();
+    values.put(ACCOUNT, id.value);
+    before.ifPresent(transfer -> values.put(BEFORE, transfer.value));
+    limit.ifPresent(size -> values.put(LIMIT, size));
+
+    Result<TransfersRecord> result = transfersQuery(before.isPresent(), limit.isPresent())
+        .query(context(), values.build())
+        .fetch();
 
-    if (result.get(0).getTransferId() == null) {
-      return EmptyTransfers;
+    if (result.isEmpty()) {
+      return accountExists.query(context(), ImmutableMap.of(ACCOUNT, id.value)).fetchOptional().isPresent()
+          ? EmptyTransfers
+          : Optional.empty();
     }
 
     return Optional.of(
@@ -102,4 +194,57 @@ public class AccountService {
             ))
     );
   }
+
+  private RenderedQuery<TransfersRecord> transfersQuery(boolean before, boolean limited) {
+    return selectTransfers.get((before ? 2 : 0) + (limited ? 1 : 0));
+  }
+
+  private static Select<TransfersRecord> transfersOf(DSLContext context, boolean before, boolean limited) {
+    // each branch is served by its own (account, time) index, so only a page of rows is read from both
+    Table<TransfersRecord> branches = transfersOf(context, TRANSFERS.FROM_ACCOUNT_ID, before, limited)
+        .unionAll(transfersOf(context, TRANSFERS.TO_ACCOUNT_ID, before, limited))
+        .asTable(TRANSFERS.getName());
+
+    return limited(
+        context
+            .selectFrom(branches)
+            .orderBy(
+                branches.field(TRANSFERS.TRANSFERED_AT).desc(),
+                branches.field(TRANSFERS.TRANSFER_ID).desc()
+            ),
+        limited
+    );
+  }
+
+  private static Select<TransfersRecord> transfersOf(
+      DSLContext context,
+      Field<Long> accountField,
+      boolean before,
+      boolean limited
+  ) {
+    return limited(
+        context
+            .selectFrom(TRANSFERS)
+            .where(accountField.eq(param(ACCOUNT, Long.class)))
+            .and(before ? isBefore() : DSL.noCondition())
+            // same order as in index, otherwise database sorts the whole account history
+            .orderBy(accountField.desc(), TRANSFERS.TRANSFERED_AT.desc(), TRANSFERS.TRANSFER_ID.desc()),
+        limited
+    );
+  }
+
+  private static <R extends Record> Select<R> limited(SelectLimitStep<R> select, boolean limited) {
+    return limited ? select.limit(param(LIMIT, Integer.class)) : select;
+  }
+
+  private static Condition isBefore() {
+    Transfers cursor = TRANSFERS.as("cursor");
+    Condition isCursor = cursor.TRANSFER_ID.eq(param(BEFORE, Long.class));
+    // plain range on time lets database seek in the index, row comparison is for ties
+    return TRANSFERS.TRANSFERED_AT
+        .le(select(cursor.TRANSFERED_AT).from(cursor).where(isCursor))
+        .and(row(TRANSFERS.TRANSFERED_AT, TRANSFERS.TRANSFER_ID).lt(
+            select(cursor.TRANSFERED_AT, cursor.TRANSFER_ID).from(cursor).where(isCursor)
+        ));
+  }
 }
@@ -0,0 +1,11 @@
+package revolut.backendtest.service;
+
+/**
+ * Transfer would make balance of recipient account greater than {@link revolut.backendtest.model.Money#MAX}.
+ */
+public class BalanceLimitExceededException extends Exception {
+
+  BalanceLimitExceededException(String message) {
+    super(message);
+  }
+}
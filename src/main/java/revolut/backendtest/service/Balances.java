@@ -0,0 +1,167 @@
+package revolut.backendtest.service;
+
+import static revolut.backendtest.persistence.jooq.codegen.Tables.ACCOUNTS;
+import static revolut.backendtest.service.JdbcTransferEngine.accountNotFound;
+import static revolut.backendtest.service.Preconditions.checkCredit;
+
+import com.google.common.collect.ImmutableList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import revolut.backendtest.model.AccountId;
+import revolut.backendtest.model.Money;
+import revolut.backendtest.model.Transfer;
+import revolut.backendtest.persistence.jooq.JooqContextProvider;
+
+/**
+ * Mutable account balances to check & apply transfers against. Not thread-safe.
+ */
+final class Balances {
+
+  private final Map<Long, Money> values;
+  private final Function<AccountId, Optional<Money>> fallback;
+
+  Balances(Map<Long, Money> values) {
+    this(values, id -> Optional.empty());
+  }
+
+  private Balances(
+      Map<Long, Money> values,
+      Function<AccountId, Optional<Money>> fallback
+  ) {
+    this.values = values;
+    this.fallback = fallback;
+  }
+
+  /**
+   * Balances which are lazily loaded from database on first access.
+   */
+  static Balances loadedOnDemand(Map<Long, Money> values, JooqContextProvider provider) {
+    return new Balances(
+        values,
+        id -> provider.context()
+            .select(ACCOUNTS.BALANCE)
+            .from(ACCOUNTS)
+            .where(ACCOUNTS.ACCOUNT_ID.eq(id.value))
+            .fetchOptional()
+            .map(balance -> Money.of(balance.value1()))
+    );
+  }
+
+  /**
+   * Copy-on-write view of these balances, changes become visible only after merge.
+   */
+  Balances fork() {
+    return new Balances(new HashMap<>(), this::get);
+  }
+
+  void mergeInto(Balances parent) {
+    parent.values.putAll(values);
+  }
+
+  private Optional<Money> get(AccountId id) {
+    Money value = values.get(id.value);
+    if (value != null) {
+      return Optional.of(value);
+    }
+
+    Optional<Money> loaded = fallback.apply(id);
+    loaded.ifPresent(balance -> values.put(id.value, balance));
+    return loaded;
+  }
+
+  /**
+   * Applies transfers one by one, nothing is reported to their callers yet.
+   * In {@link BatchMode#ALL_OR_NOTHING} mode the first rejection aborts all the transfers,
+   * leaving balances partially updated, so they should be thrown away.
+   *
+   * @return accepted transfers & rejections of the others, balances should not be merged when none are accepted
+   */
+  Checked apply(List<PendingTransfer> transfers, BatchMode mode) {
+    ImmutableList.Builder<PendingTransfer> accepted = ImmutableList.builder();
+    Exception[] rejections = new Exception[transfers.size()];
+    for (int i = 0; i < transfers.size(); i++) {
+      PendingTransfer transfer = transfers.get(i);
+      try {
+        apply(transfer);
+        accepted.add(transfer);
+      } catch (AccountNotFoundException | NotEnoughMoneyException | BalanceLimitExceededException ex) {
+        if (mode == BatchMode.ALL_OR_NOTHING) {
+          return Checked.aborted(transfers, i, ex);
+        }
+        rejections[i] = ex;
+      }
+    }
+    return new Checked(transfers, accepted.build(), rejections);
+  }
+
+  private void apply(
+      PendingTransfer transfer
+  ) throws AccountNotFoundException, NotEnoughMoneyException, BalanceLimitExceededException {
+    Money fromBalance = get(transfer.from).orElseThrow(accountNotFound(transfer.from));
+    if (fromBalance.compareTo(transfer.amount) < 0) {
+      throw new NotEnoughMoneyException("Not enough money to transfer");
+    }
+    Money toBalance = get(transfer.to).orElseThrow(accountNotFound(transfer.to));
+    checkCredit(toBalance, transfer.amount);
+
+    values.put(transfer.from.value, fromBalance.minus(transfer.amount));
+    values.put(transfer.to.value, toBalance.plus(transfer.amount));
+  }
+
+  /**
+   * Transfers checked against balances. Their callers are not told anything yet,
+   * so the check can be thrown away & made again, e.g. when its transaction is retried.
+   */
+  static final class Checked {
+
+    final ImmutableList<PendingTransfer> accepted;
+
+    private final List<PendingTransfer> transfers;
+    // by index of transfer, null for accepted ones
+    private final Exception[] rejections;
+
+    private Checked(List<PendingTransfer> transfers, ImmutableList<PendingTransfer> accepted, Exception[] rejections) {
+      this.transfers = transfers;
+      this.accepted = accepted;
+      this.rejections = rejections;
+    }
+
+    private static Checked aborted(List<PendingTransfer> transfers, int failed, Exception cause) {
+      Exception[] rejections = new Exception[transfers.size()];
+      Arrays.fill(rejections, new TransferAbortedException(
+          "Transfer is not made, because other transfer of the same batch failed"
+      ));
+      rejections[failed] = cause;
+      return new Checked(transfers, ImmutableList.of(), rejections);
+    }
+
+    /**
+     * Should be called once rejections are final, e.g. by in-memory engines right away.
+     */
+    void failRejected() {
+      for (int i = 0; i < rejections.length; i++) {
+        if (rejections[i] != null) {
+          transfers.get(i).fail(rejections[i]);
+        }
+      }
+    }
+
+    /**
+     * @param inserted transfers made of the accepted ones, in the same order
+     * @return outcomes in order of all checked transfers
+     */
+    ImmutableList<TransferOutcome> outcomes(List<Transfer> inserted) {
+      ImmutableList.Builder<TransferOutcome> outcomes = ImmutableList.builderWithExpectedSize(transfers.size());
+      Iterator<Transfer> made = inserted.iterator();
+      for (Exception rejection : rejections) {
+        outcomes.add(rejection == null ? TransferOutcome.success(made.next()) : TransferOutcome.failure(rejection));
+      }
+      return outcomes.build();
+    }
+  }
+}
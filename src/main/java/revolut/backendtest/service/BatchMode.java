@@ -0,0 +1,14 @@
+package revolut.backendtest.service;
+
+public enum BatchMode {
+
+  /**
+   * Either all transfers of the batch are made or none of them.
+   */
+  ALL_OR_NOTHING,
+
+  /**
+   * Every transfer of the batch is made or rejected on its own.
+   */
+  BEST_EFFORT
+}
@@ -0,0 +1,174 @@
+package revolut.backendtest.service;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.AbstractExecutionThreadService;
+import com.google.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import org.jooq.DSLContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import revolut.backendtest.model.AccountId;
+import revolut.backendtest.model.Money;
+import revolut.backendtest.model.Transfer;
+import revolut.backendtest.persistence.jooq.JooqContextProvider;
+
+/**
+ * Database stays the only source of truth, but concurrent transfers share database transactions.
+ *
+ * <p>Transfers arriving within {@link TransferConfig#groupCommitWindow} after the first one
+ * (but no more than {@link TransferConfig#groupCommitMaxSize}) are applied by single committer
+ * thread within one transaction: all touched accounts are locked at once, transfers are checked
+ * one by one against locked balances and accepted ones are written by batched statements.
+ * Every caller still gets either its own transfer or its own business exception.
+ */
+class GroupCommitTransferEngine extends AbstractExecutionThreadService implements TransferEngine {
+
+  private static final long POLL_TIMEOUT_MILLIS = 100;
+
+  private final Logger log = LoggerFactory.getLogger(getClass());
+
+  private final BlockingQueue<PendingTransfer> queue = new LinkedBlockingQueue<>();
+
+  private final JooqContextProvider contextProvider;
+  private final TransactionRetry transactions;
+  private final long windowNanos;
+  private final int maxBatchSize;
+
+  @Inject
+  GroupCommitTransferEngine(
+      JooqContextProvider contextProvider,
+      TransactionRetry transactions,
+      TransferConfig config
+  ) {
+    this.contextProvider = contextProvider;
+    this.transactions = transactions;
+    this.windowNanos = config.groupCommitWindow.toNanos();
+    this.maxBatchSize = config.groupCommitMaxSize;
+  }
+
+  private DSLContext context() {
+    return contextProvider.context();
+  }
+
+  @Override
+  public Transfer makeTransfer(
+      AccountId from,
+      AccountId to,
+      Money amount
+  ) throws AccountNotFoundException, NotEnoughMoneyException, BalanceLimitExceededException {
+    PendingTransfer transfer = new PendingTransfer(from, to, amount);
+    enqueue(transfer);
+    return transfer.await();
+  }
+
+  @Override
+  public void submit(List<PendingTransfer> transfers, BatchMode mode) {
+    if (mode == BatchMode.BEST_EFFORT) {
+      transfers.forEach(this::enqueue);
+      return;
+    }
+
+    // atomic batch cannot be mixed with others, so it is committed right away on its own
+    ImmutableList<TransferOutcome> outcomes;
+    try {
+      outcomes = transactions.call(() -> context().transactionResult(
+          cfg -> TransferBatches.checkAndWrite(
+              cfg.dsl(),
+              contextProvider.rowLock(),
+              transfers,
+              BatchMode.ALL_OR_NOTHING
+          )
+      ));
+    } catch (RuntimeException ex) {
+      transfers.forEach(transfer -> transfer.fail(ex));
+      return;
+    }
+    PendingTransfer.complete(transfers, outcomes);
+  }
+
+  private void enqueue(PendingTransfer transfer) {
+    if (!isRunning()) {
+      throw new IllegalStateException("Group commit is not running: " + state());
+    }
+
+    queue.add(transfer);
+
+    // committer could stop between the check & the add above, so nobody will ever take it
+    if (!isRunning() && queue.remove(transfer)) {
+      throw new IllegalStateException("Group commit is not running: " + state());
+    }
+  }
+
+  @Override
+  protected void run() throws InterruptedException {
+    List<PendingTransfer> batch = new ArrayList<>(maxBatchSize);
+    while (isRunning()) {
+      PendingTransfer head = queue.poll(POLL_TIMEOUT_MILLIS, MILLISECONDS);
+      if (head == null) {
+        continue;
+      }
+
+      batch.add(head);
+      collect(batch);
+      commit(batch);
+      batch.clear();
+    }
+
+    while (queue.drainTo(batch, maxBatchSize) > 0) {
+      commit(batch);
+      batch.clear();
+    }
+  }
+
+  @Override
+  protected void shutDown() {
+    IllegalStateException ex = new IllegalStateException("Group commit is stopped");
+    for (PendingTransfer transfer = queue.poll(); transfer != null; transfer = queue.poll()) {
+      transfer.fail(ex);
+    }
+  }
+
+  private void collect(List<PendingTransfer> batch) throws InterruptedException {
+    long deadline = System.nanoTime() + windowNanos;
+    while (batch.size() < maxBatchSize) {
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        queue.drainTo(batch, maxBatchSize - batch.size());
+        return;
+      }
+
+      PendingTransfer next = queue.poll(remaining, NANOSECONDS);
+      if (next == null) {
+        return;
+      }
+      batch.add(next);
+    }
+  }
+
+  private void commit(List<PendingTransfer> batch) {
+    ImmutableList<TransferOutcome> outcomes;
+    try {
+      outcomes = transactions.call(() -> context().transactionResult(
+          cfg -> TransferBatches.checkAndWrite(
+              cfg.dsl(),
+              contextProvider.rowLock(),
+              batch,
+              BatchMode.BEST_EFFORT
+          )
+      ));
+    } catch (RuntimeException ex) {
+      // unlike in-memory engines nothing is lost here, so just report the failure
+      log.error("Failed to commit batch of {} transfers", batch.size(), ex);
+      batch.forEach(transfer -> transfer.fail(ex));
+      return;
+    }
+
+    PendingTransfer.complete(batch, outcomes);
+  }
+}
@@ -0,0 +1,8 @@
+package revolut.backendtest.service;
+
+public class IdempotencyKeyReusedException extends Exception {
+
+  IdempotencyKeyReusedException(String message) {
+    super(message);
+  }
+}
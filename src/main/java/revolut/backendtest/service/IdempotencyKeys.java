@@ -0,0 +1,156 @@
+package revolut.backendtest.service;
+
+import static revolut.backendtest.persistence.jooq.codegen.Tables.IDEMPOTENCY_KEYS;
+import static revolut.backendtest.persistence.jooq.codegen.Tables.TRANSFERS;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.inject.Inject;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.jooq.DSLContext;
+import org.jooq.exception.DataAccessException;
+import revolut.backendtest.model.Transfer;
+import revolut.backendtest.persistence.jooq.JooqContextProvider;
+
+/**
+ * Keys of transfer requests, so retried request is answered with the transfer made by the first one.
+ *
+ * <p>Key is claimed in the database before transfer is made, so concurrent duplicates are rejected
+ * by its primary key. Recently made transfers are cached by their keys, so retries of them
+ * don't touch the database at all.
+ *
+ * <p>Keys expire after {@link TransferConfig#idempotencyKeyTtl} since they are claimed: expired key
+ * is claimed again by the next request with it, and expired keys are purged from time to time.
+ */
+class IdempotencyKeys {
+
+  private static final int MAX_SIZE = 100_000;
+  private static final String UNIQUE_VIOLATION = "23505";
+  private static final long PURGE_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+  private final JooqContextProvider contextProvider;
+  private final Duration ttl;
+  private final Cache<String, Transfer> made;
+  private final AtomicLong nextPurgeNanos = new AtomicLong(System.nanoTime());
+
+  @Inject
+  IdempotencyKeys(JooqContextProvider contextProvider, TransferConfig config, MeterRegistry registry) {
+    this.contextProvider = contextProvider;
+    this.ttl = config.idempotencyKeyTtl;
+    // cached right after the key is claimed, so it never outlives the key for long
+    this.made = CacheBuilder.newBuilder()
+        .maximumSize(MAX_SIZE)
+        .expireAfterWrite(ttl.toNanos(), TimeUnit.NANOSECONDS)
+        .recordStats()
+        .build();
+    GuavaCacheMetrics.monitor(registry, made, "idempotency_keys");
+  }
+
+  private DSLContext context() {
+    return contextProvider.context();
+  }
+
+  /**
+   * Claims the key for a new transfer, unless it is already claimed and not expired yet.
+   *
+   * @return transfer already made with the key, if any
+   * @throws TransferInProgressException if transfer with the key is not made yet
+   */
+  Optional<Transfer> claim(String key) throws TransferInProgressException {
+    Transfer cached = made.getIfPresent(key);
+    if (cached != null) {
+      return Optional.of(cached);
+    }
+
+    Instant now = Instant.now();
+    Timestamp expired = Timestamp.from(now.minus(ttl));
+    purgeExpired(expired);
+
+    try {
+      context().transaction(cfg -> cfg.dsl()
+          .insertInto(IDEMPOTENCY_KEYS)
+          .set(IDEMPOTENCY_KEYS.IDEMPOTENCY_KEY, key)
+          .set(IDEMPOTENCY_KEYS.CLAIMED_AT, Timestamp.from(now))
+          .execute()
+      );
+      return Optional.empty();
+    } catch (DataAccessException ex) {
+      if (!UNIQUE_VIOLATION.equals(ex.sqlState())) {
+        throw ex;
+      }
+    }
+
+    int reclaimed = context().transactionResult(cfg -> cfg.dsl()
+        .update(IDEMPOTENCY_KEYS)
+        .set(IDEMPOTENCY_KEYS.CLAIMED_AT, Timestamp.from(now))
+        .set(IDEMPOTENCY_KEYS.TRANSFER_ID, (Long) null)
+        .where(IDEMPOTENCY_KEYS.IDEMPOTENCY_KEY.eq(key))
+        .and(IDEMPOTENCY_KEYS.CLAIMED_AT.lt(expired))
+        .execute()
+    );
+    if (reclaimed > 0) {
+      return Optional.empty();
+    }
+
+    // key of transfer interrupted by restart or failed with unknown outcome is never completed,
+    // so such transfer is not repeated until the key expires
+    return context()
+        .select(TRANSFERS.fields())
+        .from(IDEMPOTENCY_KEYS)
+        .join(TRANSFERS).on(TRANSFERS.TRANSFER_ID.eq(IDEMPOTENCY_KEYS.TRANSFER_ID))
+        .where(IDEMPOTENCY_KEYS.IDEMPOTENCY_KEY.eq(key))
+        .fetchOptional()
+        .map(record -> Optional.of(Mappers.toModel(record.into(TRANSFERS))))
+        .orElseThrow(() -> new TransferInProgressException(
+            "Transfer with the same idempotency key is in progress"
+        ));
+  }
+
+  /**
+   * Deletes expired keys at most once per {@link #PURGE_INTERVAL_NANOS} by whichever request comes first.
+   */
+  private void purgeExpired(Timestamp expired) {
+    long now = System.nanoTime();
+    long next = nextPurgeNanos.get();
+    if (now - next < 0 || !nextPurgeNanos.compareAndSet(next, now + PURGE_INTERVAL_NANOS)) {
+      return;
+    }
+    context().transaction(cfg -> cfg.dsl()
+        .deleteFrom(IDEMPOTENCY_KEYS)
+        .where(IDEMPOTENCY_KEYS.CLAIMED_AT.lt(expired))
+        .execute()
+    );
+  }
+
+  /**
+   * Should be called after the transfer is committed.
+   */
+  void complete(String key, Transfer transfer) {
+    context().transaction(cfg -> cfg.dsl()
+        .update(IDEMPOTENCY_KEYS)
+        .set(IDEMPOTENCY_KEYS.TRANSFER_ID, transfer.id.value)
+        .where(IDEMPOTENCY_KEYS.IDEMPOTENCY_KEY.eq(key))
+        .execute()
+    );
+    made.put(key, transfer);
+  }
+
+  /**
+   * Should be called when the transfer is not made, so it can be requested again.
+   */
+  void release(String key) {
+    context().transaction(cfg -> cfg.dsl()
+        .deleteFrom(IDEMPOTENCY_KEYS)
+        .where(IDEMPOTENCY_KEYS.IDEMPOTENCY_KEY.eq(key))
+        .and(IDEMPOTENCY_KEYS.TRANSFER_ID.isNull())
+        .execute()
+    );
+  }
+}
@@ -0,0 +1,152 @@
+package revolut.backendtest.service;
+
+import static revolut.backendtest.service.Preconditions.checkCredit;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.AbstractIdleService;
+import com.google.inject.Inject;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+import org.jooq.DSLContext;
+import org.jooq.SQLDialect;
+import org.jooq.exception.DataAccessException;
+import revolut.backendtest.model.AccountId;
+import revolut.backendtest.model.Money;
+import revolut.backendtest.model.Transfer;
+import revolut.backendtest.persistence.jooq.JooqContextProvider;
+
+class JdbcTransferEngine extends AbstractIdleService implements TransferEngine {
+
+  private static final int BEST_EFFORT_CHUNK_SIZE = 256;
+
+  private final JooqContextProvider contextProvider;
+  private final TransactionRetry transactions;
+  final TransferQueries queries;
+
+  @Inject
+  JdbcTransferEngine(
+      JooqContextProvider contextProvider,
+      TransactionRetry transactions,
+      TransferQueries queries
+  ) {
+    this.contextProvider = contextProvider;
+    this.transactions = transactions;
+    this.queries = queries;
+  }
+
+  private DSLContext context() {
+    return contextProvider.context();
+  }
+
+  @Override
+  protected void startUp() {
+  }
+
+  @Override
+  protected void shutDown() {
+  }
+
+  /**
+   * Fails on H2 MVStore, which loses concurrent updates of the same rows made without locking them first,
+   * so money of accounts is not conserved under contention. H2 page store locks tables instead.
+   */
+  void checkUnlockedUpdatesAreSafe(TransferMode mode) {
+    DSLContext context = context();
+    if (context.family() != SQLDialect.H2) {
+      return;
+    }
+    String mvStore = context
+        .resultQuery("SELECT VALUE FROM INFORMATION_SCHEMA.SETTINGS WHERE NAME = 'MV_STORE'")
+        .fetchOne(0, String.class);
+    if (Boolean.parseBoolean(mvStore)) {
+      throw new IllegalStateException(
+          mode + " transfer mode loses concurrent updates of accounts with H2 MVStore, set db.h2.mv-store=false"
+      );
+    }
+  }
+
+  @Override
+  public Transfer makeTransfer(
+      AccountId from,
+      AccountId to,
+      Money amount
+  ) throws AccountNotFoundException, NotEnoughMoneyException, BalanceLimitExceededException {
+    try {
+      return tryMakeTransfer(from, to, amount);
+    } catch (DataAccessException dae) {
+      rethrowOnCause(dae, AccountNotFoundException.class);
+      rethrowOnCause(dae, NotEnoughMoneyException.class);
+      rethrowOnCause(dae, BalanceLimitExceededException.class);
+      throw dae;
+    }
+  }
+
+  @Override
+  public void submit(List<PendingTransfer> transfers, BatchMode mode) {
+    if (mode == BatchMode.ALL_OR_NOTHING) {
+      commit(transfers, mode);
+    } else {
+      // smaller transactions hold locks for shorter time
+      Lists.partition(transfers, BEST_EFFORT_CHUNK_SIZE).forEach(chunk -> commit(chunk, mode));
+    }
+  }
+
+  private void commit(List<PendingTransfer> transfers, BatchMode mode) {
+    ImmutableList<TransferOutcome> outcomes;
+    try {
+      outcomes = transactions.call(() -> context().transactionResult(
+          cfg -> TransferBatches.checkAndWrite(cfg.dsl(), contextProvider.rowLock(), transfers, mode)
+      ));
+    } catch (RuntimeException ex) {
+      transfers.forEach(transfer -> transfer.fail(ex));
+      return;
+    }
+    PendingTransfer.complete(transfers, outcomes);
+  }
+
+  private static <X extends Exception> void rethrowOnCause(
+      DataAccessException dae,
+      Class<X> causeClass
+  ) throws X {
+    X cause = dae.getCause(causeClass);
+    if (cause != null) {
+      throw cause;
+    }
+  }
+
+  private Transfer tryMakeTransfer(AccountId from, AccountId to, Money amount) {
+    return transactions.call(() -> context().transactionResult(
+        cfg -> transfer(cfg.dsl(), from, to, amount)
+    ));
+  }
+
+  /**
+   * Makes transfer within the current transaction, locking both accounts before checking them.
+   */
+  Transfer transfer(
+      DSLContext context,
+      AccountId from,
+      AccountId to,
+      Money amount
+  ) throws AccountNotFoundException, NotEnoughMoneyException, BalanceLimitExceededException {
+    Map<Long, Money> balances = queries.lockAccounts(context, from, to);
+
+    Money fromBalance = Optional.ofNullable(balances.get(from.value)).orElseThrow(accountNotFound(from));
+    if (fromBalance.compareTo(amount) < 0) {
+      throw new NotEnoughMoneyException("Not enough money to transfer");
+    }
+    Money toBalance = Optional.ofNullable(balances.get(to.value)).orElseThrow(accountNotFound(to));
+    checkCredit(toBalance, amount);
+
+    queries.addToBalance(context, from, amount.negate());
+    queries.addToBalance(context, to, amount);
+    return queries.insertTransfer(context, from, to, amount);
+  }
+
+  static Supplier<AccountNotFoundException> accountNotFound(AccountId id) {
+    return () -> new AccountNotFoundException("Cannot find account with id=" + id.value);
+  }
+}
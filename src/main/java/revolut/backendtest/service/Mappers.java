@@ -2,6 +2,7 @@ package revolut.backendtest.service;
 
 import revolut.backendtest.model.Account;
 import revolut.backendtest.model.AccountId;
+import revolut.backendtest.model.Money;
 import revolut.backendtest.model.Transfer;
 import revolut.backendtest.model.TransferId;
 import revolut.backendtest.persistence.jooq.codegen.tables.records.AccountsRecord;
@@ -16,7 +17,8 @@ final class Mappers {
     return new Account(
         new AccountId(record.getAccountId()),
         record.getCreatedAt().toInstant(),
-        record.getBalance()
+        Money.of(record.getBalance()),
+        record.getVersion()
     );
   }
 
@@ -26,7 +28,7 @@ final class Mappers {
         new AccountId(record.getFromAccountId()),
         new AccountId(record.getToAccountId()),
         record.getTransferedAt().toInstant(),
-        record.getAmount()
+        Money.of(record.getAmount())
     );
   }
 }
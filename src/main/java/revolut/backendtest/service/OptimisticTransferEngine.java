@@ -0,0 +1,82 @@
+package revolut.backendtest.service;
+
+import com.google.inject.Inject;
+import org.jooq.DSLContext;
+import revolut.backendtest.model.AccountId;
+import revolut.backendtest.model.Money;
+import revolut.backendtest.model.Transfer;
+import revolut.backendtest.persistence.jooq.JooqContextProvider;
+
+/**
+ * Same as {@link JdbcTransferEngine}, but accounts are not read & locked before the transfer.
+ * Debit is conditional on enough balance & credit on balance limit instead, and accounts are checked
+ * by affected row counts, so uncontended transfer is just two updates & insert. Batches are made
+ * the same way as by {@link JdbcTransferEngine}.
+ *
+ * <p>H2 is supported with page store only, see {@link #checkUnlockedUpdatesAreSafe(TransferMode)}.
+ */
+class OptimisticTransferEngine extends JdbcTransferEngine {
+
+  @Inject
+  OptimisticTransferEngine(
+      JooqContextProvider contextProvider,
+      TransactionRetry transactions,
+      TransferQueries queries
+  ) {
+    super(contextProvider, transactions, queries);
+  }
+
+  @Override
+  protected void startUp() {
+    checkUnlockedUpdatesAreSafe(TransferMode.OPTIMISTIC);
+  }
+
+  @Override
+  Transfer transfer(
+      DSLContext context,
+      AccountId from,
+      AccountId to,
+      Money amount
+  ) throws AccountNotFoundException, NotEnoughMoneyException, BalanceLimitExceededException {
+    // rows are updated in the same order as they are locked by pessimistic transfers
+    if (from.value < to.value) {
+      debit(context, from, amount);
+      credit(context, to, amount);
+    } else if (queries.addToBalance(context, to, amount)) {
+      debit(context, from, amount);
+    } else {
+      // rejected the same way as by other engines, which check from account first,
+      // credit is tried once more just to find out why it is rejected
+      debit(context, from, amount);
+      credit(context, to, amount);
+    }
+    return queries.insertTransfer(context, from, to, amount);
+  }
+
+  private void debit(
+      DSLContext context,
+      AccountId id,
+      Money amount
+  ) throws AccountNotFoundException, NotEnoughMoneyException {
+    if (!queries.withdraw(context, id, amount)) {
+      // failed transaction is rolled back, so one more read costs nothing to successful ones
+      if (!queries.accountExists(context, id)) {
+        throw accountNotFound(id).get();
+      }
+      throw new NotEnoughMoneyException("Not enough money to transfer");
+    }
+  }
+
+  private void credit(
+      DSLContext context,
+      AccountId id,
+      Money amount
+  ) throws AccountNotFoundException, BalanceLimitExceededException {
+    if (!queries.addToBalance(context, id, amount)) {
+      if (!queries.accountExists(context, id)) {
+        throw accountNotFound(id).get();
+      }
+      throw new BalanceLimitExceededException("Balance of recipient account would exceed its limit");
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package revolut.backendtest.service;
+
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import revolut.backendtest.model.AccountId;
+import revolut.backendtest.model.Money;
+import revolut.backendtest.model.Transfer;
+
+/**
+ * Transfer request handed over to another thread, along with the way to deliver its outcome back.
+ */
+final class PendingTransfer {
+
+  final AccountId from;
+  final AccountId to;
+  final Money amount;
+
+  private final CompletableFuture<Transfer> result = new CompletableFuture<>();
+
+  PendingTransfer(AccountId from, AccountId to, Money amount) {
+    this.from = from;
+    this.to = to;
+    this.amount = amount;
+  }
+
+  void complete(Transfer transfer) {
+    result.complete(transfer);
+  }
+
+  void fail(Throwable ex) {
+    result.completeExceptionally(ex);
+  }
+
+  /**
+   * Should be called only after the outcome is committed, so it cannot change anymore.
+   */
+  void complete(TransferOutcome outcome) {
+    if (outcome.transfer().isPresent()) {
+      complete(outcome.transfer().get());
+    } else {
+      fail(outcome.error().get());
+    }
+  }
+
+  /**
+   * Completes transfers with outcomes of the same order.
+   */
+  static void complete(List<PendingTransfer> transfers, List<TransferOutcome> outcomes) {
+    for (int i = 0; i < transfers.size(); i++) {
+      transfers.get(i).complete(outcomes.get(i));
+    }
+  }
+
+  Transfer await() throws AccountNotFoundException, NotEnoughMoneyException, BalanceLimitExceededException {
+    try {
+      return Uninterruptibles.getUninterruptibly(result);
+    } catch (ExecutionException ex) {
+      Throwables.propagateIfPossible(
+          ex.getCause(),
+          AccountNotFoundException.class,
+          NotEnoughMoneyException.class
+      );
+      Throwables.throwIfInstanceOf(ex.getCause(), BalanceLimitExceededException.class);
+      throw new UncheckedExecutionException(ex.getCause());
+    }
+  }
+
+  TransferOutcome awaitOutcome() {
+    try {
+      return TransferOutcome.success(Uninterruptibles.getUninterruptibly(result));
+    } catch (ExecutionException ex) {
+      Throwables.throwIfInstanceOf(ex.getCause(), Error.class);
+      return TransferOutcome.failure((Exception) ex.getCause());
+    }
+  }
+}
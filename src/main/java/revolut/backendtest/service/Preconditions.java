@@ -1,6 +1,7 @@
 package revolut.backendtest.service;
 
 import java.math.BigDecimal;
+import revolut.backendtest.model.Money;
 
 final class Preconditions {
 
@@ -11,4 +12,25 @@ final class Preconditions {
       );
     }
   }
+
+  /**
+   * Checked amount of incoming request.
+   */
+  static Money toMoney(BigDecimal amount) throws IllegalAmountException {
+    checkScale(amount);
+    try {
+      return Money.of(amount);
+    } catch (ArithmeticException ex) {
+      throw new IllegalAmountException("Amount is too large");
+    }
+  }
+
+  /**
+   * Checks that positive amount can be added to the balance without exceeding {@link Money#MAX}.
+   */
+  static void checkCredit(Money balance, Money amount) throws BalanceLimitExceededException {
+    if (balance.compareTo(Money.MAX.minus(amount)) > 0) {
+      throw new BalanceLimitExceededException("Balance of recipient account would exceed its limit");
+    }
+  }
 }
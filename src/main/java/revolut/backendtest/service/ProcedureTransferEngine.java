@@ -0,0 +1,78 @@
+package revolut.backendtest.service;
+
+import static revolut.backendtest.persistence.jdbc.TransferProcedure.BALANCE_LIMIT_EXCEEDED;
+import static revolut.backendtest.persistence.jdbc.TransferProcedure.FROM_ACCOUNT_NOT_FOUND;
+import static revolut.backendtest.persistence.jdbc.TransferProcedure.NOT_ENOUGH_MONEY;
+import static revolut.backendtest.persistence.jdbc.TransferProcedure.TO_ACCOUNT_NOT_FOUND;
+import static revolut.backendtest.persistence.jooq.codegen.Tables.TRANSFERS;
+import static revolut.backendtest.service.Mappers.toModel;
+
+import com.google.inject.Inject;
+import org.jooq.DSLContext;
+import org.jooq.exception.DataAccessException;
+import org.jooq.impl.DSL;
+import revolut.backendtest.model.AccountId;
+import revolut.backendtest.model.Money;
+import revolut.backendtest.model.Transfer;
+import revolut.backendtest.persistence.jdbc.TransferProcedure;
+import revolut.backendtest.persistence.jooq.JooqContextProvider;
+
+/**
+ * Same as {@link JdbcTransferEngine}, but the whole transfer is made by the database
+ * within single statement, see {@link TransferProcedure}. Batches are made the same way
+ * as by {@link JdbcTransferEngine}.
+ *
+ * <p>H2 is supported with page store only, see {@link #checkUnlockedUpdatesAreSafe(TransferMode)}.
+ */
+class ProcedureTransferEngine extends JdbcTransferEngine {
+
+  @Inject
+  ProcedureTransferEngine(
+      JooqContextProvider contextProvider,
+      TransactionRetry transactions,
+      TransferQueries queries
+  ) {
+    super(contextProvider, transactions, queries);
+  }
+
+  @Override
+  protected void startUp() {
+    checkUnlockedUpdatesAreSafe(TransferMode.PROCEDURE);
+  }
+
+  @Override
+  Transfer transfer(
+      DSLContext context,
+      AccountId from,
+      AccountId to,
+      Money amount
+  ) throws AccountNotFoundException, NotEnoughMoneyException, BalanceLimitExceededException {
+    try {
+      return toModel(context
+          .resultQuery(
+              "SELECT * FROM MAKE_TRANSFER({0}, {1}, {2})",
+              DSL.val(from.value),
+              DSL.val(to.value),
+              DSL.val(amount.toBigDecimal())
+          )
+          .coerce(TRANSFERS)
+          .fetchOne()
+      );
+    } catch (DataAccessException ex) {
+      String state = ex.sqlState();
+      if (FROM_ACCOUNT_NOT_FOUND.equals(state)) {
+        throw accountNotFound(from).get();
+      }
+      if (TO_ACCOUNT_NOT_FOUND.equals(state)) {
+        throw accountNotFound(to).get();
+      }
+      if (NOT_ENOUGH_MONEY.equals(state)) {
+        throw new NotEnoughMoneyException("Not enough money to transfer");
+      }
+      if (BALANCE_LIMIT_EXCEEDED.equals(state)) {
+        throw new BalanceLimitExceededException("Balance of recipient account would exceed its limit");
+      }
+      throw ex;
+    }
+  }
+}
@@ -0,0 +1,117 @@
+package revolut.backendtest.service;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.AbstractIdleService;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+import java.util.HashMap;
+import java.util.List;
+import revolut.backendtest.model.AccountId;
+import revolut.backendtest.model.Money;
+import revolut.backendtest.model.Transfer;
+import revolut.backendtest.persistence.jooq.JooqContextProvider;
+
+/**
+ * LMAX-style engine: transfer requests are published to a ring buffer
+ * and applied strictly in sequence by the single writer thread owning all balances.
+ *
+ * <p>There are no locks on the transfer path at all, so hot accounts cost no more
+ * than cold ones. Balances are loaded lazily on first touch and persisted by
+ * {@link TransferJournal}, same as in {@link StripedLockTransferEngine}.
+ *
+ * <p>Engine assumes it is the only writer of account balances,
+ * so it must not share the database with other engine instances.
+ */
+class SequencerTransferEngine extends AbstractIdleService implements TransferEngine {
+
+  private static final int RING_BUFFER_SIZE = 1 << 14;
+
+  private final TransferJournal journal;
+  private final Disruptor<TransferEvent> disruptor;
+
+  // owned by the writer thread only
+  private final Balances balances;
+
+  @Inject
+  SequencerTransferEngine(JooqContextProvider contextProvider, TransferJournal journal) {
+    this.balances = Balances.loadedOnDemand(new HashMap<>(), contextProvider);
+    this.journal = journal;
+    this.disruptor = new Disruptor<>(
+        TransferEvent::new,
+        RING_BUFFER_SIZE,
+        new ThreadFactoryBuilder().setNameFormat("transfer-sequencer-%d").build(),
+        ProducerType.MULTI,
+        new BlockingWaitStrategy()
+    );
+    this.disruptor.handleEventsWith((EventHandler<TransferEvent>) this::onEvent);
+  }
+
+  @Override
+  protected void startUp() {
+    journal.startAsync().awaitRunning();
+    disruptor.start();
+  }
+
+  @Override
+  protected void shutDown() {
+    disruptor.shutdown();
+    journal.stopAsync().awaitTerminated();
+  }
+
+  @Override
+  public Transfer makeTransfer(
+      AccountId from,
+      AccountId to,
+      Money amount
+  ) throws AccountNotFoundException, NotEnoughMoneyException, BalanceLimitExceededException {
+    PendingTransfer transfer = new PendingTransfer(from, to, amount);
+    submit(ImmutableList.of(transfer), BatchMode.BEST_EFFORT);
+    return transfer.await();
+  }
+
+  @Override
+  public void submit(List<PendingTransfer> transfers, BatchMode mode) {
+    RingBuffer<TransferEvent> ringBuffer = disruptor.getRingBuffer();
+    long sequence = ringBuffer.next();
+    try {
+      TransferEvent event = ringBuffer.get(sequence);
+      event.transfers = transfers;
+      event.mode = mode;
+    } finally {
+      ringBuffer.publish(sequence);
+    }
+  }
+
+  private void onEvent(TransferEvent event, long sequence, boolean endOfBatch) {
+    List<PendingTransfer> transfers = event.transfers;
+    BatchMode mode = event.mode;
+    event.transfers = null;
+    event.mode = null;
+
+    try {
+      // journal may reject transfers, so memory is updated only after they are accepted
+      Balances fork = balances.fork();
+      Balances.Checked checked = fork.apply(transfers, mode);
+      // memory is the source of truth, so rejections are final
+      checked.failRejected();
+      if (!checked.accepted.isEmpty()) {
+        journal.append(checked.accepted);
+        fork.mergeInto(balances);
+      }
+    } catch (RuntimeException ex) {
+      // the only writer must survive any failure, so it is always reported to the caller
+      transfers.forEach(transfer -> transfer.fail(ex));
+    }
+  }
+
+  private static final class TransferEvent {
+
+    List<PendingTransfer> transfers;
+    BatchMode mode;
+  }
+}
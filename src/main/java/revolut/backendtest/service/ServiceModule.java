@@ -1,14 +1,66 @@
 package revolut.backendtest.service;
 
 import com.google.inject.PrivateModule;
+import revolut.backendtest.config.Config;
 
 public class ServiceModule extends PrivateModule {
 
+  private final TransferConfig transferConfig;
+
+  public ServiceModule() {
+    this(TransferConfig.from(Config.load()));
+  }
+
+  public ServiceModule(TransferConfig transferConfig) {
+    this.transferConfig = transferConfig;
+  }
+
   @Override
   protected void configure() {
+    bind(AccountCache.class).asEagerSingleton();
+    expose(AccountCache.class);
     bind(AccountService.class).asEagerSingleton();
     expose(AccountService.class);
     bind(TransferService.class).asEagerSingleton();
     expose(TransferService.class);
+    bind(TransferBus.class).asEagerSingleton();
+    expose(TransferBus.class);
+    bind(StorageEpoch.class).asEagerSingleton();
+    expose(StorageEpoch.class);
+
+    bind(TransferConfig.class).toInstance(transferConfig);
+    bind(TransferMetrics.class).asEagerSingleton();
+    bind(TransactionRetry.class).asEagerSingleton();
+    bind(TransferQueries.class).asEagerSingleton();
+    bind(IdempotencyKeys.class).asEagerSingleton();
+    bindTransferEngine();
+    expose(TransferEngine.class);
+  }
+
+  private void bindTransferEngine() {
+    switch (transferConfig.mode) {
+      case JDBC:
+        bind(TransferEngine.class).to(JdbcTransferEngine.class).asEagerSingleton();
+        break;
+      case STRIPED_LOCKS:
+        bind(TransferJournal.class).asEagerSingleton();
+        bind(TransferEngine.class).to(StripedLockTransferEngine.class).asEagerSingleton();
+        break;
+      case SEQUENCER:
+        bind(TransferJournal.class).asEagerSingleton();
+        bind(TransferEngine.class).to(SequencerTransferEngine.class).asEagerSingleton();
+        break;
+      case GROUP_COMMIT:
+        bind(TransferEngine.class).to(GroupCommitTransferEngine.class).asEagerSingleton();
+        break;
+      case OPTIMISTIC:
+        bind(TransferEngine.class).to(OptimisticTransferEngine.class).asEagerSingleton();
+        break;
+      case PROCEDURE:
+        bind(TransferEngine.class).to(ProcedureTransferEngine.class).asEagerSingleton();
+        break;
+      default:
+        throw new IllegalArgumentException("Unsupported transfer mode: " + transferConfig.mode);
+    }
   }
 }
@@ -0,0 +1,46 @@
+package revolut.backendtest.service;
+
+import static revolut.backendtest.persistence.jooq.codegen.Tables.DATABASE_EPOCH;
+
+import com.google.common.base.Suppliers;
+import com.google.inject.Inject;
+import java.util.function.Supplier;
+import revolut.backendtest.persistence.jooq.JooqContextProvider;
+
+/**
+ * Identity of the stored data, generated once when the database is created.
+ * Ids of accounts & transfers are unique only within it, since in-memory database
+ * starts them over on every restart, so anything cached by id outside should be tagged with it.
+ *
+ * <p>It is read from the database on first use, i.e. after migrations, and never changes afterwards.
+ */
+public class StorageEpoch {
+
+  private static final String IN_MEMORY_URL = "jdbc:h2:mem:";
+
+  private final Supplier<String> value;
+  private final Supplier<Boolean> persistent;
+
+  @Inject
+  StorageEpoch(JooqContextProvider contextProvider) {
+    this.value = Suppliers.memoize(() -> contextProvider.context()
+        .select(DATABASE_EPOCH.EPOCH)
+        .from(DATABASE_EPOCH)
+        .fetchOne(DATABASE_EPOCH.EPOCH)
+    );
+    this.persistent = Suppliers.memoize(() -> contextProvider.context()
+        .connectionResult(connection -> !connection.getMetaData().getURL().startsWith(IN_MEMORY_URL))
+    );
+  }
+
+  public String value() {
+    return value.get();
+  }
+
+  /**
+   * Whether the data outlives the process, so an id never refers to another account or transfer.
+   */
+  public boolean isPersistent() {
+    return persistent.get();
+  }
+}
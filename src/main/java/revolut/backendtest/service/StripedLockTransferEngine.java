@@ -0,0 +1,96 @@
+package revolut.backendtest.service;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.AbstractIdleService;
+import com.google.common.util.concurrent.Striped;
+import com.google.inject.Inject;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Stream;
+import revolut.backendtest.model.AccountId;
+import revolut.backendtest.model.Money;
+import revolut.backendtest.model.Transfer;
+import revolut.backendtest.persistence.jooq.JooqContextProvider;
+
+/**
+ * Keeps balances of touched accounts in memory, so transfer checks never wait for database locks.
+ *
+ * <p>Accounts are guarded by striped locks which are always acquired in stripe order,
+ * so opposite transfers between the same pair of accounts cannot deadlock.
+ * Balances are loaded lazily on first touch and persisted by {@link TransferJournal}.
+ *
+ * <p>Engine assumes it is the only writer of account balances,
+ * so it must not share the database with other engine instances.
+ */
+class StripedLockTransferEngine extends AbstractIdleService implements TransferEngine {
+
+  private static final int STRIPES = 1024;
+
+  private final Striped<Lock> locks = Striped.lock(STRIPES);
+  private final Balances balances;
+
+  private final TransferJournal journal;
+
+  @Inject
+  StripedLockTransferEngine(JooqContextProvider contextProvider, TransferJournal journal) {
+    this.balances = Balances.loadedOnDemand(new ConcurrentHashMap<>(), contextProvider);
+    this.journal = journal;
+  }
+
+  @Override
+  protected void startUp() {
+    journal.startAsync().awaitRunning();
+  }
+
+  @Override
+  protected void shutDown() {
+    journal.stopAsync().awaitTerminated();
+  }
+
+  @Override
+  public Transfer makeTransfer(
+      AccountId from,
+      AccountId to,
+      Money amount
+  ) throws AccountNotFoundException, NotEnoughMoneyException, BalanceLimitExceededException {
+    PendingTransfer transfer = new PendingTransfer(from, to, amount);
+    applyLocked(ImmutableList.of(transfer), BatchMode.BEST_EFFORT);
+    return transfer.await();
+  }
+
+  @Override
+  public void submit(List<PendingTransfer> transfers, BatchMode mode) {
+    if (mode == BatchMode.ALL_OR_NOTHING) {
+      applyLocked(transfers, mode);
+    } else {
+      transfers.forEach(transfer -> applyLocked(ImmutableList.of(transfer), mode));
+    }
+  }
+
+  private void applyLocked(List<PendingTransfer> transfers, BatchMode mode) {
+    ImmutableList<Long> ids = transfers.stream()
+        .flatMap(transfer -> Stream.of(transfer.from.value, transfer.to.value))
+        .collect(toImmutableList());
+    ImmutableList<Lock> acquired = ImmutableList.copyOf(locks.bulkGet(ids));
+
+    acquired.forEach(Lock::lock);
+    try {
+      // journal may reject transfers, so memory is updated only after they are accepted
+      Balances fork = balances.fork();
+      Balances.Checked checked = fork.apply(transfers, mode);
+      // memory is the source of truth, so rejections are final
+      checked.failRejected();
+      if (!checked.accepted.isEmpty()) {
+        journal.append(checked.accepted);
+        fork.mergeInto(balances);
+      }
+    } catch (RuntimeException ex) {
+      transfers.forEach(transfer -> transfer.fail(ex));
+    } finally {
+      acquired.reverse().forEach(Lock::unlock);
+    }
+  }
+}
@@ -0,0 +1,8 @@
+package revolut.backendtest.service;
+
+public class SubscriptionClosedException extends Exception {
+
+  SubscriptionClosedException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,8 @@
+package revolut.backendtest.service;
+
+public class TooManySubscribersException extends Exception {
+
+  TooManySubscribersException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,106 @@
+package revolut.backendtest.service;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.math.LongMath;
+import com.google.inject.Inject;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import org.jooq.exception.DataAccessException;
+
+/**
+ * Runs transfer engine transactions, retrying the ones failed because of lock contention
+ * after randomized exponential backoff, so contended transfers cost latency rather than errors.
+ */
+class TransactionRetry {
+
+  private static final ImmutableSet<String> RETRYABLE_SQL_STATES = ImmutableSet.of(
+      "HYT00", // H2 lock timeout
+      "90131", // H2 concurrent update of the same row
+      "40001", // deadlock in H2, serialization failure in Postgres
+      "40P01", // Postgres deadlock
+      "55P03"  // Postgres lock not available, e.g. with NOWAIT
+  );
+
+  private final TransferMetrics metrics;
+  private final Sleeper sleeper;
+  private final int maxAttempts;
+  private final long backoffNanos;
+  private final long maxBackoffNanos;
+
+  @Inject
+  TransactionRetry(TransferMetrics metrics, TransferConfig config) {
+    this(metrics, config, NANOSECONDS::sleep);
+  }
+
+  TransactionRetry(TransferMetrics metrics, TransferConfig config, Sleeper sleeper) {
+    this.metrics = metrics;
+    this.sleeper = sleeper;
+    this.maxAttempts = config.retryMaxAttempts;
+    this.backoffNanos = config.retryBackoff.toNanos();
+    this.maxBackoffNanos = config.retryMaxBackoff.toNanos();
+  }
+
+  void run(Runnable transaction) {
+    call(() -> {
+      transaction.run();
+      return null;
+    });
+  }
+
+  <T> T call(Supplier<T> transaction) {
+    long start = System.nanoTime();
+    for (int attempt = 1; ; attempt++) {
+      try {
+        T result = transaction.get();
+        metrics.transaction(System.nanoTime() - start, attempt - 1);
+        return result;
+      } catch (DataAccessException ex) {
+        if (attempt >= maxAttempts || !isRetryable(ex) || !backOff(attempt)) {
+          metrics.transaction(System.nanoTime() - start, attempt - 1);
+          throw ex;
+        }
+      }
+    }
+  }
+
+  /**
+   * Whether the failure is known to roll back the transaction, unlike e.g. broken connection on commit,
+   * after which the transaction may be committed anyway.
+   */
+  static boolean isRolledBack(Exception ex) {
+    return ex instanceof DataAccessException && isRetryable((DataAccessException) ex);
+  }
+
+  private static boolean isRetryable(DataAccessException ex) {
+    return Throwables.getCausalChain(ex).stream()
+        .filter(SQLException.class::isInstance)
+        .map(cause -> ((SQLException) cause).getSQLState())
+        .anyMatch(RETRYABLE_SQL_STATES::contains);
+  }
+
+  /**
+   * Sleeps random time up to exponentially growing bound ("full jitter"),
+   * so transactions which have collided once are unlikely to collide again.
+   *
+   * @return false if interrupted, then there should be no more attempts
+   */
+  private boolean backOff(int attempt) {
+    long bound = Math.min(maxBackoffNanos, LongMath.saturatedMultiply(backoffNanos, 1L << Math.min(attempt - 1, 62)));
+    try {
+      sleeper.sleep(ThreadLocalRandom.current().nextLong(bound + 1));
+      return true;
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  interface Sleeper {
+
+    void sleep(long nanos) throws InterruptedException;
+  }
+}
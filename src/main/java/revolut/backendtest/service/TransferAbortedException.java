@@ -0,0 +1,8 @@
+package revolut.backendtest.service;
+
+public class TransferAbortedException extends Exception {
+
+  TransferAbortedException(String message) {
+    super(message);
+  }
+}
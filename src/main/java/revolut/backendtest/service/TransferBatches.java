@@ -0,0 +1,119 @@
+package revolut.backendtest.service;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static revolut.backendtest.persistence.jooq.codegen.Tables.ACCOUNTS;
+import static revolut.backendtest.persistence.jooq.codegen.Tables.TRANSFERS;
+
+import com.google.common.collect.ImmutableList;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import org.jooq.BatchBindStep;
+import org.jooq.DSLContext;
+import org.jooq.InsertValuesStep3;
+import org.jooq.Record2;
+import org.jooq.Result;
+import org.jooq.impl.DSL;
+import revolut.backendtest.model.Money;
+import revolut.backendtest.model.Transfer;
+import revolut.backendtest.persistence.jooq.RowLock;
+import revolut.backendtest.persistence.jooq.codegen.tables.records.TransfersRecord;
+
+final class TransferBatches {
+
+  private TransferBatches() {
+  }
+
+  /**
+   * Locks all accounts touched by given transfers, then checks & writes transfers
+   * within the current transaction. Transaction may be retried, so transfers are not completed here,
+   * but by their outcomes after commit, see {@link PendingTransfer#complete(List, List)}.
+   *
+   * @return outcomes in order of the transfers
+   */
+  static ImmutableList<TransferOutcome> checkAndWrite(
+      DSLContext context,
+      RowLock rowLock,
+      List<PendingTransfer> transfers,
+      BatchMode mode
+  ) {
+    Balances balances = new Balances(lockAccounts(context, rowLock, transfers));
+    Balances.Checked checked = balances.apply(transfers, mode);
+    return checked.outcomes(write(context, checked.accepted));
+  }
+
+  private static Map<Long, Money> lockAccounts(
+      DSLContext context,
+      RowLock rowLock,
+      List<PendingTransfer> transfers
+  ) {
+    SortedSet<Long> ids = new TreeSet<>();
+    for (PendingTransfer transfer : transfers) {
+      ids.add(transfer.from.value);
+      ids.add(transfer.to.value);
+    }
+
+    Map<Long, Money> balances = new HashMap<>();
+    for (Record2<Long, BigDecimal> account : rowLock
+        .lock(context
+            .select(ACCOUNTS.ACCOUNT_ID, ACCOUNTS.BALANCE)
+            .from(ACCOUNTS)
+            .where(ACCOUNTS.ACCOUNT_ID.in(ids))
+            .orderBy(ACCOUNTS.ACCOUNT_ID)
+        )
+        .fetch()) {
+      balances.put(account.value1(), Money.of(account.value2()));
+    }
+    return balances;
+  }
+
+  /**
+   * Writes already checked transfers within the current transaction using single batched
+   * balance update per touched account & single multi-row insert.
+   *
+   * @return inserted transfers in the same order, they should be completed only after commit
+   */
+  static ImmutableList<Transfer> write(DSLContext context, List<PendingTransfer> transfers) {
+    if (transfers.isEmpty()) {
+      return ImmutableList.of();
+    }
+
+    // sorted to update rows in the same order as pessimistic transfers lock them
+    SortedMap<Long, Money> deltas = new TreeMap<>();
+    InsertValuesStep3<TransfersRecord, Long, Long, BigDecimal> insert = context
+        .insertInto(
+            TRANSFERS,
+            TRANSFERS.FROM_ACCOUNT_ID,
+            TRANSFERS.TO_ACCOUNT_ID,
+            TRANSFERS.AMOUNT
+        );
+
+    for (PendingTransfer transfer : transfers) {
+      deltas.merge(transfer.from.value, transfer.amount.negate(), Money::plus);
+      deltas.merge(transfer.to.value, transfer.amount, Money::plus);
+      insert = insert.values(transfer.from.value, transfer.to.value, transfer.amount.toBigDecimal());
+    }
+
+    BatchBindStep updates = context.batch(
+        context
+            .update(ACCOUNTS)
+            // typed, otherwise null placeholder is bound as varchar by some dialects
+            .set(ACCOUNTS.BALANCE, ACCOUNTS.BALANCE.plus(DSL.val(null, ACCOUNTS.BALANCE)))
+            .set(ACCOUNTS.VERSION, ACCOUNTS.VERSION.plus(DSL.inline(1L)))
+            .where(ACCOUNTS.ACCOUNT_ID.eq((Long) null))
+    );
+    // zero deltas are written as well, so version of every account with new transfers is incremented
+    for (Map.Entry<Long, Money> delta : deltas.entrySet()) {
+      updates = updates.bind(delta.getValue().toBigDecimal(), delta.getKey());
+    }
+    updates.execute();
+
+    Result<TransfersRecord> inserted = insert.returning().fetch();
+    return inserted.stream().map(Mappers::toModel).collect(toImmutableList());
+  }
+}
@@ -0,0 +1,132 @@
+package revolut.backendtest.service;
+
+import com.google.inject.Inject;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import revolut.backendtest.model.AccountId;
+import revolut.backendtest.model.Money;
+import revolut.backendtest.model.Transfer;
+import revolut.backendtest.model.TransferId;
+
+/**
+ * In-process fan-out of transfers as they are committed.
+ *
+ * <p>Every subscriber has its own bounded buffer, so transfers are never blocked by subscribers.
+ * Subscriber which falls behind by the whole buffer is disconnected
+ * & expected to resume from the last transfer it has got.
+ */
+public class TransferBus {
+
+  // only wakes up disconnected subscriber, it is never delivered
+  private static final Transfer CLOSED = new Transfer(
+      new TransferId(0),
+      new AccountId(0),
+      new AccountId(0),
+      Instant.EPOCH,
+      Money.ZERO
+  );
+
+  private final int bufferSize;
+  private final int maxSubscribers;
+  private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+  private final Counter overflows;
+
+  @Inject
+  TransferBus(TransferConfig config, MeterRegistry registry) {
+    this.bufferSize = config.streamBufferSize;
+    this.maxSubscribers = config.streamMaxSubscribers;
+    Gauge.builder("transfers.stream.subscribers", subscriptions, Set::size)
+        .description("Subscribers of committed transfers")
+        .register(registry);
+    this.overflows = Counter.builder("transfers.stream.overflows")
+        .description("Subscribers disconnected because they could not keep up")
+        .register(registry);
+  }
+
+  /**
+   * Max number of transfers buffered for every subscriber.
+   */
+  public int bufferSize() {
+    return bufferSize;
+  }
+
+  /**
+   * Subscription should be closed when it is not needed anymore.
+   */
+  public synchronized Subscription subscribe() throws TooManySubscribersException {
+    if (subscriptions.size() >= maxSubscribers) {
+      throw new TooManySubscribersException("Too many subscribers of transfers, max is " + maxSubscribers);
+    }
+    Subscription subscription = new Subscription();
+    subscriptions.add(subscription);
+    return subscription;
+  }
+
+  /**
+   * Should be called after the transfer is committed.
+   */
+  void publish(Transfer transfer) {
+    for (Subscription subscription : subscriptions) {
+      if (!subscription.buffer.offer(transfer)) {
+        overflows.increment();
+        subscription.disconnect("Subscriber is too slow, more than " + bufferSize + " transfers are not delivered");
+      }
+    }
+  }
+
+  /**
+   * Disconnects all current subscribers, e.g. on shutdown.
+   */
+  public void disconnectAll() {
+    for (Subscription subscription : subscriptions) {
+      subscription.disconnect("Transfer stream is closed");
+    }
+  }
+
+  public final class Subscription implements AutoCloseable {
+
+    private final BlockingQueue<Transfer> buffer = new ArrayBlockingQueue<>(bufferSize);
+    private volatile String disconnected;
+
+    private Subscription() {
+    }
+
+    /**
+     * @return next committed transfer, if there is one within the timeout
+     * @throws SubscriptionClosedException if subscriber is disconnected
+     */
+    public Optional<Transfer> poll(Duration timeout) throws InterruptedException, SubscriptionClosedException {
+      Transfer transfer = buffer.poll(timeout.toNanos(), TimeUnit.NANOSECONDS);
+      if (disconnected != null) {
+        throw new SubscriptionClosedException(disconnected);
+      }
+      return Optional.ofNullable(transfer);
+    }
+
+    public boolean hasBuffered() {
+      return !buffer.isEmpty();
+    }
+
+    private void disconnect(String reason) {
+      disconnected = reason;
+      close();
+      buffer.clear();
+      // there may be no room if concurrent publisher has taken it, but then subscriber is awake anyway
+      buffer.offer(CLOSED);
+    }
+
+    @Override
+    public void close() {
+      subscriptions.remove(this);
+    }
+  }
+}
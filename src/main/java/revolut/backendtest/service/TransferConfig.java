@@ -0,0 +1,97 @@
+package revolut.backendtest.service;
+
+import com.google.common.collect.ImmutableMap;
+import java.time.Duration;
+import revolut.backendtest.config.Config;
+
+public final class TransferConfig {
+
+  public final TransferMode mode;
+
+  /**
+   * How long {@link TransferMode#GROUP_COMMIT} waits for more transfers to join a batch.
+   */
+  public final Duration groupCommitWindow;
+
+  /**
+   * Max number of transfers committed by {@link TransferMode#GROUP_COMMIT} at once.
+   */
+  public final int groupCommitMaxSize;
+
+  /**
+   * Max attempts of transaction failed because of lock timeout or deadlock, 1 for no retries.
+   */
+  public final int retryMaxAttempts;
+
+  /**
+   * Upper bound of random backoff before the first retry, doubled for every next one.
+   */
+  public final Duration retryBackoff;
+
+  public final Duration retryMaxBackoff;
+
+  /**
+   * Committed transfers buffered for {@link TransferBus} subscriber, which is disconnected when it is full.
+   */
+  public final int streamBufferSize;
+
+  /**
+   * Max number of concurrent {@link TransferBus} subscribers.
+   */
+  public final int streamMaxSubscribers;
+
+  /**
+   * How long idempotency key is kept since it is claimed, afterwards it can be used by a new transfer.
+   */
+  public final Duration idempotencyKeyTtl;
+
+  public TransferConfig(
+      TransferMode mode,
+      Duration groupCommitWindow,
+      int groupCommitMaxSize,
+      int retryMaxAttempts,
+      Duration retryBackoff,
+      Duration retryMaxBackoff,
+      int streamBufferSize,
+      int streamMaxSubscribers,
+      Duration idempotencyKeyTtl
+  ) {
+    if (retryMaxAttempts < 1) {
+      throw new IllegalArgumentException("Retry max attempts should be positive: " + retryMaxAttempts);
+    }
+    this.mode = mode;
+    this.groupCommitWindow = groupCommitWindow;
+    this.groupCommitMaxSize = groupCommitMaxSize;
+    this.retryMaxAttempts = retryMaxAttempts;
+    this.retryBackoff = retryBackoff;
+    this.retryMaxBackoff = retryMaxBackoff;
+    this.streamBufferSize = streamBufferSize;
+    this.streamMaxSubscribers = streamMaxSubscribers;
+    this.idempotencyKeyTtl = idempotencyKeyTtl;
+  }
+
+  public static TransferConfig of(TransferMode mode) {
+    return from(Config.of(ImmutableMap.of()), mode);
+  }
+
+  /**
+   * Mode is given by {@code transfer.mode}.
+   */
+  public static TransferConfig from(Config config) {
+    return from(config, config.getEnum("transfer.mode", TransferMode.class));
+  }
+
+  public static TransferConfig from(Config config, TransferMode mode) {
+    return new TransferConfig(
+        mode,
+        config.getDuration("transfer.group-commit.window"),
+        config.getInt("transfer.group-commit.max-size"),
+        config.getInt("transfer.retry.max-attempts"),
+        config.getDuration("transfer.retry.backoff"),
+        config.getDuration("transfer.retry.max-backoff"),
+        config.getInt("transfer.stream.buffer-size"),
+        config.getInt("transfer.stream.max-subscribers"),
+        config.getDuration("transfer.idempotency.key-ttl")
+    );
+  }
+}
@@ -0,0 +1,29 @@
+package revolut.backendtest.service;
+
+import com.google.common.util.concurrent.Service;
+import java.util.List;
+import revolut.backendtest.model.AccountId;
+import revolut.backendtest.model.Money;
+import revolut.backendtest.model.Transfer;
+
+/**
+ * Ledger engine actually moving money between accounts.
+ *
+ * <p>Request validation (self transfers, amount sign & scale) is done by {@link TransferService}
+ * before reaching the engine, so implementations should only care about account existence
+ * and balance checks.
+ */
+public interface TransferEngine extends Service {
+
+  Transfer makeTransfer(
+      AccountId from,
+      AccountId to,
+      Money amount
+  ) throws AccountNotFoundException, NotEnoughMoneyException, BalanceLimitExceededException;
+
+  /**
+   * Makes several transfers at once. Every transfer is eventually completed
+   * with its own outcome, but the method itself is not required to wait for that.
+   */
+  void submit(List<PendingTransfer> transfers, BatchMode mode);
+}
@@ -0,0 +1,8 @@
+package revolut.backendtest.service;
+
+public class TransferInProgressException extends Exception {
+
+  TransferInProgressException(String message) {
+    super(message);
+  }
+}
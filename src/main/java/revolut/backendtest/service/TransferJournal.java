@@ -0,0 +1,122 @@
+package revolut.backendtest.service;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.AbstractExecutionThreadService;
+import com.google.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import org.jooq.DSLContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import revolut.backendtest.model.Transfer;
+import revolut.backendtest.persistence.jooq.JooqContextProvider;
+
+/**
+ * Write-behind journal persisting transfers already applied by in-memory engines.
+ *
+ * <p>Transfers are written by single background thread in batches: every batch is one
+ * database transaction with one balance update per touched account and one multi-row insert
+ * into TRANSFERS. Appended transfers are completed once the batch containing them is committed.
+ * Transfers appended together are never split between batches.
+ *
+ * <p>Journal cannot undo transfers already applied in memory, so any failed batch
+ * fails the whole service and owning engine should stop accepting transfers.
+ */
+class TransferJournal extends AbstractExecutionThreadService {
+
+  private static final int MAX_BATCH_SIZE = 512;
+  private static final long POLL_TIMEOUT_MILLIS = 100;
+
+  private final Logger log = LoggerFactory.getLogger(getClass());
+
+  private final BlockingQueue<ImmutableList<PendingTransfer>> queue = new LinkedBlockingQueue<>();
+
+  private final JooqContextProvider contextProvider;
+  private final TransactionRetry transactions;
+
+  @Inject
+  TransferJournal(JooqContextProvider contextProvider, TransactionRetry transactions) {
+    this.contextProvider = contextProvider;
+    this.transactions = transactions;
+  }
+
+  private DSLContext context() {
+    return contextProvider.context();
+  }
+
+  void append(ImmutableList<PendingTransfer> transfers) {
+    if (transfers.isEmpty()) {
+      return;
+    }
+    if (!isRunning()) {
+      throw new IllegalStateException("Transfer journal is not running: " + state());
+    }
+
+    queue.add(transfers);
+
+    // writer could stop between the check & the add above, so nobody will ever take it
+    if (!isRunning() && queue.remove(transfers)) {
+      throw new IllegalStateException("Transfer journal is not running: " + state());
+    }
+  }
+
+  @Override
+  protected void run() throws InterruptedException {
+    List<PendingTransfer> batch = new ArrayList<>(MAX_BATCH_SIZE);
+    while (isRunning()) {
+      ImmutableList<PendingTransfer> head = queue.poll(POLL_TIMEOUT_MILLIS, MILLISECONDS);
+      if (head == null) {
+        continue;
+      }
+
+      batch.addAll(head);
+      collect(batch);
+      write(batch);
+      batch.clear();
+    }
+
+    for (ImmutableList<PendingTransfer> rest = queue.poll(); rest != null; rest = queue.poll()) {
+      batch.addAll(rest);
+      collect(batch);
+      write(batch);
+      batch.clear();
+    }
+  }
+
+  private void collect(List<PendingTransfer> batch) {
+    while (batch.size() < MAX_BATCH_SIZE) {
+      ImmutableList<PendingTransfer> next = queue.poll();
+      if (next == null) {
+        return;
+      }
+      batch.addAll(next);
+    }
+  }
+
+  @Override
+  protected void shutDown() {
+    IllegalStateException ex = new IllegalStateException("Transfer journal is stopped");
+    for (ImmutableList<PendingTransfer> rest = queue.poll(); rest != null; rest = queue.poll()) {
+      rest.forEach(transfer -> transfer.fail(ex));
+    }
+  }
+
+  private void write(List<PendingTransfer> batch) {
+    ImmutableList<Transfer> inserted;
+    try {
+      inserted = transactions.call(() -> context().transactionResult(cfg -> TransferBatches.write(cfg.dsl(), batch)));
+    } catch (RuntimeException ex) {
+      log.error("Failed to write batch of {} transfers", batch.size(), ex);
+      batch.forEach(transfer -> transfer.fail(ex));
+      throw ex;
+    }
+
+    for (int i = 0; i < batch.size(); i++) {
+      batch.get(i).complete(inserted.get(i));
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package revolut.backendtest.service;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Inject;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.stream.Stream;
+
+/**
+ * Outcomes of transfer requests & durations of transactions made by transfer engine.
+ */
+class TransferMetrics {
+
+  private static final String OK = "ok";
+  private static final String ERROR = "error";
+  private static final String DUPLICATE = "duplicate";
+
+  private static final ImmutableMap<Class<? extends Exception>, String> FAILURES =
+      ImmutableMap.<Class<? extends Exception>, String>builder()
+          .put(NotEnoughMoneyException.class, "not_enough_money")
+          .put(BalanceLimitExceededException.class, "balance_limit")
+          .put(AccountNotFoundException.class, "not_found")
+          .put(IllegalAmountException.class, "invalid")
+          .put(SelfTransferException.class, "invalid")
+          .put(IdempotencyKeyReusedException.class, "invalid")
+          .put(TransferAbortedException.class, "aborted")
+          .put(TransferInProgressException.class, "in_progress")
+          .build();
+
+  private final ImmutableMap<String, Counter> outcomes;
+  private final Timer transactions;
+  private final DistributionSummary retries;
+
+  @Inject
+  TransferMetrics(MeterRegistry registry, TransferConfig config) {
+    this.outcomes = Stream.concat(Stream.of(OK, ERROR, DUPLICATE), FAILURES.values().stream())
+        .distinct()
+        .collect(ImmutableMap.toImmutableMap(
+            outcome -> outcome,
+            outcome -> Counter.builder("transfers")
+                .description("Transfer requests by outcome")
+                .tag("outcome", outcome)
+                .register(registry)
+        ));
+    this.transactions = Timer.builder("transfers.transaction")
+        .description("Duration of transfer engine transactions, including retries")
+        .tag("mode", config.mode.name())
+        .publishPercentileHistogram()
+        .register(registry);
+    this.retries = DistributionSummary.builder("transfers.transaction.retries")
+        .description("Retries of transfer engine transactions")
+        .tag("mode", config.mode.name())
+        .publishPercentileHistogram()
+        .register(registry);
+  }
+
+  void succeeded() {
+    outcomes.get(OK).increment();
+  }
+
+  /**
+   * Request is answered with transfer already made by the same idempotency key.
+   */
+  void duplicated() {
+    outcomes.get(DUPLICATE).increment();
+  }
+
+  void failed(Exception error) {
+    outcomes.get(FAILURES.getOrDefault(error.getClass(), ERROR)).increment();
+  }
+
+  void completed(TransferOutcome outcome) {
+    if (outcome.error().isPresent()) {
+      failed(outcome.error().get());
+    } else {
+      succeeded();
+    }
+  }
+
+  void transaction(long durationNanos, int retryCount) {
+    transactions.record(durationNanos, NANOSECONDS);
+    retries.record(retryCount);
+  }
+}
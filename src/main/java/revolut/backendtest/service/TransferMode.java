@@ -0,0 +1,40 @@
+package revolut.backendtest.service;
+
+public enum TransferMode {
+
+  /**
+   * Every transfer is a separate database transaction locking both accounts rows.
+   */
+  JDBC,
+
+  /**
+   * Balances are kept in memory and guarded by striped locks,
+   * database is updated by background journal.
+   */
+  STRIPED_LOCKS,
+
+  /**
+   * Balances are kept in memory and owned by single writer thread consuming a ring buffer,
+   * database is updated by background journal.
+   */
+  SEQUENCER,
+
+  /**
+   * Like {@link #JDBC}, but transfers arriving at the same time are committed together
+   * within single database transaction.
+   */
+  GROUP_COMMIT,
+
+  /**
+   * Like {@link #JDBC}, but accounts are not locked upfront: debit is conditional on enough balance
+   * and missing accounts are detected by affected row counts.
+   * Refused by H2 with MVStore, which loses such concurrent updates.
+   */
+  OPTIMISTIC,
+
+  /**
+   * Like {@link #OPTIMISTIC}, but the whole transfer is made by the database within single call
+   * of stored procedure. Refused by H2 with MVStore, same as {@link #OPTIMISTIC}.
+   */
+  PROCEDURE
+}
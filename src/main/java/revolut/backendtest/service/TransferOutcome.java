@@ -0,0 +1,34 @@
+package revolut.backendtest.service;
+
+import java.util.Optional;
+import revolut.backendtest.model.Transfer;
+
+/**
+ * Either made transfer or the reason why it was not made.
+ */
+public final class TransferOutcome {
+
+  private final Transfer transfer;
+  private final Exception error;
+
+  private TransferOutcome(Transfer transfer, Exception error) {
+    this.transfer = transfer;
+    this.error = error;
+  }
+
+  static TransferOutcome success(Transfer transfer) {
+    return new TransferOutcome(transfer, null);
+  }
+
+  static TransferOutcome failure(Exception error) {
+    return new TransferOutcome(null, error);
+  }
+
+  public Optional<Transfer> transfer() {
+    return Optional.ofNullable(transfer);
+  }
+
+  public Optional<Exception> error() {
+    return Optional.ofNullable(error);
+  }
+}
@@ -0,0 +1,158 @@
+package revolut.backendtest.service;
+
+import static org.jooq.impl.DSL.param;
+import static revolut.backendtest.persistence.jooq.codegen.Tables.TRANSFERS;
+import static revolut.backendtest.persistence.jooq.codegen.tables.Accounts.ACCOUNTS;
+import static revolut.backendtest.service.Mappers.toModel;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Inject;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import org.jooq.DSLContext;
+import org.jooq.InsertValuesStep3;
+import org.jooq.Record;
+import org.jooq.Record1;
+import org.jooq.Record2;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import revolut.backendtest.model.AccountId;
+import revolut.backendtest.model.Money;
+import revolut.backendtest.model.Transfer;
+import revolut.backendtest.persistence.jooq.JooqContextProvider;
+import revolut.backendtest.persistence.jooq.RenderedQuery;
+import revolut.backendtest.persistence.jooq.codegen.tables.records.TransfersRecord;
+
+/**
+ * Statements of single transfer made by {@link JdbcTransferEngine} & its subclasses,
+ * rendered once for the dialect & row lock of the database.
+ */
+class TransferQueries {
+
+  private static final String ACCOUNT = "account";
+  private static final String OTHER_ACCOUNT = "otherAccount";
+  private static final String AMOUNT = "amount";
+  private static final String FROM = "from";
+  private static final String TO = "to";
+
+  private final RenderedQuery<Record2<Long, BigDecimal>> lockAccounts;
+  private final RenderedQuery<Record> addToBalance;
+  private final RenderedQuery<Record> withdraw;
+  private final RenderedQuery<Record1<Integer>> accountExists;
+  private final Optional<RenderedQuery<Record>> insertTransfer;
+  private final RenderedQuery<TransfersRecord> insertedTransfer;
+
+  @Inject
+  TransferQueries(JooqContextProvider contextProvider) {
+    DSLContext context = contextProvider.context();
+
+    this.lockAccounts = RenderedQuery.of(
+        context,
+        contextProvider.rowLock().lock(context
+            .select(ACCOUNTS.ACCOUNT_ID, ACCOUNTS.BALANCE)
+            .from(ACCOUNTS)
+            .where(ACCOUNTS.ACCOUNT_ID.in(param(ACCOUNT, Long.class), param(OTHER_ACCOUNT, Long.class)))
+            // same lock order for transfers in both directions, so they can't deadlock
+            .orderBy(ACCOUNTS.ACCOUNT_ID)
+        ),
+        ACCOUNTS.ACCOUNT_ID,
+        ACCOUNTS.BALANCE
+    );
+
+    this.addToBalance = RenderedQuery.of(context, context
+        .update(ACCOUNTS)
+        .set(ACCOUNTS.BALANCE, ACCOUNTS.BALANCE.plus(param(AMOUNT, BigDecimal.class)))
+        .set(ACCOUNTS.VERSION, ACCOUNTS.VERSION.plus(DSL.inline(1L)))
+        .where(ACCOUNTS.ACCOUNT_ID.eq(param(ACCOUNT, Long.class)))
+        .and(ACCOUNTS.BALANCE.le(DSL.inline(Money.MAX.toBigDecimal()).minus(param(AMOUNT, BigDecimal.class))))
+    );
+
+    this.withdraw = RenderedQuery.of(context, context
+        .update(ACCOUNTS)
+        .set(ACCOUNTS.BALANCE, ACCOUNTS.BALANCE.minus(param(AMOUNT, BigDecimal.class)))
+        .set(ACCOUNTS.VERSION, ACCOUNTS.VERSION.plus(DSL.inline(1L)))
+        .where(ACCOUNTS.ACCOUNT_ID.eq(param(ACCOUNT, Long.class)))
+        .and(ACCOUNTS.BALANCE.ge(param(AMOUNT, BigDecimal.class)))
+    );
+
+    this.accountExists = RenderedQuery.of(
+        context,
+        context
+            .selectOne()
+            .from(ACCOUNTS)
+            .where(ACCOUNTS.ACCOUNT_ID.eq(param(ACCOUNT, Long.class))),
+        DSL.one()
+    );
+
+    InsertValuesStep3<TransfersRecord, Long, Long, BigDecimal> insert = context
+        .insertInto(
+            TRANSFERS,
+            TRANSFERS.FROM_ACCOUNT_ID,
+            TRANSFERS.TO_ACCOUNT_ID,
+            TRANSFERS.AMOUNT
+        )
+        .values(param(FROM, Long.class), param(TO, Long.class), param(AMOUNT, BigDecimal.class));
+    if (context.family() == SQLDialect.POSTGRES) {
+      this.insertTransfer = Optional.empty();
+      this.insertedTransfer = RenderedQuery.of(context, insert.returning(), TRANSFERS);
+    } else {
+      // H2 has no RETURNING, so inserted row is selected by generated id, as jOOQ does it
+      this.insertTransfer = Optional.of(RenderedQuery.of(context, insert));
+      this.insertedTransfer = RenderedQuery.of(
+          context,
+          context
+              .selectFrom(TRANSFERS)
+              .where(TRANSFERS.TRANSFER_ID.eq(DSL.field("SCOPE_IDENTITY()", Long.class))),
+          TRANSFERS
+      );
+    }
+  }
+
+  /**
+   * Locks both accounts in order of their ids.
+   *
+   * @return balances of found accounts by id
+   */
+  Map<Long, Money> lockAccounts(DSLContext context, AccountId a, AccountId b) {
+    Map<Long, Money> balances = new HashMap<>(4);
+    for (Record2<Long, BigDecimal> account : lockAccounts
+        .query(context, ImmutableMap.of(ACCOUNT, a.value, OTHER_ACCOUNT, b.value))
+        .fetch()) {
+      balances.put(account.value1(), Money.of(account.value2()));
+    }
+    return balances;
+  }
+
+  /**
+   * @return false if there is no such account or its balance would exceed {@link Money#MAX}
+   */
+  boolean addToBalance(DSLContext context, AccountId id, Money amount) {
+    return addToBalance.execute(context, ImmutableMap.of(ACCOUNT, id.value, AMOUNT, amount.toBigDecimal())) > 0;
+  }
+
+  /**
+   * @return false if there is no such account or it has not enough money
+   */
+  boolean withdraw(DSLContext context, AccountId id, Money amount) {
+    return withdraw.execute(context, ImmutableMap.of(ACCOUNT, id.value, AMOUNT, amount.toBigDecimal())) > 0;
+  }
+
+  boolean accountExists(DSLContext context, AccountId id) {
+    return accountExists
+        .query(context, ImmutableMap.of(ACCOUNT, id.value))
+        .fetchOptional()
+        .isPresent();
+  }
+
+  Transfer insertTransfer(DSLContext context, AccountId from, AccountId to, Money amount) {
+    ImmutableMap<String, Object> values = ImmutableMap.of(
+        FROM, from.value,
+        TO, to.value,
+        AMOUNT, amount.toBigDecimal()
+    );
+    insertTransfer.ifPresent(insert -> insert.execute(context, values));
+    return toModel(insertedTransfer.query(context, values).fetchOne());
+  }
+}
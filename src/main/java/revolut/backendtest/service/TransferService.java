@@ -2,32 +2,55 @@ package revolut.backendtest.service;
 
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static revolut.backendtest.persistence.jooq.codegen.Tables.TRANSFERS;
-import static revolut.backendtest.persistence.jooq.codegen.tables.Accounts.ACCOUNTS;
-import static revolut.backendtest.service.Mappers.toModel;
-import static revolut.backendtest.service.Preconditions.checkScale;
+import static revolut.backendtest.service.Preconditions.toMoney;
 
 import com.google.common.collect.ImmutableList;
 import com.google.inject.Inject;
 import java.math.BigDecimal;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.function.Supplier;
+import java.util.stream.Stream;
+import org.jooq.Condition;
+import org.jooq.Cursor;
 import org.jooq.DSLContext;
-import org.jooq.Record2;
-import org.jooq.exception.DataAccessException;
+import org.jooq.impl.DSL;
 import revolut.backendtest.model.AccountId;
+import revolut.backendtest.model.Money;
 import revolut.backendtest.model.Transfer;
 import revolut.backendtest.model.TransferId;
+import revolut.backendtest.model.TransferOrder;
 import revolut.backendtest.persistence.jooq.JooqContextProvider;
 import revolut.backendtest.persistence.jooq.codegen.tables.records.TransfersRecord;
 
 public class TransferService {
 
+  private static final int STREAM_FETCH_SIZE = 500;
+
   private final JooqContextProvider contextProvider;
+  private final TransferEngine engine;
+  private final AccountCache accountCache;
+  private final TransferMetrics metrics;
+  private final IdempotencyKeys idempotencyKeys;
+  private final TransferBus bus;
 
   @Inject
-  public TransferService(JooqContextProvider contextProvider) {
+  TransferService(
+      JooqContextProvider contextProvider,
+      TransferEngine engine,
+      AccountCache accountCache,
+      TransferMetrics metrics,
+      IdempotencyKeys idempotencyKeys,
+      TransferBus bus
+  ) {
     this.contextProvider = contextProvider;
+    this.engine = engine;
+    this.accountCache = accountCache;
+    this.metrics = metrics;
+    this.idempotencyKeys = idempotencyKeys;
+    this.bus = bus;
   }
 
   private DSLContext context() {
@@ -42,15 +65,39 @@ public class TransferService {
         .map(Mappers::toModel);
   }
 
-  public ImmutableList<Transfer> getAll() {
+  public ImmutableList<Transfer> getPage(Optional<TransferId> after, int limit) {
     return context()
         .selectFrom(TRANSFERS)
+        .where(isAfter(after))
+        .orderBy(TRANSFERS.TRANSFER_ID)
+        .limit(limit)
         .fetch()
         .stream()
         .map(Mappers::toModel)
         .collect(toImmutableList());
   }
 
+  /**
+   * Lazily fetched transfers ordered by id, holding database connection until closed.
+   */
+  public Stream<Transfer> stream(Optional<TransferId> after) {
+    Cursor<TransfersRecord> cursor = context()
+        .selectFrom(TRANSFERS)
+        .where(isAfter(after))
+        .orderBy(TRANSFERS.TRANSFER_ID)
+        .fetchSize(STREAM_FETCH_SIZE)
+        .fetchLazy();
+    return cursor.stream()
+        .map(Mappers::toModel)
+        .onClose(cursor::close);
+  }
+
+  private static Condition isAfter(Optional<TransferId> after) {
+    return after
+        .map(id -> TRANSFERS.TRANSFER_ID.gt(id.value))
+        .orElseGet(DSL::noCondition);
+  }
+
   // Using a lot of checked exceptions here for simplicity only.
   // It will be better to collapse all those service exceptions into single one
   // and use some enum code to distinguish them. Or just use Try/Either approach instead.
@@ -58,96 +105,155 @@ public class TransferService {
       AccountId from,
       AccountId to,
       BigDecimal amount
-  ) throws AccountNotFoundException, NotEnoughMoneyException, IllegalAmountException, SelfTransferException {
-    checkNoSelfTransfer(from, to);
-    checkPositive(amount);
-    checkScale(amount);
-
+  ) throws AccountNotFoundException, NotEnoughMoneyException, BalanceLimitExceededException, IllegalAmountException,
+      SelfTransferException {
+    Transfer transfer;
     try {
-      return tryMakeTransfer(from, to, amount);
-    } catch (DataAccessException dae) {
-      rethrowOnCause(dae, AccountNotFoundException.class);
-      rethrowOnCause(dae, NotEnoughMoneyException.class);
-      rethrowOnCause(dae, IllegalAmountException.class);
-      throw dae;
+      checkNoSelfTransfer(from, to);
+      Money money = toMoney(amount);
+      checkPositive(money);
+
+      transfer = engine.makeTransfer(from, to, money);
+    } catch (Exception ex) {
+      metrics.failed(ex);
+      throw ex;
     }
+    metrics.succeeded();
+    committed(transfer);
+    return transfer;
   }
 
-  private static void checkNoSelfTransfer(
+  /**
+   * Makes transfer at most once per idempotency key, requests with the key of already made transfer
+   * are answered with it. Key is released for another attempt only when the transfer is surely not made.
+   */
+  public Transfer makeTransfer(
+      String idempotencyKey,
       AccountId from,
-      AccountId to
-  ) throws SelfTransferException {
-    if (from.equals(to)) {
-      throw new SelfTransferException("no self transfers allowed");
+      AccountId to,
+      BigDecimal amount
+  ) throws AccountNotFoundException, NotEnoughMoneyException, BalanceLimitExceededException, IllegalAmountException,
+      SelfTransferException, TransferInProgressException, IdempotencyKeyReusedException {
+    Optional<Transfer> made;
+    try {
+      made = idempotencyKeys.claim(idempotencyKey);
+    } catch (TransferInProgressException ex) {
+      metrics.failed(ex);
+      throw ex;
     }
+    if (made.isPresent()) {
+      return duplicate(made.get(), from, to, amount);
+    }
+
+    Transfer transfer;
+    try {
+      transfer = makeTransfer(from, to, amount);
+    } catch (AccountNotFoundException | NotEnoughMoneyException | BalanceLimitExceededException
+        | IllegalAmountException | SelfTransferException ex) {
+      idempotencyKeys.release(idempotencyKey);
+      throw ex;
+    } catch (RuntimeException ex) {
+      // transfer may be committed despite the failure, so its key is kept claimed until it expires
+      if (TransactionRetry.isRolledBack(ex)) {
+        idempotencyKeys.release(idempotencyKey);
+      }
+      throw ex;
+    }
+    idempotencyKeys.complete(idempotencyKey, transfer);
+    return transfer;
   }
 
-  private static void checkPositive(BigDecimal amount) throws IllegalAmountException {
-    if (amount.compareTo(BigDecimal.ZERO) <= 0) {
-      throw new IllegalAmountException("Cannot transfer non-positive amount");
+  private Transfer duplicate(
+      Transfer made,
+      AccountId from,
+      AccountId to,
+      BigDecimal amount
+  ) throws IdempotencyKeyReusedException {
+    boolean same = made.from.equals(from)
+        && made.to.equals(to)
+        && made.amount.toBigDecimal().compareTo(amount) == 0;
+    if (!same) {
+      IdempotencyKeyReusedException ex = new IdempotencyKeyReusedException(
+          "Idempotency key is already used by other transfer"
+      );
+      metrics.failed(ex);
+      throw ex;
     }
+    metrics.duplicated();
+    return made;
   }
 
-  private static <X extends Exception> void rethrowOnCause(
-      DataAccessException dae,
-      Class<X> causeClass
-  ) throws X {
-    X cause = dae.getCause(causeClass);
-    if (cause != null) {
-      throw cause;
+  public ImmutableList<TransferOutcome> makeTransfers(
+      List<TransferOrder> orders,
+      BatchMode mode
+  ) {
+    ImmutableList.Builder<PendingTransfer> valid = ImmutableList.builder();
+    Map<TransferOrder, Exception> invalid = new IdentityHashMap<>();
+    for (TransferOrder order : orders) {
+      try {
+        checkNoSelfTransfer(order.from, order.to);
+        Money amount = toMoney(order.amount);
+        checkPositive(amount);
+        valid.add(new PendingTransfer(order.from, order.to, amount));
+      } catch (IllegalAmountException | SelfTransferException ex) {
+        invalid.put(order, ex);
+      }
     }
+
+    if (mode == BatchMode.ALL_OR_NOTHING && !invalid.isEmpty()) {
+      ImmutableList<TransferOutcome> aborted = abort(orders, invalid);
+      aborted.forEach(metrics::completed);
+      return aborted;
+    }
+
+    ImmutableList<PendingTransfer> transfers = valid.build();
+    engine.submit(transfers, mode);
+
+    Iterator<PendingTransfer> pending = transfers.iterator();
+    ImmutableList<TransferOutcome> outcomes = orders.stream()
+        .map(order -> invalid.containsKey(order)
+            ? TransferOutcome.failure(invalid.get(order))
+            : pending.next().awaitOutcome()
+        )
+        .collect(toImmutableList());
+    outcomes.forEach(metrics::completed);
+    outcomes.forEach(outcome -> outcome.transfer().ifPresent(this::committed));
+    return outcomes;
+  }
+
+  private void committed(Transfer transfer) {
+    accountCache.invalidate(transfer.from);
+    accountCache.invalidate(transfer.to);
+    bus.publish(transfer);
+  }
+
+  private static ImmutableList<TransferOutcome> abort(
+      List<TransferOrder> orders,
+      Map<TransferOrder, Exception> invalid
+  ) {
+    TransferOutcome aborted = TransferOutcome.failure(new TransferAbortedException(
+        "Transfer is not made, because other transfer of the same batch is invalid"
+    ));
+    return orders.stream()
+        .map(order -> invalid.containsKey(order)
+            ? TransferOutcome.failure(invalid.get(order))
+            : aborted
+        )
+        .collect(toImmutableList());
   }
 
-  private Transfer tryMakeTransfer(AccountId from, AccountId to, BigDecimal amount) {
-    return context().transactionResult(
-        cfg -> {
-          DSLContext context = cfg.dsl();
-
-          Map<Long, Record2<Long, BigDecimal>> accounts = context
-              .select(ACCOUNTS.ACCOUNT_ID, ACCOUNTS.BALANCE)
-              .from(ACCOUNTS)
-              .where(ACCOUNTS.ACCOUNT_ID.in(from.value, to.value))
-              .forUpdate()
-              .fetchMap(ACCOUNTS.ACCOUNT_ID);
-
-          BigDecimal fromBalance = Optional.ofNullable(accounts.get(from.value))
-              .map(Record2::component2)
-              .orElseThrow(accountNotFound(from));
-          if (fromBalance.compareTo(amount) < 0) {
-            throw new NotEnoughMoneyException("Not enough money to transfer");
-          }
-          //noinspection ResultOfMethodCallIgnored
-          Optional.ofNullable(accounts.get(to.value)).orElseThrow(accountNotFound(to));
-
-          context
-              .update(ACCOUNTS)
-              .set(ACCOUNTS.BALANCE, ACCOUNTS.BALANCE.minus(amount))
-              .where(ACCOUNTS.ACCOUNT_ID.eq(from.value))
-              .execute();
-
-          context
-              .update(ACCOUNTS)
-              .set(ACCOUNTS.BALANCE, ACCOUNTS.BALANCE.plus(amount))
-              .where(ACCOUNTS.ACCOUNT_ID.eq(to.value))
-              .execute();
-
-          TransfersRecord transfer = context
-              .insertInto(
-                  TRANSFERS,
-                  TRANSFERS.FROM_ACCOUNT_ID,
-                  TRANSFERS.TO_ACCOUNT_ID,
-                  TRANSFERS.AMOUNT
-              )
-              .values(from.value, to.value, amount)
-              .returning()
-              .fetchOne();
-
-          return toModel(transfer);
-        }
-    );
+  private static void checkNoSelfTransfer(
+      AccountId from,
+      AccountId to
+  ) throws SelfTransferException {
+    if (from.equals(to)) {
+      throw new SelfTransferException("no self transfers allowed");
+    }
   }
 
-  private static Supplier<AccountNotFoundException> accountNotFound(AccountId from) {
-    return () -> new AccountNotFoundException("Cannot find account with id=" + from.value);
+  private static void checkPositive(Money amount) throws IllegalAmountException {
+    if (amount.signum() <= 0) {
+      throw new IllegalAmountException("Cannot transfer non-positive amount");
+    }
   }
 }
@@ -0,0 +1,3 @@
+-- Columns are in the order of account statement, so its page is read right from the index without sorting.
+CREATE INDEX transfers_from_account_idx ON transfers(from_account_id DESC, transfered_at DESC, transfer_id DESC);
+CREATE INDEX transfers_to_account_idx ON transfers(to_account_id DESC, transfered_at DESC, transfer_id DESC);
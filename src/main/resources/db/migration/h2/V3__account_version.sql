@@ -0,0 +1,2 @@
+-- Incremented by every balance change, so it can be told whether account has changed without comparing balances.
+ALTER TABLE accounts ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,3 @@
+-- Whole transfer within single call, see TransferProcedure.
+-- Forced, so the class is not needed to create the alias, e.g. by code generation.
+CREATE FORCE ALIAS MAKE_TRANSFER FOR "revolut.backendtest.persistence.jdbc.TransferProcedure.makeTransfer";
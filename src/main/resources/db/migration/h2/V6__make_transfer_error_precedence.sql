@@ -0,0 +1,4 @@
+-- Same version as Postgres function, which checks from account before reporting missing to account.
+-- Alias runs TransferProcedure which does the same, so it is just recreated.
+DROP ALIAS MAKE_TRANSFER;
+CREATE FORCE ALIAS MAKE_TRANSFER FOR "revolut.backendtest.persistence.jdbc.TransferProcedure.makeTransfer";
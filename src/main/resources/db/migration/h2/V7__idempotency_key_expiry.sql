@@ -0,0 +1,3 @@
+-- Keys expire after transfer.idempotency.key-ttl since they are claimed, so they can be used again & purged.
+ALTER TABLE idempotency_keys ADD COLUMN claimed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP() NOT NULL;
+CREATE INDEX idempotency_keys_claimed_at_idx ON idempotency_keys(claimed_at);
@@ -0,0 +1,2 @@
+-- Balances are kept in memory as long cents, so they must not exceed Long.MAX_VALUE cents.
+ALTER TABLE accounts ADD CONSTRAINT accounts_balance_max CHECK (balance <= 92233720368547758.07);
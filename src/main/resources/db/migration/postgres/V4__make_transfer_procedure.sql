@@ -0,0 +1,35 @@
+-- Whole transfer within single call, same as H2 alias backed by TransferProcedure:
+-- accounts are updated in id order, debit is conditional on enough balance,
+-- errors are raised with TR001 (from account not found), TR002 (to account not found)
+-- & TR003 (not enough money) codes, inserted transfers row is returned.
+CREATE FUNCTION make_transfer(from_id BIGINT, to_id BIGINT, transfer_amount DECIMAL(20,2))
+RETURNS transfers AS $$
+DECLARE
+  account BIGINT;
+  transfer transfers;
+BEGIN
+  FOREACH account IN ARRAY ARRAY[LEAST(from_id, to_id), GREATEST(from_id, to_id)] LOOP
+    IF account = from_id THEN
+      UPDATE accounts SET balance = balance - transfer_amount, version = version + 1
+      WHERE account_id = from_id AND balance >= transfer_amount;
+      IF NOT FOUND THEN
+        IF EXISTS (SELECT 1 FROM accounts WHERE account_id = from_id) THEN
+          RAISE EXCEPTION 'Not enough money to transfer' USING ERRCODE = 'TR003';
+        END IF;
+        RAISE EXCEPTION 'Cannot find account with id=%', from_id USING ERRCODE = 'TR001';
+      END IF;
+    ELSE
+      UPDATE accounts SET balance = balance + transfer_amount, version = version + 1
+      WHERE account_id = to_id;
+      IF NOT FOUND THEN
+        RAISE EXCEPTION 'Cannot find account with id=%', to_id USING ERRCODE = 'TR002';
+      END IF;
+    END IF;
+  END LOOP;
+
+  INSERT INTO transfers (from_account_id, to_account_id, amount)
+  VALUES (from_id, to_id, transfer_amount)
+  RETURNING * INTO transfer;
+  RETURN transfer;
+END;
+$$ LANGUAGE plpgsql;
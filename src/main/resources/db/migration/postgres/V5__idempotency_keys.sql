@@ -0,0 +1,7 @@
+-- Claimed by transfer request before it is made, transfer_id is set once it is made.
+CREATE TABLE idempotency_keys (
+  idempotency_key VARCHAR(255) NOT NULL PRIMARY KEY,
+  transfer_id BIGINT,
+
+  FOREIGN KEY (transfer_id) REFERENCES transfers(transfer_id)
+);
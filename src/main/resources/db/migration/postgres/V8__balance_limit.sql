@@ -0,0 +1,41 @@
+-- Balances are kept in memory as long cents, so they must not exceed Long.MAX_VALUE cents.
+ALTER TABLE accounts ADD CONSTRAINT accounts_balance_max CHECK (balance <= 92233720368547758.07);
+
+-- Credit is conditional on balance limit, same as by TransferProcedure.
+CREATE OR REPLACE FUNCTION make_transfer(from_id BIGINT, to_id BIGINT, transfer_amount DECIMAL(20,2))
+RETURNS transfers AS $$
+DECLARE
+  account BIGINT;
+  to_credited BOOLEAN := TRUE;
+  transfer transfers;
+BEGIN
+  FOREACH account IN ARRAY ARRAY[LEAST(from_id, to_id), GREATEST(from_id, to_id)] LOOP
+    IF account = from_id THEN
+      UPDATE accounts SET balance = balance - transfer_amount, version = version + 1
+      WHERE account_id = from_id AND balance >= transfer_amount;
+      IF NOT FOUND THEN
+        IF EXISTS (SELECT 1 FROM accounts WHERE account_id = from_id) THEN
+          RAISE EXCEPTION 'Not enough money to transfer' USING ERRCODE = 'TR003';
+        END IF;
+        RAISE EXCEPTION 'Cannot find account with id=%', from_id USING ERRCODE = 'TR001';
+      END IF;
+    ELSE
+      UPDATE accounts SET balance = balance + transfer_amount, version = version + 1
+      WHERE account_id = to_id AND balance <= 92233720368547758.07 - transfer_amount;
+      to_credited := FOUND;
+    END IF;
+  END LOOP;
+
+  IF NOT to_credited THEN
+    IF EXISTS (SELECT 1 FROM accounts WHERE account_id = to_id) THEN
+      RAISE EXCEPTION 'Balance of recipient account would exceed its limit' USING ERRCODE = 'TR004';
+    END IF;
+    RAISE EXCEPTION 'Cannot find account with id=%', to_id USING ERRCODE = 'TR002';
+  END IF;
+
+  INSERT INTO transfers (from_account_id, to_account_id, amount)
+  VALUES (from_id, to_id, transfer_amount)
+  RETURNING * INTO transfer;
+  RETURN transfer;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,6 @@
+-- Generated once when the database is created, ids are unique only together with it,
+-- e.g. in-memory database starts them over on every restart.
+CREATE TABLE database_epoch (
+  epoch VARCHAR(32) NOT NULL
+);
+INSERT INTO database_epoch (epoch) VALUES (md5(random()::text || clock_timestamp()::text));
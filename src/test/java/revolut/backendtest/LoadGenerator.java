@@ -0,0 +1,343 @@
+package revolut.backendtest;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import retrofit2.Call;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.converter.jackson.JacksonConverterFactory;
+import revolut.backendtest.MoneyTransferApiTest.AccountJson;
+import revolut.backendtest.MoneyTransferApiTest.Api;
+import revolut.backendtest.api.dto.CreateAccountRequest;
+import revolut.backendtest.api.dto.MakeTransferRequest;
+import revolut.backendtest.service.TransferMode;
+
+/**
+ * HTTP load generator for in-process {@link MoneyTransferServer}.
+ *
+ * <p>With positive {@code rate} it works in open loop: requests are due at fixed arrival rate,
+ * no matter how fast they are served, and latency is measured from the moment request was due.
+ * So queueing is not hidden by coordinated omission, as long as there are enough client threads.
+ * With zero {@code rate} each client thread sends next request right after previous one is answered.
+ *
+ * <p>Options are given as {@code key=value} arguments, see {@link Options} for defaults.
+ */
+public final class LoadGenerator {
+
+  private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000000.00");
+  private static final BigDecimal AMOUNT = new BigDecimal("0.01");
+
+  enum Operation {
+    createAccount,
+    transfer,
+    getAccount,
+    getAccountTransfers
+  }
+
+  static final class Options {
+
+    TransferMode mode = TransferMode.JDBC;
+    /**
+     * Requests per second, 0 for closed loop.
+     */
+    int rate = 500;
+    /**
+     * Client threads.
+     */
+    int concurrency = 64;
+    int warmup = 5;
+    int duration = 30;
+    int accounts = 1000;
+    Map<Operation, Integer> mix = ImmutableMap.of(
+        Operation.transfer, 70,
+        Operation.getAccount, 20,
+        Operation.getAccountTransfers, 5,
+        Operation.createAccount, 5
+    );
+    Path report = Paths.get("build/reports/load/report.json");
+
+    static Options parse(String[] args) {
+      Options options = new Options();
+      for (String arg : args) {
+        List<String> option = Splitter.on('=').limit(2).splitToList(arg);
+        if (option.size() != 2) {
+          throw new IllegalArgumentException("Option should be key=value: " + arg);
+        }
+        String value = option.get(1);
+        switch (option.get(0)) {
+          case "mode":
+            options.mode = TransferMode.valueOf(value);
+            break;
+          case "rate":
+            options.rate = Integer.parseInt(value);
+            break;
+          case "concurrency":
+            options.concurrency = Integer.parseInt(value);
+            break;
+          case "warmup":
+            options.warmup = Integer.parseInt(value);
+            break;
+          case "duration":
+            options.duration = Integer.parseInt(value);
+            break;
+          case "accounts":
+            options.accounts = Integer.parseInt(value);
+            break;
+          case "mix":
+            Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+            Splitter.on(',').withKeyValueSeparator(':').split(value)
+                .forEach((op, weight) -> mix.put(Operation.valueOf(op), Integer.parseInt(weight)));
+            options.mix = mix;
+            break;
+          case "report":
+            options.report = Paths.get(value);
+            break;
+          default:
+            throw new IllegalArgumentException("Unknown option: " + arg);
+        }
+      }
+      return options;
+    }
+  }
+
+  private final Options options;
+  private final OkHttpClient client;
+  private final Api api;
+  private final ImmutableList<Operation> weightedOperations;
+
+  private List<Long> accounts;
+
+  private LoadGenerator(Options options) {
+    this.options = options;
+    this.client = new OkHttpClient.Builder()
+        .connectionPool(new ConnectionPool(options.concurrency, 1, MINUTES))
+        .readTimeout(1, MINUTES)
+        .build();
+    this.api = new Retrofit.Builder()
+        .baseUrl("http://localhost:8080/api/v1/")
+        .client(client)
+        .addConverterFactory(JacksonConverterFactory.create(
+            new ObjectMapper().findAndRegisterModules()
+        ))
+        .build()
+        .create(Api.class);
+    this.weightedOperations = options.mix.entrySet().stream()
+        .flatMap(e -> IntStream.range(0, e.getValue()).mapToObj(i -> e.getKey()))
+        .collect(ImmutableList.toImmutableList());
+  }
+
+  public static void main(String[] args) throws Exception {
+    Options options = Options.parse(args);
+
+    MoneyTransferServer server = new MoneyTransferServer(options.mode);
+    server.start();
+    Map<String, Object> report;
+    try {
+      report = new LoadGenerator(options).run();
+    } finally {
+      server.stop();
+    }
+
+    ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    Files.createDirectories(options.report.toAbsolutePath().getParent());
+    mapper.writeValue(options.report.toFile(), report);
+    System.out.println(mapper.writeValueAsString(report));
+  }
+
+  private Map<String, Object> run() throws InterruptedException {
+    try {
+      accounts = createAccounts();
+      runPhase(options.warmup);
+      PhaseStats stats = runPhase(options.duration);
+      return report(stats);
+    } finally {
+      client.dispatcher().executorService().shutdown();
+      client.connectionPool().evictAll();
+    }
+  }
+
+  private List<Long> createAccounts() throws InterruptedException {
+    ExecutorService executor = Executors.newFixedThreadPool(options.concurrency);
+    List<Long> ids = new ArrayList<>();
+    try {
+      List<Future<AccountJson>> created = new ArrayList<>();
+      for (int i = 0; i < options.accounts; i++) {
+        created.add(executor.submit(
+            () -> api.createAccount(new CreateAccountRequest(INITIAL_BALANCE)).execute().body()
+        ));
+      }
+      for (Future<AccountJson> account : created) {
+        ids.add(account.get().id);
+      }
+    } catch (ExecutionException ex) {
+      throw new IllegalStateException("Failed to create accounts", ex.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+    return ids;
+  }
+
+  private PhaseStats runPhase(int seconds) throws InterruptedException {
+    PhaseStats stats = new PhaseStats();
+    ExecutorService executor = Executors.newFixedThreadPool(options.concurrency);
+    long start = System.nanoTime();
+    long duration = SECONDS.toNanos(seconds);
+
+    if (options.rate > 0) {
+      long interval = SECONDS.toNanos(1) / options.rate;
+      for (long due = start; due - start < duration; due += interval) {
+        long delay = due - System.nanoTime();
+        if (delay > 0) {
+          LockSupport.parkNanos(delay);
+        }
+        long dueAt = due;
+        executor.execute(() -> call(nextOperation(), dueAt, stats));
+      }
+    } else {
+      for (int i = 0; i < options.concurrency; i++) {
+        executor.execute(() -> {
+          while (System.nanoTime() - start < duration) {
+            call(nextOperation(), System.nanoTime(), stats);
+          }
+        });
+      }
+    }
+
+    executor.shutdown();
+    executor.awaitTermination(10, MINUTES);
+    stats.elapsed = System.nanoTime() - start;
+    return stats;
+  }
+
+  private Operation nextOperation() {
+    return weightedOperations.get(ThreadLocalRandom.current().nextInt(weightedOperations.size()));
+  }
+
+  private void call(Operation operation, long startedAt, PhaseStats stats) {
+    int status;
+    try {
+      status = execute(operation).code();
+    } catch (IOException | RuntimeException ex) {
+      status = -1;
+    }
+    long latency = System.nanoTime() - startedAt;
+    stats.latencies.get(operation).recordValue(NANOSECONDS.toMicros(latency));
+    stats.statuses.get(operation).computeIfAbsent(status, s -> new LongAdder()).increment();
+  }
+
+  private Response<?> execute(Operation operation) throws IOException {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int index = random.nextInt(accounts.size());
+    long account = accounts.get(index);
+    Call<?> call;
+    switch (operation) {
+      case createAccount:
+        call = api.createAccount(new CreateAccountRequest(INITIAL_BALANCE));
+        break;
+      case transfer:
+        long to = accounts.get((index + 1 + random.nextInt(accounts.size() - 1)) % accounts.size());
+        call = api.makeTransfer(new MakeTransferRequest(account, to, AMOUNT));
+        break;
+      case getAccount:
+        call = api.account(account);
+        break;
+      case getAccountTransfers:
+        call = api.accountTransfers(account, "20", null);
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown operation: " + operation);
+    }
+    return call.execute();
+  }
+
+  private Map<String, Object> report(PhaseStats stats) {
+    double seconds = stats.elapsed / (double) SECONDS.toNanos(1);
+
+    Map<String, Object> operations = new LinkedHashMap<>();
+    for (Operation operation : Operation.values()) {
+      Histogram histogram = stats.latencies.get(operation).getIntervalHistogram();
+      if (histogram.getTotalCount() == 0) {
+        continue;
+      }
+
+      Map<String, Long> statuses = new LinkedHashMap<>();
+      stats.statuses.get(operation).entrySet().stream()
+          .sorted(Map.Entry.comparingByKey())
+          .forEach(e -> statuses.put(e.getKey() < 0 ? "io-error" : e.getKey().toString(), e.getValue().sum()));
+
+      Map<String, Object> latency = new LinkedHashMap<>();
+      latency.put("p50", histogram.getValueAtPercentile(50));
+      latency.put("p90", histogram.getValueAtPercentile(90));
+      latency.put("p99", histogram.getValueAtPercentile(99));
+      latency.put("p99.9", histogram.getValueAtPercentile(99.9));
+      latency.put("max", histogram.getMaxValue());
+      latency.put("mean", histogram.getMean());
+
+      Map<String, Object> result = new LinkedHashMap<>();
+      result.put("count", histogram.getTotalCount());
+      result.put("throughputPerSecond", histogram.getTotalCount() / seconds);
+      result.put("statuses", statuses);
+      result.put("latencyMicros", latency);
+      operations.put(operation.name(), result);
+    }
+
+    Map<String, Object> config = new LinkedHashMap<>();
+    config.put("mode", options.mode);
+    config.put("rate", options.rate);
+    config.put("concurrency", options.concurrency);
+    config.put("warmupSeconds", options.warmup);
+    config.put("durationSeconds", options.duration);
+    config.put("accounts", options.accounts);
+    config.put("mix", options.mix);
+
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("config", config);
+    report.put("elapsedSeconds", seconds);
+    report.put("operations", operations);
+    return report;
+  }
+
+  private static final class PhaseStats {
+
+    final Map<Operation, Recorder> latencies = new EnumMap<>(Operation.class);
+    final Map<Operation, Map<Integer, LongAdder>> statuses = new EnumMap<>(Operation.class);
+    long elapsed;
+
+    PhaseStats() {
+      for (Operation operation : Operation.values()) {
+        latencies.put(operation, new Recorder(3));
+        statuses.put(operation, new ConcurrentHashMap<>());
+      }
+    }
+  }
+}
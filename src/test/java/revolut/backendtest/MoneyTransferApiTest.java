@@ -4,22 +4,31 @@ import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.spotify.futures.CompletableFutures.joinList;
 import static java.time.temporal.ChronoUnit.SECONDS;
 import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.within;
 import static org.assertj.core.groups.Tuple.tuple;
 import static revolut.backendtest.persistence.jooq.codegen.tables.Accounts.ACCOUNTS;
+import static revolut.backendtest.persistence.jooq.codegen.tables.DatabaseEpoch.DATABASE_EPOCH;
+import static revolut.backendtest.persistence.jooq.codegen.tables.IdempotencyKeys.IDEMPOTENCY_KEYS;
 import static revolut.backendtest.persistence.jooq.codegen.tables.Transfers.TRANSFERS;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
@@ -31,6 +40,10 @@ import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeoutException;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
 import org.assertj.core.groups.Tuple;
 import org.eclipse.jetty.http.HttpStatus;
 import org.jooq.DSLContext;
@@ -43,22 +56,31 @@ import org.junit.jupiter.api.RepeatedTest;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
 import retrofit2.Call;
 import retrofit2.Response;
 import retrofit2.Retrofit;
 import retrofit2.converter.jackson.JacksonConverterFactory;
 import retrofit2.http.Body;
 import retrofit2.http.GET;
+import retrofit2.http.Header;
 import retrofit2.http.POST;
 import retrofit2.http.Path;
+import retrofit2.http.Query;
+import retrofit2.http.Streaming;
 import revolut.backendtest.api.dto.CreateAccountRequest;
 import revolut.backendtest.api.dto.MakeTransferRequest;
+import revolut.backendtest.config.Config;
+import revolut.backendtest.service.TransferMode;
 
 @TestInstance(Lifecycle.PER_METHOD)
 class MoneyTransferApiTest {
 
+  private static final MediaType JSON = MediaType.get("application/json");
+
   private ExecutorService executor;
 
   private MoneyTransferServer server;
@@ -74,6 +96,7 @@ class MoneyTransferApiTest {
     this.api = createApi();
 
     try (DSLContext jooq = DSL.using("jdbc:h2:mem:revolut;DB_CLOSE_DELAY=-1", "sa", "")) {
+      jooq.deleteFrom(IDEMPOTENCY_KEYS).execute();
       jooq.deleteFrom(TRANSFERS).execute();
       jooq.deleteFrom(ACCOUNTS).execute();
     }
@@ -148,6 +171,44 @@ class MoneyTransferApiTest {
           .allSatisfy(json -> assertThat(json).isEqualToComparingFieldByField(created));
     }
 
+    @Test
+    @DisplayName("account & its transfers are not sent again to client which has them, until they change")
+    void conditionalGetAccount() throws Exception {
+      long id = exec(api.createAccount(new CreateAccountRequest(BigDecimal.TEN))).body().id;
+      long other = exec(api.createAccount(new CreateAccountRequest(BigDecimal.TEN))).body().id;
+
+      Response<AccountJson> accountRs = api.account(id, null).execute();
+      assertOk(accountRs);
+      assertThat(accountRs.headers().get("Cache-Control")).isEqualTo("no-cache");
+      String accountTag = accountRs.headers().get("ETag");
+      assertThat(accountTag).isEqualTo("\"" + databaseEpoch() + "-" + id + "-0\"");
+      assertThat(api.account(id, accountTag).execute().code()).isEqualTo(HttpStatus.NOT_MODIFIED_304);
+
+      Response<List<TransferJson>> transfersRs = api.accountTransfers(id, null).execute();
+      assertOk(transfersRs);
+      String transfersTag = transfersRs.headers().get("ETag");
+      assertThat(api.accountTransfers(id, transfersTag).execute().code()).isEqualTo(HttpStatus.NOT_MODIFIED_304);
+
+      // When balance is the same after transfers
+      exec(api.makeTransfers(
+          ImmutableList.of(
+              new MakeTransferRequest(id, other, BigDecimal.ONE),
+              new MakeTransferRequest(other, id, BigDecimal.ONE)
+          ),
+          true
+      ));
+
+      // Then both are changed anyway
+      Response<AccountJson> changedRs = api.account(id, accountTag).execute();
+      assertOk(changedRs);
+      assertThat(changedRs.headers().get("ETag")).isNotEqualTo(accountTag);
+      assertThat(changedRs.body().balance).isEqualByComparingTo(BigDecimal.TEN);
+
+      Response<List<TransferJson>> changedTransfersRs = api.accountTransfers(id, transfersTag).execute();
+      assertOk(changedTransfersRs);
+      assertThat(changedTransfersRs.body()).hasSize(2);
+    }
+
     @ParameterizedTest(name = "initial balance = {0}")
     @CsvSource({"-0.01", "-1", "-2.1", "-3.14", "12.345", "foo", "null"})
     @DisplayName("cannot create account with bad balance")
@@ -297,6 +358,31 @@ class MoneyTransferApiTest {
       assertBadRequest(rs);
     }
 
+    @Test
+    @DisplayName("transfer is not sent again to client which has it")
+    void conditionalGetTransfer() throws Exception {
+      long from = createAccount(new CreateAccountRequest(BigDecimal.TEN));
+      long to = createAccount(new CreateAccountRequest(BigDecimal.TEN));
+      TransferJson transfer = exec(api.makeTransfer(new MakeTransferRequest(from, to, BigDecimal.ONE))).body();
+
+      Response<TransferJson> rs = api.transfer(transfer.id).execute();
+      assertOk(rs);
+      // in-memory database starts ids over on restart, so transfer is tagged by its epoch as well
+      assertThat(rs.headers().get("Cache-Control")).isEqualTo("no-cache");
+      String etag = rs.headers().get("ETag");
+      assertThat(etag).isEqualTo("\"" + databaseEpoch() + "-" + transfer.id + "\"");
+
+      Response<TransferJson> notModifiedRs = api.transfer(transfer.id, etag).execute();
+      assertThat(notModifiedRs.code()).isEqualTo(HttpStatus.NOT_MODIFIED_304);
+      assertThat(notModifiedRs.headers().get("ETag")).isEqualTo(etag);
+      assertThat(api.transfer(transfer.id, "\"other\", W/" + etag).execute().code())
+          .isEqualTo(HttpStatus.NOT_MODIFIED_304);
+
+      Response<TransferJson> otherRs = api.transfer(transfer.id, "\"other\"").execute();
+      assertOk(otherRs);
+      assertThat(otherRs.body()).isEqualToComparingFieldByField(transfer);
+    }
+
     @ParameterizedTest(name = "transfer {2} from {0} to {1}")
     @CsvSource({
         // bad amount
@@ -345,6 +431,24 @@ class MoneyTransferApiTest {
       assertThat(accountsRs.body()).isEmpty();
     }
 
+    @ParameterizedTest(name = "transfer request {0}")
+    @ValueSource(strings = {
+        "",
+        "null",
+        "[]",
+        "{",
+        "{\"from\": 1, \"to\": 2, \"amount\": 1, \"fee\": 1}",
+        "{\"from\": {}, \"to\": 2, \"amount\": 1}",
+        "{\"from\": 1, \"to\": 2, \"amount\": true}",
+        "{\"from\": 99999999999999999999, \"to\": 2, \"amount\": 1}"
+    })
+    @DisplayName("cannot make transfer with malformed request")
+    void makeMalformedTransfer(String json) throws Exception {
+      Response<TransferJson> rs = api.makeTransfer(RequestBody.create(JSON, json)).execute();
+
+      assertBadRequest(rs);
+    }
+
     @ParameterizedTest(name = "transfer {2} from {0} to {1} -> expect {3} and {4}")
     @CsvSource({
         "10, 0, 0.5, 9.5, 0.5",
@@ -704,6 +808,560 @@ class MoneyTransferApiTest {
     }
   }
 
+  @Nested
+  class IdempotentTransfers {
+
+    @Test
+    @DisplayName("retried transfer is made once & answered with the first one")
+    void retried() throws Exception {
+      long a = createAccount(BigDecimal.TEN);
+      long b = createAccount(BigDecimal.ZERO);
+      MakeTransferRequest rq = new MakeTransferRequest(a, b, new BigDecimal(3));
+
+      Response<TransferJson> first = api.makeTransfer("key-1", rq).execute();
+      Response<TransferJson> retried = api.makeTransfer("key-1", rq).execute();
+      Response<TransferJson> other = api.makeTransfer("key-2", rq).execute();
+
+      assertOk(first);
+      assertOk(retried);
+      assertOk(other);
+      assertThat(retried.body()).isEqualToComparingFieldByField(first.body());
+      assertThat(other.body().id).isNotEqualTo(first.body().id);
+      assertThat(api.transfers().execute().body()).hasSize(2);
+      assertThat(api.account(a).execute().body().balance).isEqualByComparingTo("4");
+    }
+
+    @Test
+    @DisplayName("concurrent requests with the same key make single transfer")
+    void concurrent() throws Exception {
+      long a = createAccount(BigDecimal.TEN);
+      long b = createAccount(BigDecimal.ZERO);
+      MakeTransferRequest rq = new MakeTransferRequest(a, b, BigDecimal.ONE);
+
+      List<Response<TransferJson>> rss = IntStream.range(0, 20)
+          .mapToObj(i -> CompletableFuture.supplyAsync(() -> exec(api.makeTransfer("key", rq)), executor))
+          .collect(joinList())
+          .get(1, MINUTES);
+
+      assertThat(rss)
+          .extracting(Response::code)
+          .allMatch(code -> code == HttpStatus.OK_200 || code == HttpStatus.CONFLICT_409)
+          .contains(HttpStatus.OK_200);
+      assertThat(api.transfers().execute().body()).hasSize(1);
+      assertThat(api.account(a).execute().body().balance).isEqualByComparingTo("9");
+    }
+
+    @Test
+    @DisplayName("bad request when key is used by other transfer")
+    void reused() throws Exception {
+      long a = createAccount(BigDecimal.TEN);
+      long b = createAccount(BigDecimal.ZERO);
+      assertOk(api.makeTransfer("key", new MakeTransferRequest(a, b, BigDecimal.ONE)).execute());
+
+      Response<TransferJson> rs = api.makeTransfer("key", new MakeTransferRequest(a, b, BigDecimal.TEN)).execute();
+
+      assertBadRequest(rs);
+      assertThat(api.account(a).execute().body().balance).isEqualByComparingTo("9");
+    }
+
+    @Test
+    @DisplayName("key of failed transfer can be used again")
+    void failed() throws Exception {
+      long a = createAccount(BigDecimal.TEN);
+      long b = createAccount(BigDecimal.ZERO);
+
+      assertNotFound(api.makeTransfer("key", new MakeTransferRequest(a, 9000L, BigDecimal.ONE)).execute());
+      Response<TransferJson> rs = api.makeTransfer("key", new MakeTransferRequest(a, b, BigDecimal.ONE)).execute();
+
+      assertOk(rs);
+      assertThat(api.account(b).execute().body().balance).isEqualByComparingTo("1");
+    }
+
+    @Test
+    @DisplayName("key of transfer with unknown outcome is kept claimed until it expires")
+    void unknownOutcome() throws Exception {
+      long a = createAccount(BigDecimal.TEN);
+      long b = createAccount(BigDecimal.ZERO);
+      MakeTransferRequest rq = new MakeTransferRequest(a, b, BigDecimal.ONE);
+      claimKey("claimed", Instant.now());
+      claimKey("expired", Instant.now().minus(Duration.ofDays(2)));
+
+      Response<TransferJson> claimed = api.makeTransfer("claimed", rq).execute();
+      Response<TransferJson> expired = api.makeTransfer("expired", rq).execute();
+
+      assertThat(claimed.code()).isEqualTo(HttpStatus.CONFLICT_409);
+      assertOk(expired);
+      assertThat(api.account(b).execute().body().balance).isEqualByComparingTo("1");
+    }
+
+    @Test
+    @DisplayName("bad request when key is malformed")
+    void malformedKey() throws Exception {
+      long a = createAccount(BigDecimal.TEN);
+      long b = createAccount(BigDecimal.ZERO);
+      MakeTransferRequest rq = new MakeTransferRequest(a, b, BigDecimal.ONE);
+
+      assertBadRequest(api.makeTransfer("", rq).execute());
+      assertBadRequest(api.makeTransfer(String.join("", Collections.nCopies(256, "k")), rq).execute());
+      assertThat(api.transfers().execute().body()).isEmpty();
+    }
+
+    private long createAccount(BigDecimal balance) {
+      return exec(api.createAccount(new CreateAccountRequest(balance))).body().id;
+    }
+
+    private void claimKey(String key, Instant claimedAt) {
+      try (DSLContext jooq = DSL.using("jdbc:h2:mem:revolut;DB_CLOSE_DELAY=-1", "sa", "")) {
+        jooq.insertInto(IDEMPOTENCY_KEYS)
+            .set(IDEMPOTENCY_KEYS.IDEMPOTENCY_KEY, key)
+            .set(IDEMPOTENCY_KEYS.CLAIMED_AT, Timestamp.from(claimedAt))
+            .execute();
+      }
+    }
+  }
+
+  @Nested
+  class BatchTransfers {
+
+    @Test
+    @DisplayName("best effort batch makes every valid transfer")
+    void bestEffort() throws Exception {
+      // Given
+      long a = createAccount(BigDecimal.TEN);
+      long b = createAccount(BigDecimal.ZERO);
+      ImmutableList<MakeTransferRequest> rqs = ImmutableList.of(
+          new MakeTransferRequest(a, b, new BigDecimal(3)),
+          new MakeTransferRequest(a, 9000L, BigDecimal.ONE),
+          new MakeTransferRequest(a, b, new BigDecimal(8)),
+          new MakeTransferRequest(a, a, BigDecimal.ONE),
+          new MakeTransferRequest(b, a, new BigDecimal(2))
+      );
+
+      // When
+      Response<List<BatchItemJson>> rs = api.makeTransfers(rqs, false).execute();
+
+      // Then
+      assertOk(rs);
+      assertThat(rs.body())
+          .extracting(item -> item.status)
+          .containsExactly(200, 404, 400, 400, 200);
+      assertThat(rs.body().get(0).transfer.amount).isEqualByComparingTo("3");
+      assertThat(rs.body().get(1).message).isNotEmpty();
+      assertThat(api.transfers().execute().body()).hasSize(2);
+      assertThat(api.account(a).execute().body().balance).isEqualByComparingTo("9");
+      assertThat(api.account(b).execute().body().balance).isEqualByComparingTo("1");
+    }
+
+    @Test
+    @DisplayName("atomic batch is made completely")
+    void atomic() throws Exception {
+      // Given
+      long a = createAccount(BigDecimal.TEN);
+      long b = createAccount(BigDecimal.ZERO);
+      long c = createAccount(BigDecimal.ZERO);
+      ImmutableList<MakeTransferRequest> rqs = ImmutableList.of(
+          new MakeTransferRequest(a, b, new BigDecimal(10)),
+          new MakeTransferRequest(b, c, new BigDecimal(4))
+      );
+
+      // When
+      Response<List<BatchItemJson>> rs = api.makeTransfers(rqs, true).execute();
+
+      // Then
+      assertOk(rs);
+      assertThat(rs.body())
+          .extracting(item -> item.status)
+          .containsExactly(200, 200);
+      assertThat(api.account(a).execute().body().balance).isEqualByComparingTo("0");
+      assertThat(api.account(b).execute().body().balance).isEqualByComparingTo("6");
+      assertThat(api.account(c).execute().body().balance).isEqualByComparingTo("4");
+    }
+
+    @ParameterizedTest(name = "failing transfer: {0}")
+    @CsvSource({"not enough money, 11", "bad amount, 0.001"})
+    @DisplayName("atomic batch is rolled back when any transfer fails")
+    void atomicRollback(String reason, BigDecimal amount) throws Exception {
+      // Given
+      long a = createAccount(BigDecimal.TEN);
+      long b = createAccount(BigDecimal.ZERO);
+      ImmutableList<MakeTransferRequest> rqs = ImmutableList.of(
+          new MakeTransferRequest(a, b, BigDecimal.ONE),
+          new MakeTransferRequest(b, a, amount)
+      );
+
+      // When
+      Response<List<BatchItemJson>> rs = api.makeTransfers(rqs, true).execute();
+
+      // Then
+      assertOk(rs);
+      assertThat(rs.body())
+          .extracting(item -> item.status)
+          .containsExactly(409, 400);
+      assertThat(api.transfers().execute().body()).isEmpty();
+      assertThat(api.account(a).execute().body().balance).isEqualByComparingTo("10");
+      assertThat(api.account(b).execute().body().balance).isEqualByComparingTo("0");
+    }
+
+    @Test
+    @DisplayName("bad request when any transfer is malformed")
+    void malformedBatch() throws Exception {
+      long a = createAccount(BigDecimal.TEN);
+      ImmutableList<MakeTransferRequest> rqs = ImmutableList.of(
+          new MakeTransferRequest(a, null, BigDecimal.ONE)
+      );
+
+      Response<List<BatchItemJson>> rs = api.makeTransfers(rqs, false).execute();
+
+      assertBadRequest(rs);
+    }
+
+    private long createAccount(BigDecimal balance) {
+      return exec(api.createAccount(new CreateAccountRequest(balance))).body().id;
+    }
+  }
+
+  @Nested
+  class AccountPages {
+
+    @Test
+    @DisplayName("pages are ordered by id and follow each other")
+    void pages() throws Exception {
+      // Given
+      List<AccountJson> all = createAccounts(3);
+
+      // When
+      Response<List<AccountJson>> first = api.accounts("2", null).execute();
+      Response<List<AccountJson>> second = api.accounts("2", lastId(first)).execute();
+      Response<List<AccountJson>> third = api.accounts("2", lastId(second)).execute();
+
+      // Then
+      assertOk(first);
+      assertOk(second);
+      assertOk(third);
+      assertThat(first.body()).usingFieldByFieldElementComparator().containsExactlyElementsOf(all.subList(0, 2));
+      assertThat(second.body()).usingFieldByFieldElementComparator().containsExactlyElementsOf(all.subList(2, 3));
+      assertThat(third.body()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("all accounts after cursor are streamed when there is no limit")
+    void streamAfter() throws Exception {
+      // Given
+      List<AccountJson> all = createAccounts(3);
+
+      // When
+      Response<List<AccountJson>> tail = api.accounts(null, String.valueOf(all.get(0).id)).execute();
+
+      // Then
+      assertOk(tail);
+      assertThat(tail.body()).usingFieldByFieldElementComparator().containsExactlyElementsOf(all.subList(1, 3));
+    }
+
+    @Test
+    @DisplayName("accounts are exported as newline delimited JSON")
+    void export() throws Exception {
+      // Given
+      List<AccountJson> all = createAccounts(3);
+
+      // When
+      Response<ResponseBody> rs = api.exportAccounts("application/x-ndjson", null).execute();
+
+      // Then
+      assertThat(rs.code()).isEqualTo(HttpStatus.OK_200);
+      assertThat(rs.headers().get("Content-Type")).isEqualTo("application/x-ndjson");
+      String expected = all.stream()
+          .map(a -> "{\"id\":" + a.id + ",\"createdAt\":\"" + a.createdAt + "\",\"balance\":" + a.balance + "}\n")
+          .collect(joining());
+      assertThat(rs.body().string()).isEqualTo(expected);
+    }
+
+    @ParameterizedTest(name = "limit={0}, after={1}")
+    @CsvSource({"0,", "1001,", "abc,", ", abc"})
+    @DisplayName("bad request when page parameters are malformed")
+    void badPage(String limit, String after) throws Exception {
+      Response<List<AccountJson>> rs = api.accounts(limit, after).execute();
+
+      assertBadRequest(rs);
+    }
+
+    private List<AccountJson> createAccounts(int count) {
+      return IntStream.range(0, count)
+          .mapToObj(i -> exec(api.createAccount(new CreateAccountRequest(new BigDecimal(i)))).body())
+          .collect(toList());
+    }
+
+    private String lastId(Response<List<AccountJson>> page) {
+      return String.valueOf(Iterables.getLast(page.body()).id);
+    }
+  }
+
+  @Nested
+  class TransferPages {
+
+    @Test
+    @DisplayName("pages are ordered by id and follow each other")
+    void pages() throws Exception {
+      // Given
+      List<TransferJson> all = makeTransfers(5);
+
+      // When
+      Response<List<TransferJson>> first = api.transfers("2", null).execute();
+      Response<List<TransferJson>> second = api.transfers("2", lastId(first)).execute();
+      Response<List<TransferJson>> third = api.transfers("2", lastId(second)).execute();
+      Response<List<TransferJson>> fourth = api.transfers("2", lastId(third)).execute();
+
+      // Then
+      assertOk(first);
+      assertOk(second);
+      assertOk(third);
+      assertOk(fourth);
+      assertThat(first.body()).usingFieldByFieldElementComparator().containsExactlyElementsOf(all.subList(0, 2));
+      assertThat(second.body()).usingFieldByFieldElementComparator().containsExactlyElementsOf(all.subList(2, 4));
+      assertThat(third.body()).usingFieldByFieldElementComparator().containsExactlyElementsOf(all.subList(4, 5));
+      assertThat(fourth.body()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("all transfers after cursor are streamed when there is no limit")
+    void streamAfter() throws Exception {
+      // Given
+      List<TransferJson> all = makeTransfers(5);
+
+      // When
+      Response<List<TransferJson>> streamed = api.transfers(null, null).execute();
+      Response<List<TransferJson>> tail = api.transfers(null, String.valueOf(all.get(2).id)).execute();
+
+      // Then
+      assertOk(streamed);
+      assertOk(tail);
+      assertThat(streamed.body()).usingFieldByFieldElementComparator().containsExactlyElementsOf(all);
+      assertThat(tail.body()).usingFieldByFieldElementComparator().containsExactlyElementsOf(all.subList(3, 5));
+    }
+
+    @ParameterizedTest(name = "limit={0}, after={1}")
+    @CsvSource({"0,", "1001,", "-1,", "abc,", "10, abc", ", abc"})
+    @DisplayName("bad request when page parameters are malformed")
+    void badPage(String limit, String after) throws Exception {
+      Response<List<TransferJson>> rs = api.transfers(limit, after).execute();
+
+      assertBadRequest(rs);
+    }
+
+    private List<TransferJson> makeTransfers(int count) {
+      long a = exec(api.createAccount(new CreateAccountRequest(new BigDecimal(100)))).body().id;
+      long b = exec(api.createAccount(new CreateAccountRequest(new BigDecimal(100)))).body().id;
+      return IntStream.range(0, count)
+          .mapToObj(i -> exec(api.makeTransfer(new MakeTransferRequest(a, b, BigDecimal.ONE))).body())
+          .collect(toList());
+    }
+
+    private String lastId(Response<List<TransferJson>> page) {
+      return String.valueOf(Iterables.getLast(page.body()).id);
+    }
+  }
+
+  @Nested
+  class AccountTransferPages {
+
+    @Test
+    @DisplayName("pages are ordered from the most recent transfer and follow each other")
+    void pages() throws Exception {
+      // Given
+      long a = createAccount(new BigDecimal(100));
+      long b = createAccount(new BigDecimal(100));
+      long c = createAccount(new BigDecimal(100));
+      List<TransferJson> made = Stream.of(
+          new MakeTransferRequest(a, b, BigDecimal.ONE),
+          new MakeTransferRequest(b, a, BigDecimal.ONE),
+          new MakeTransferRequest(b, c, BigDecimal.ONE),
+          new MakeTransferRequest(a, c, BigDecimal.ONE),
+          new MakeTransferRequest(c, a, BigDecimal.ONE)
+      )
+          .map(rq -> exec(api.makeTransfer(rq)).body())
+          .collect(toList());
+      List<TransferJson> expected = Lists.reverse(ImmutableList.of(
+          made.get(0), made.get(1), made.get(3), made.get(4)
+      ));
+
+      // When
+      Response<List<TransferJson>> first = api.accountTransfers(a, "3", null).execute();
+      Response<List<TransferJson>> second = api.accountTransfers(a, "3", lastId(first)).execute();
+      Response<List<TransferJson>> third = api.accountTransfers(a, "3", lastId(second)).execute();
+
+      // Then
+      assertOk(first);
+      assertOk(second);
+      assertOk(third);
+      assertThat(first.body()).usingFieldByFieldElementComparator().containsExactlyElementsOf(expected.subList(0, 3));
+      assertThat(second.body()).usingFieldByFieldElementComparator().containsExactlyElementsOf(expected.subList(3, 4));
+      assertThat(third.body()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("404 when get page of transfers from unknown account")
+    void unknownAccount() throws Exception {
+      Response<List<TransferJson>> rs = api.accountTransfers(123456, "10", null).execute();
+
+      assertNotFound(rs);
+    }
+
+    @ParameterizedTest(name = "limit={0}, before={1}")
+    @CsvSource({"0,", "1001,", "abc,", ", abc"})
+    @DisplayName("bad request when page parameters are malformed")
+    void badPage(String limit, String before) throws Exception {
+      long a = createAccount(BigDecimal.ONE);
+
+      Response<List<TransferJson>> rs = api.accountTransfers(a, limit, before).execute();
+
+      assertBadRequest(rs);
+    }
+
+    private long createAccount(BigDecimal balance) {
+      return exec(api.createAccount(new CreateAccountRequest(balance))).body().id;
+    }
+
+    private String lastId(Response<List<TransferJson>> page) {
+      return String.valueOf(Iterables.getLast(page.body()).id);
+    }
+  }
+
+  @Nested
+  class TransferStream {
+
+    private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    @DisplayName("committed transfers are pushed to subscriber")
+    void newTransfers() throws Exception {
+      long a = createAccount(BigDecimal.TEN);
+      long b = createAccount(BigDecimal.TEN);
+
+      Response<ResponseBody> rs = api.transferStream(null).execute();
+      assertThat(rs.code()).isEqualTo(HttpStatus.OK_200);
+      assertThat(rs.headers().get("Content-Type")).startsWith("text/event-stream");
+
+      try (BufferedSource events = rs.body().source()) {
+        TransferJson first = exec(api.makeTransfer(new MakeTransferRequest(a, b, BigDecimal.ONE))).body();
+        TransferJson second = exec(api.makeTransfers(
+            ImmutableList.of(new MakeTransferRequest(b, a, new BigDecimal(2))),
+            true
+        )).body().get(0).transfer;
+
+        assertThat(nextEvent(events)).isEqualToComparingFieldByField(first);
+        assertThat(nextEvent(events)).isEqualToComparingFieldByField(second);
+      }
+    }
+
+    @Test
+    @DisplayName("subscriber resumes after the last transfer it has got")
+    void resume() throws Exception {
+      long a = createAccount(BigDecimal.TEN);
+      long b = createAccount(BigDecimal.TEN);
+      TransferJson first = exec(api.makeTransfer(new MakeTransferRequest(a, b, BigDecimal.ONE))).body();
+      TransferJson second = exec(api.makeTransfer(new MakeTransferRequest(a, b, new BigDecimal(2)))).body();
+
+      Response<ResponseBody> rs = api.transferStream(String.valueOf(first.id)).execute();
+      assertThat(rs.code()).isEqualTo(HttpStatus.OK_200);
+
+      try (BufferedSource events = rs.body().source()) {
+        TransferJson third = exec(api.makeTransfer(new MakeTransferRequest(b, a, new BigDecimal(3)))).body();
+
+        assertThat(nextEvent(events)).isEqualToComparingFieldByField(second);
+        assertThat(nextEvent(events)).isEqualToComparingFieldByField(third);
+      }
+    }
+
+    @Test
+    @DisplayName("bad request when last event id is malformed")
+    void badLastEventId() throws Exception {
+      Response<ResponseBody> rs = api.transferStream("bad").execute();
+
+      assertBadRequest(rs);
+    }
+
+    private TransferJson nextEvent(BufferedSource events) throws IOException {
+      String id = null;
+      String data = null;
+      while (data == null) {
+        String line;
+        while (!(line = events.readUtf8LineStrict()).isEmpty()) {
+          if (line.startsWith("id: ")) {
+            id = line.substring("id: ".length());
+          } else if (line.startsWith("data: ")) {
+            data = line.substring("data: ".length());
+          }
+        }
+      }
+      TransferJson transfer = mapper.readValue(data, TransferJson.class);
+      assertThat(id).isEqualTo(String.valueOf(transfer.id));
+      return transfer;
+    }
+
+    private long createAccount(BigDecimal balance) {
+      return exec(api.createAccount(new CreateAccountRequest(balance))).body().id;
+    }
+  }
+
+  @Nested
+  class Metrics {
+
+    @Test
+    @DisplayName("transfer outcomes, routes & connection pool are exposed in Prometheus format")
+    void metrics() throws Exception {
+      // Given
+      long a = exec(api.createAccount(new CreateAccountRequest(BigDecimal.TEN))).body().id;
+      long b = exec(api.createAccount(new CreateAccountRequest(BigDecimal.TEN))).body().id;
+      exec(api.makeTransfer(new MakeTransferRequest(a, b, BigDecimal.ONE)));
+      exec(api.makeTransfer(new MakeTransferRequest(a, b, new BigDecimal(100))));
+      exec(api.account(a));
+
+      // When
+      Response<ResponseBody> rs = api.metrics().execute();
+
+      // Then
+      assertThat(rs.code()).isEqualTo(HttpStatus.OK_200);
+      assertThat(rs.headers().get("Content-Type")).startsWith("text/plain");
+      assertThat(rs.body().string())
+          .contains("transfers_total{outcome=\"ok\",} 1.0")
+          .contains("transfers_total{outcome=\"not_enough_money\",} 1.0")
+          .contains("transfers_transaction_seconds_count{mode=\"JDBC\",} 2.0")
+          .contains("http_server_requests_seconds_count{method=\"POST\",route=\"/transfers\",status=\"200\",}")
+          .contains("hikaricp_connections_active{pool=\"revolut\",}")
+          .contains("cache_gets_total{cache=\"accounts\",result=\"miss\",}");
+    }
+  }
+
+  @Nested
+  class Persistence {
+
+    @Test
+    @DisplayName("file storage keeps accounts & transfers after restart")
+    void restart(@TempDir File dir) throws Exception {
+      // Given
+      server.stop();
+      Config config = Config.of(ImmutableMap.of(
+          "db.h2.storage", "file",
+          "db.h2.dir", dir.getPath(),
+          "db.h2.write-delay", "0s"
+      ));
+      server = new MoneyTransferServer(TransferMode.JDBC, config);
+      server.start();
+      long a = exec(api.createAccount(new CreateAccountRequest(BigDecimal.TEN))).body().id;
+      long b = exec(api.createAccount(new CreateAccountRequest(BigDecimal.ZERO))).body().id;
+      TransferJson transfer = exec(api.makeTransfer(new MakeTransferRequest(a, b, BigDecimal.ONE))).body();
+
+      // When
+      server.stop();
+      server = new MoneyTransferServer(TransferMode.JDBC, config);
+      server.start();
+
+      // Then
+      assertThat(exec(api.account(a)).body().balance).isEqualByComparingTo("9");
+      assertThat(exec(api.account(b)).body().balance).isEqualByComparingTo("1");
+      assertThat(exec(api.transfer(transfer.id)).body()).isEqualToComparingFieldByField(transfer);
+    }
+  }
+
   private static void assertOk(Response<?> response) {
     assertApplicationJson(response);
     assertThat(response.code()).isEqualTo(HttpStatus.OK_200);
@@ -733,11 +1391,23 @@ class MoneyTransferApiTest {
     }
   }
 
+  private static String databaseEpoch() {
+    try (DSLContext jooq = DSL.using("jdbc:h2:mem:revolut;DB_CLOSE_DELAY=-1", "sa", "")) {
+      return jooq.fetchValue(DATABASE_EPOCH.EPOCH);
+    }
+  }
+
   public interface Api {
 
     @GET("accounts")
     Call<List<AccountJson>> accounts();
 
+    @GET("accounts")
+    Call<List<AccountJson>> accounts(@Query("limit") String limit, @Query("after") String after);
+
+    @GET("accounts")
+    Call<ResponseBody> exportAccounts(@Header("Accept") String accept, @Query("after") String after);
+
     @POST("accounts")
     Call<AccountJson> createAccount(@Body CreateAccountRequest rq);
 
@@ -750,24 +1420,62 @@ class MoneyTransferApiTest {
     @GET("accounts/{id}")
     Call<AccountJson> account(@Path("id") long id);
 
+    @GET("accounts/{id}")
+    Call<AccountJson> account(@Path("id") long id, @Header("If-None-Match") String ifNoneMatch);
+
     @GET("accounts/{id}/transfers")
     Call<List<TransferJson>> accountTransfers(@Path("id") long id);
 
+    @GET("accounts/{id}/transfers")
+    Call<List<TransferJson>> accountTransfers(@Path("id") long id, @Header("If-None-Match") String ifNoneMatch);
+
+    @GET("accounts/{id}/transfers")
+    Call<List<TransferJson>> accountTransfers(
+        @Path("id") long id,
+        @Query("limit") String limit,
+        @Query("before") String before
+    );
+
     @GET("transfers")
     Call<List<TransferJson>> transfers();
 
+    @GET("transfers")
+    Call<List<TransferJson>> transfers(@Query("limit") String limit, @Query("after") String after);
+
     @POST("transfers")
     Call<TransferJson> makeTransfer(@Body MakeTransferRequest rq);
 
     @POST("transfers")
     Call<TransferJson> makeTransfer(@Body BadMakeTransferRequest rq);
 
+    @POST("transfers")
+    Call<TransferJson> makeTransfer(@Body RequestBody rq);
+
+    @POST("transfers")
+    Call<TransferJson> makeTransfer(@Header("Idempotency-Key") String key, @Body MakeTransferRequest rq);
+
+    @POST("transfers/batch")
+    Call<List<BatchItemJson>> makeTransfers(
+        @Body List<MakeTransferRequest> rqs,
+        @Query("atomic") boolean atomic
+    );
+
     @GET("transfers/{id}")
     Call<TransferJson> transfer(@Path("id") String id);
 
     @GET("transfers/{id}")
     Call<TransferJson> transfer(@Path("id") long id);
 
+    @GET("transfers/{id}")
+    Call<TransferJson> transfer(@Path("id") long id, @Header("If-None-Match") String ifNoneMatch);
+
+    @Streaming
+    @GET("transfers/stream")
+    Call<ResponseBody> transferStream(@Header("Last-Event-ID") String lastEventId);
+
+    @GET("/metrics")
+    Call<ResponseBody> metrics();
+
   }
 
   static class BadCreateAccountRequest {
@@ -827,6 +1535,22 @@ class MoneyTransferApiTest {
     }
   }
 
+  static class BatchItemJson {
+
+    public int status;
+    public TransferJson transfer;
+    public String message;
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("status", status)
+          .add("transfer", transfer)
+          .add("message", message)
+          .toString();
+    }
+  }
+
   private static Api createApi() {
     return new Retrofit.Builder()
         .baseUrl("http://localhost:8080/api/v1/")
@@ -0,0 +1,371 @@
+package revolut.backendtest;
+
+import static com.spotify.futures.CompletableFutures.joinList;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static revolut.backendtest.persistence.jooq.codegen.tables.Accounts.ACCOUNTS;
+import static revolut.backendtest.persistence.jooq.codegen.tables.IdempotencyKeys.IDEMPOTENCY_KEYS;
+import static revolut.backendtest.persistence.jooq.codegen.tables.Transfers.TRANSFERS;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.eclipse.jetty.http.HttpStatus;
+import org.jooq.DSLContext;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.slf4j.LoggerFactory;
+import retrofit2.Call;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.converter.jackson.JacksonConverterFactory;
+import revolut.backendtest.MoneyTransferApiTest.AccountJson;
+import revolut.backendtest.MoneyTransferApiTest.Api;
+import revolut.backendtest.MoneyTransferApiTest.BatchItemJson;
+import revolut.backendtest.MoneyTransferApiTest.TransferJson;
+import revolut.backendtest.api.dto.CreateAccountRequest;
+import revolut.backendtest.api.dto.MakeTransferRequest;
+import revolut.backendtest.config.Config;
+import revolut.backendtest.model.Money;
+import revolut.backendtest.persistence.jdbc.DatabaseType;
+import revolut.backendtest.service.TransferMode;
+
+/**
+ * Same money invariants as in {@link MoneyTransferApiTest}, but checked for every transfer mode
+ * on top of every database.
+ *
+ * <p>Postgres is embedded, it refuses to run as root, so its tests are skipped then.
+ */
+class TransferModesTest {
+
+  private static final int CONTENDED_ACCOUNTS = 6;
+  private static final int CONCURRENT_TRANSFERS = 4000;
+  private static final int CLIENTS = 32;
+
+  /**
+   * Modes updating accounts without locking them first, which are refused by H2 MVStore.
+   */
+  private static final Set<TransferMode> PAGE_STORE_MODES = EnumSet.of(TransferMode.OPTIMISTIC, TransferMode.PROCEDURE);
+
+  private static EmbeddedPostgres postgres;
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(CLIENTS);
+  private final Api api = createApi();
+
+  private MoneyTransferServer server;
+
+  @BeforeAll
+  static void startPostgres() {
+    try {
+      postgres = EmbeddedPostgres.start();
+    } catch (IOException | RuntimeException ex) {
+      LoggerFactory.getLogger(TransferModesTest.class).warn("Embedded Postgres is unavailable", ex);
+    }
+  }
+
+  @AfterAll
+  static void stopPostgres() throws IOException {
+    if (postgres != null) {
+      postgres.close();
+    }
+  }
+
+  static Stream<Arguments> modes() {
+    return Arrays.stream(DatabaseType.values())
+        .flatMap(database -> Arrays.stream(TransferMode.values()).map(mode -> Arguments.of(database, mode)));
+  }
+
+  private void start(DatabaseType database, TransferMode mode) throws Exception {
+    if (database == DatabaseType.H2) {
+      // page store is kept in another database, since in-memory one outlives the server
+      boolean mvStore = !PAGE_STORE_MODES.contains(mode);
+      String name = mvStore ? "revolut" : "revolut-page-store";
+      server = new MoneyTransferServer(mode, Config.of(ImmutableMap.of(
+          "db.h2.name", name,
+          "db.h2.mv-store", Boolean.toString(mvStore)
+      )));
+      server.start();
+
+      try (DSLContext jooq = DSL.using("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "")) {
+        jooq.deleteFrom(IDEMPOTENCY_KEYS).execute();
+        jooq.deleteFrom(TRANSFERS).execute();
+        jooq.deleteFrom(ACCOUNTS).execute();
+      }
+      return;
+    }
+
+    Assumptions.assumeTrue(postgres != null, "Embedded Postgres is unavailable");
+    server = new MoneyTransferServer(mode, Config.of(ImmutableMap.of(
+        "db.type", "postgres",
+        "db.url", postgres.getJdbcUrl("postgres", "postgres"),
+        "db.user", "postgres"
+    )));
+    server.start();
+
+    try (Connection connection = postgres.getPostgresDatabase().getConnection()) {
+      DSL.using(connection, SQLDialect.POSTGRES).execute("TRUNCATE idempotency_keys, transfers, accounts");
+    }
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+    if (server != null) {
+      server.stop();
+    }
+  }
+
+  @ParameterizedTest(name = "{0} {1}")
+  @MethodSource("modes")
+  @DisplayName("committed transfer is visible right after response")
+  void readYourWrites(DatabaseType database, TransferMode mode) throws Exception {
+    start(database, mode);
+    long from = createAccount(BigDecimal.TEN);
+    long to = createAccount(BigDecimal.ZERO);
+
+    Response<TransferJson> rs = api.makeTransfer(
+        new MakeTransferRequest(from, to, new BigDecimal("2.50"))
+    ).execute();
+
+    assertThat(rs.code()).isEqualTo(HttpStatus.OK_200);
+    Response<TransferJson> transferRs = api.transfer(rs.body().id).execute();
+    assertThat(transferRs.body()).isEqualToComparingFieldByField(rs.body());
+    // ids of in-memory database start over on restart
+    assertThat(transferRs.headers().get("Cache-Control"))
+        .isEqualTo(database == DatabaseType.H2 ? "no-cache" : "public, max-age=31536000, immutable");
+    assertThat(api.accountTransfers(from, "10", null).execute().body())
+        .extracting(transfer -> transfer.id)
+        .containsExactly(rs.body().id);
+    assertThat(balance(from)).isEqualByComparingTo("7.50");
+    assertThat(balance(to)).isEqualByComparingTo("2.50");
+  }
+
+  @ParameterizedTest(name = "{0} {1}")
+  @MethodSource("modes")
+  @DisplayName("unknown accounts & missing money are rejected")
+  void businessErrors(DatabaseType database, TransferMode mode) throws Exception {
+    start(database, mode);
+    long id = createAccount(BigDecimal.TEN);
+    long other = createAccount(BigDecimal.TEN);
+
+    assertThat(api.makeTransfer(new MakeTransferRequest(1337L, id, BigDecimal.ONE)).execute().code())
+        .isEqualTo(HttpStatus.NOT_FOUND_404);
+    assertThat(api.makeTransfer(new MakeTransferRequest(id, 9000L, BigDecimal.ONE)).execute().code())
+        .isEqualTo(HttpStatus.NOT_FOUND_404);
+    assertThat(api.makeTransfer(new MakeTransferRequest(id, other, new BigDecimal("10.01"))).execute().code())
+        .isEqualTo(HttpStatus.BAD_REQUEST_400);
+    assertThat(api.transfers().execute().body()).isEmpty();
+  }
+
+  @ParameterizedTest(name = "{0} {1}")
+  @MethodSource("modes")
+  @DisplayName("from account is checked before to account, whatever their order")
+  void errorPrecedence(DatabaseType database, TransferMode mode) throws Exception {
+    start(database, mode);
+    long id = createAccount(BigDecimal.TEN);
+    long missing = Long.MAX_VALUE;
+    // ids start from 1
+    long missingBefore = 0;
+
+    assertThat(api.makeTransfer(new MakeTransferRequest(id, missingBefore, new BigDecimal("10.01"))).execute().code())
+        .isEqualTo(HttpStatus.BAD_REQUEST_400);
+    assertThat(api.makeTransfer(new MakeTransferRequest(id, missing, new BigDecimal("10.01"))).execute().code())
+        .isEqualTo(HttpStatus.BAD_REQUEST_400);
+    Response<TransferJson> bothMissing = api.makeTransfer(
+        new MakeTransferRequest(missing, missingBefore, BigDecimal.ONE)
+    ).execute();
+    assertThat(bothMissing.code()).isEqualTo(HttpStatus.NOT_FOUND_404);
+    assertThat(bothMissing.errorBody().string()).contains("id=" + missing);
+    assertThat(api.makeTransfer(new MakeTransferRequest(id, missingBefore, BigDecimal.ONE)).execute().code())
+        .isEqualTo(HttpStatus.NOT_FOUND_404);
+    assertThat(balance(id)).isEqualByComparingTo("10");
+    assertThat(api.transfers().execute().body()).isEmpty();
+  }
+
+  @ParameterizedTest(name = "{0} {1}")
+  @MethodSource("modes")
+  @DisplayName("balance never goes above max amount, whatever order of accounts")
+  void balanceLimit(DatabaseType database, TransferMode mode) throws Exception {
+    start(database, mode);
+    BigDecimal max = Money.MAX.toBigDecimal();
+    long before = createAccount(BigDecimal.TEN);
+    long full = createAccount(max);
+    long after = createAccount(BigDecimal.TEN);
+
+    assertThat(api.makeTransfer(new MakeTransferRequest(before, full, BigDecimal.ONE)).execute().code())
+        .isEqualTo(HttpStatus.BAD_REQUEST_400);
+    assertThat(api.makeTransfer(new MakeTransferRequest(after, full, new BigDecimal("0.01"))).execute().code())
+        .isEqualTo(HttpStatus.BAD_REQUEST_400);
+    assertThat(api.makeTransfer(new MakeTransferRequest(full, after, BigDecimal.ONE)).execute().code())
+        .isEqualTo(HttpStatus.OK_200);
+    assertThat(api.makeTransfer(new MakeTransferRequest(before, full, BigDecimal.ONE)).execute().code())
+        .isEqualTo(HttpStatus.OK_200);
+    assertThat(balance(full)).isEqualByComparingTo(max);
+    assertThat(balance(before)).isEqualByComparingTo("9");
+    assertThat(balance(after)).isEqualByComparingTo("11");
+  }
+
+  @ParameterizedTest(name = "{0} {1}")
+  @MethodSource("modes")
+  @DisplayName("balance never goes below zero, money is not lost & balances match committed transfers")
+  void concurrentTransfers(DatabaseType database, TransferMode mode) throws Exception {
+    start(database, mode);
+    BigDecimal initial = new BigDecimal(100);
+    long[] accounts = IntStream.range(0, CONTENDED_ACCOUNTS).mapToLong(i -> createAccount(initial)).toArray();
+
+    List<Response<TransferJson>> rss = IntStream.range(0, CONCURRENT_TRANSFERS)
+        .mapToObj(i -> {
+          ThreadLocalRandom random = ThreadLocalRandom.current();
+          int from = random.nextInt(accounts.length);
+          // any other account, so transfers are made in both directions between every pair
+          int to = (from + 1 + random.nextInt(accounts.length - 1)) % accounts.length;
+          return new MakeTransferRequest(accounts[from], accounts[to], randomAmount());
+        })
+        .map(rq -> CompletableFuture.supplyAsync(() -> exec(api.makeTransfer(rq)), executor))
+        .collect(joinList())
+        .get(2, MINUTES);
+
+    assertThat(rss)
+        .extracting(Response::code)
+        .allMatch(code -> code < 500);
+
+    List<TransferJson> transfers = api.transfers().execute().body();
+    assertThat(transfers).hasSize((int) rss.stream().filter(Response::isSuccessful).count());
+
+    BigDecimal total = BigDecimal.ZERO;
+    for (long account : accounts) {
+      BigDecimal balance = balance(account);
+      BigDecimal credits = sumOf(transfers, transfer -> transfer.to == account);
+      BigDecimal debits = sumOf(transfers, transfer -> transfer.from == account);
+      assertThat(balance).as("balance of account %d", account)
+          .isNotNegative()
+          .isEqualByComparingTo(initial.add(credits).subtract(debits));
+      total = total.add(balance);
+    }
+    assertThat(total).isEqualByComparingTo(initial.multiply(new BigDecimal(accounts.length)));
+  }
+
+  @ParameterizedTest(name = "{0} {1}")
+  @MethodSource("modes")
+  @DisplayName("batches are made either atomically or on best effort basis")
+  void batches(DatabaseType database, TransferMode mode) throws Exception {
+    start(database, mode);
+    long a = createAccount(BigDecimal.TEN);
+    long b = createAccount(BigDecimal.ZERO);
+    ImmutableList<MakeTransferRequest> rqs = ImmutableList.of(
+        new MakeTransferRequest(a, b, new BigDecimal(6)),
+        new MakeTransferRequest(a, b, new BigDecimal(6)),
+        new MakeTransferRequest(b, a, new BigDecimal(1))
+    );
+
+    List<BatchItemJson> atomic = exec(api.makeTransfers(rqs, true)).body();
+    assertThat(atomic).extracting(item -> item.status).containsExactly(409, 400, 409);
+    assertThat(balance(a)).isEqualByComparingTo("10");
+
+    List<BatchItemJson> bestEffort = exec(api.makeTransfers(rqs, false)).body();
+    assertThat(bestEffort).extracting(item -> item.status).containsExactly(200, 400, 200);
+    assertThat(balance(a)).isEqualByComparingTo("5");
+    assertThat(balance(b)).isEqualByComparingTo("5");
+  }
+
+  @ParameterizedTest
+  @EnumSource(value = TransferMode.class, names = {"OPTIMISTIC", "PROCEDURE"})
+  @DisplayName("modes updating accounts without locking them first are refused by H2 MVStore")
+  void mvStoreRefused(TransferMode mode) {
+    server = new MoneyTransferServer(mode, Config.of(ImmutableMap.of("db.h2.mv-store", "true")));
+
+    assertThatThrownBy(server::start)
+        .hasStackTraceContaining(mode + " transfer mode loses concurrent updates")
+        .hasStackTraceContaining("db.h2.mv-store=false");
+    // API is not started
+    assertThatThrownBy(() -> api.transfers().execute()).isInstanceOf(IOException.class);
+  }
+
+  @ParameterizedTest
+  @EnumSource(DatabaseType.class)
+  @DisplayName("retried transfer with the same idempotency key is made once")
+  void idempotentTransfers(DatabaseType database) throws Exception {
+    start(database, TransferMode.JDBC);
+    long a = createAccount(BigDecimal.TEN);
+    long b = createAccount(BigDecimal.ZERO);
+    MakeTransferRequest rq = new MakeTransferRequest(a, b, BigDecimal.ONE);
+
+    List<Response<TransferJson>> rss = IntStream.range(0, 20)
+        .mapToObj(i -> CompletableFuture.supplyAsync(() -> exec(api.makeTransfer("key", rq)), executor))
+        .collect(joinList())
+        .get(1, MINUTES);
+
+    assertThat(rss)
+        .extracting(Response::code)
+        .allMatch(code -> code == HttpStatus.OK_200 || code == HttpStatus.CONFLICT_409);
+    assertThat(exec(api.makeTransfer("key", rq)).code()).isEqualTo(HttpStatus.OK_200);
+    assertThat(api.transfers().execute().body()).hasSize(1);
+    assertThat(balance(a)).isEqualByComparingTo("9");
+  }
+
+  private static BigDecimal randomAmount() {
+    return BigDecimal.valueOf(ThreadLocalRandom.current().nextDouble(1, 2))
+        .setScale(2, RoundingMode.HALF_UP);
+  }
+
+  private static BigDecimal sumOf(List<TransferJson> transfers, Predicate<TransferJson> filter) {
+    return transfers.stream()
+        .filter(filter)
+        .map(transfer -> transfer.amount)
+        .reduce(BigDecimal.ZERO, BigDecimal::add);
+  }
+
+  private long createAccount(BigDecimal balance) {
+    return exec(api.createAccount(new CreateAccountRequest(balance))).body().id;
+  }
+
+  private BigDecimal balance(long id) {
+    AccountJson account = exec(api.account(id)).body();
+    return account.balance;
+  }
+
+  private static <T> Response<T> exec(Call<T> call) {
+    try {
+      return call.execute();
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  private static Api createApi() {
+    return new Retrofit.Builder()
+        .baseUrl("http://localhost:8080/api/v1/")
+        .addConverterFactory(JacksonConverterFactory.create(
+            new ObjectMapper().findAndRegisterModules()
+        ))
+        .build()
+        .create(Api.class);
+  }
+}
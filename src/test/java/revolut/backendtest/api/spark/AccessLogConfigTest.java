@@ -0,0 +1,67 @@
+package revolut.backendtest.api.spark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import revolut.backendtest.config.Config;
+
+class AccessLogConfigTest {
+
+  @Test
+  @DisplayName("by default only money-changing requests are sampled")
+  void defaults() {
+    AccessLogConfig config = AccessLogConfig.defaults();
+
+    assertThat(config.forRoute("GET", "/accounts")).isSameAs(BodyCapture.NONE);
+    assertThat(config.forRoute("POST", "/transfers").sampleRate).isEqualTo(0.01);
+    assertThat(config.forRoute("POST", "/transfers").maxLength).isEqualTo(1024);
+    assertThat(config.forRoute("POST", "/transfers/batch").maxLength).isEqualTo(256);
+  }
+
+  @Test
+  @DisplayName("captures are read by route, others get the default one")
+  void routes() {
+    AccessLogConfig config = AccessLogConfig.from(Config.of(ImmutableMap.of(
+        "access-log.body.sample-rate", "0.5",
+        "access-log.body.max-length", "64",
+        "access-log.body.routes", " GET /accounts/:id  1 16 ,POST /transfers 0 1024,"
+    )));
+
+    assertThat(config.forRoute("GET", "/accounts/:id").sampleRate).isEqualTo(1);
+    assertThat(config.forRoute("GET", "/accounts/:id").maxLength).isEqualTo(16);
+    assertThat(config.forRoute("POST", "/transfers")).isSameAs(BodyCapture.NONE);
+    assertThat(config.forRoute("POST", "/accounts").sampleRate).isEqualTo(0.5);
+    assertThat(config.forRoute("POST", "/accounts").maxLength).isEqualTo(64);
+  }
+
+  @Test
+  @DisplayName("no routes are configured by empty value")
+  void noRoutes() {
+    AccessLogConfig config = AccessLogConfig.from(Config.of(ImmutableMap.of("access-log.body.routes", "")));
+
+    assertThat(config.routeCaptures).isEmpty();
+  }
+
+  @ParameterizedTest(name = "routes = \"{0}\"")
+  @ValueSource(strings = {
+      "POST /transfers",
+      "POST /transfers 0.01",
+      "POST /transfers 0.01 1024 x",
+      "POST /transfers x 1024",
+      "POST /transfers 2 1024",
+      "POST /transfers 0.01 -1"
+  })
+  @DisplayName("malformed route is rejected")
+  void malformed(String routes) {
+    Config config = Config.of(ImmutableMap.of("access-log.body.routes", routes));
+
+    assertThatThrownBy(() -> AccessLogConfig.from(config))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining(routes);
+  }
+}
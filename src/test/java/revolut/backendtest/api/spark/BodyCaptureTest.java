@@ -0,0 +1,65 @@
+package revolut.backendtest.api.spark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class BodyCaptureTest {
+
+  @Test
+  @DisplayName("every request is captured at sample rate 1")
+  void captureAll() {
+    BodyCapture capture = BodyCapture.sampled(1, 10);
+
+    assertThat(IntStream.range(0, 1000).allMatch(i -> capture.shouldCapture())).isTrue();
+  }
+
+  @Test
+  @DisplayName("share of captured requests is about the sample rate")
+  void captureSample() {
+    BodyCapture capture = BodyCapture.sampled(0.1, 10);
+
+    long captured = IntStream.range(0, 100_000).filter(i -> capture.shouldCapture()).count();
+
+    // 10 standard deviations apart
+    assertThat(captured).isBetween(9_000L, 11_000L);
+  }
+
+  @ParameterizedTest(name = "sample rate = {0}, max length = {1}")
+  @CsvSource({"0, 10", "0.5, 0"})
+  @DisplayName("nothing is captured at zero sample rate or length")
+  void captureNone(double sampleRate, int maxLength) {
+    BodyCapture capture = BodyCapture.sampled(sampleRate, maxLength);
+
+    assertThat(capture).isSameAs(BodyCapture.NONE);
+    assertThat(capture.isEnabled()).isFalse();
+  }
+
+  @ParameterizedTest(name = "sample rate = {0}, max length = {1}")
+  @CsvSource({"-0.1, 10", "1.1, 10", "0.5, -1"})
+  @DisplayName("sample rate out of [0, 1] or negative length is rejected")
+  void invalid(double sampleRate, int maxLength) {
+    assertThatThrownBy(() -> BodyCapture.sampled(sampleRate, maxLength))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @ParameterizedTest(name = "\"{0}\" -> \"{1}\"")
+  @CsvSource({"'', ''", "abc, abc", "abcde, abcde", "abcdef, abcde...", "'{\"amount\":100.00}', '{\"amo...'"})
+  @DisplayName("body longer than max length is truncated")
+  void truncate(String body, String captured) {
+    BodyCapture capture = BodyCapture.sampled(1, 5);
+
+    assertThat(capture.truncate(body)).isEqualTo(captured);
+  }
+
+  @Test
+  @DisplayName("missing body stays missing")
+  void truncateNull() {
+    assertThat(BodyCapture.sampled(1, 5).truncate(null)).isNull();
+  }
+}
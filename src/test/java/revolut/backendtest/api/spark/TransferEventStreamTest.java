@@ -0,0 +1,136 @@
+package revolut.backendtest.api.spark;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Guice;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import revolut.backendtest.config.Config;
+import revolut.backendtest.model.AccountId;
+import revolut.backendtest.model.Money;
+import revolut.backendtest.model.Transfer;
+import revolut.backendtest.model.TransferId;
+import revolut.backendtest.service.TransferBus;
+import revolut.backendtest.service.TransferConfig;
+import revolut.backendtest.service.TransferService;
+import spark.Request;
+import spark.Response;
+
+class TransferEventStreamTest {
+
+  private static final Pattern EVENT_ID = Pattern.compile("^id: (\\d+)$", Pattern.MULTILINE);
+
+  private final TransferBus bus = Guice
+      .createInjector(binder -> {
+        binder.bind(TransferConfig.class).toInstance(TransferConfig.from(Config.of(ImmutableMap.of())));
+        binder.bind(MeterRegistry.class).toInstance(new SimpleMeterRegistry());
+      })
+      .getInstance(TransferBus.class);
+  private final TransferService transferService = mock(TransferService.class);
+  private final TransferEventStream stream = new TransferEventStream(
+      bus,
+      transferService,
+      new TransferJsonCodec(new ObjectMapper().findAndRegisterModules())
+  );
+
+  private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+  @Test
+  @DisplayName("transfers committed out of id order while the stream resumes are sent once")
+  void resumeOutOfOrder() throws Exception {
+    when(transferService.stream(any())).thenAnswer(invocation -> {
+      // 3 is committed after the database is read, 4 before it, but after the subscription
+      publish(transfer(4));
+      publish(transfer(3));
+      publish(transfer(5));
+      return Stream.of(transfer(2), transfer(4));
+    });
+
+    Response response = response();
+    CompletableFuture<String> streamed = CompletableFuture.supplyAsync(() -> stream.stream(request("1"), response));
+    while (!sentIds().contains(5L)) {
+      assertThat(streamed).isNotDone();
+      Thread.sleep(10);
+    }
+    stream.closeAll();
+
+    assertThat(streamed.get(10, SECONDS)).isEqualTo(JsonStreamWriter.STREAMED);
+    assertThat(sentIds()).containsExactly(2L, 4L, 3L, 5L);
+  }
+
+  private List<Long> sentIds() {
+    String events;
+    synchronized (out) {
+      events = new String(out.toByteArray(), UTF_8);
+    }
+    List<Long> ids = new ArrayList<>();
+    Matcher matcher = EVENT_ID.matcher(events);
+    while (matcher.find()) {
+      ids.add(Long.parseLong(matcher.group(1)));
+    }
+    return ids;
+  }
+
+  private void publish(Transfer transfer) throws ReflectiveOperationException {
+    // transfer service publishes transfers once they are committed
+    Method publish = TransferBus.class.getDeclaredMethod("publish", Transfer.class);
+    publish.setAccessible(true);
+    publish.invoke(bus, transfer);
+  }
+
+  private static Transfer transfer(long id) {
+    return new Transfer(new TransferId(id), new AccountId(1), new AccountId(2), Instant.EPOCH, Money.ofCents(100));
+  }
+
+  private static Request request(String lastEventId) {
+    Request request = mock(Request.class);
+    when(request.headers("Last-Event-ID")).thenReturn(lastEventId);
+    return request;
+  }
+
+  private Response response() throws IOException {
+    HttpServletResponse raw = mock(HttpServletResponse.class);
+    when(raw.getOutputStream()).thenReturn(new ServletOutputStream() {
+      @Override
+      public void write(int b) {
+        synchronized (out) {
+          out.write(b);
+        }
+      }
+
+      @Override
+      public boolean isReady() {
+        return true;
+      }
+
+      @Override
+      public void setWriteListener(WriteListener writeListener) {
+      }
+    });
+    Response response = mock(Response.class);
+    when(response.raw()).thenReturn(raw);
+    return response;
+  }
+}
@@ -0,0 +1,229 @@
+package revolut.backendtest.config;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.collect.ImmutableMap;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Properties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import revolut.backendtest.api.spark.AccessLogConfig;
+import revolut.backendtest.persistence.jdbc.DatabaseType;
+import revolut.backendtest.service.TransferConfig;
+import revolut.backendtest.service.TransferMode;
+
+class ConfigTest {
+
+  private static final String KEY = "db.pool.max-size";
+  private static final String ENV_KEY = "DB_POOL_MAX_SIZE";
+
+  @Nested
+  class Precedence {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("defaults are used when nothing is overridden")
+    void defaults() {
+      Config config = Config.load(Collections.emptyMap(), new Properties());
+
+      assertThat(config.getInt(KEY)).isEqualTo(0);
+      assertThat(config.getEnum("db.type", DatabaseType.class)).isEqualTo(DatabaseType.H2);
+    }
+
+    @Test
+    @DisplayName("config file overrides defaults")
+    void file() throws IOException {
+      Path file = configFile(KEY + "=1");
+
+      Config config = Config.load(ImmutableMap.of("CONFIG_FILE", file.toString()), new Properties());
+
+      assertThat(config.getInt(KEY)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("config file is also given by system property")
+    void fileBySystemProperty() throws IOException {
+      Path file = configFile(KEY + "=1");
+
+      Config config = Config.load(Collections.emptyMap(), properties("config.file", file.toString()));
+
+      assertThat(config.getInt(KEY)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("environment variable overrides config file")
+    void env() throws IOException {
+      Path file = configFile(KEY + "=1");
+
+      Config config = Config.load(
+          ImmutableMap.of("CONFIG_FILE", file.toString(), ENV_KEY, "2"),
+          new Properties()
+      );
+
+      assertThat(config.getInt(KEY)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("system property overrides environment variable")
+    void systemProperty() throws IOException {
+      Path file = configFile(KEY + "=1");
+
+      Config config = Config.load(
+          ImmutableMap.of("CONFIG_FILE", file.toString(), ENV_KEY, "2"),
+          properties(KEY, "3")
+      );
+
+      assertThat(config.getInt(KEY)).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("keys which have no default are ignored")
+    void unknownKeys() {
+      Config config = Config.load(ImmutableMap.of("DB_POOL_SIZE", "2"), properties("db.pool.size", "3"));
+
+      assertThatThrownBy(() -> config.getInt("db.pool.size"))
+          .isInstanceOf(IllegalArgumentException.class)
+          .hasMessage("Missing config value: db.pool.size");
+    }
+
+    @Test
+    @DisplayName("access log body capture is overridden by environment variable")
+    void accessLog() {
+      Config config = Config.load(
+          ImmutableMap.of("ACCESS_LOG_BODY_ROUTES", "GET /accounts 1 16"),
+          new Properties()
+      );
+
+      AccessLogConfig accessLog = AccessLogConfig.from(config);
+
+      assertThat(accessLog.routeCaptures).containsOnlyKeys("GET /accounts");
+      assertThat(accessLog.routeCaptures.get("GET /accounts").maxLength).isEqualTo(16);
+    }
+
+    @Test
+    @DisplayName("transfer mode is overridden by environment variable & system property")
+    void transferMode() {
+      ImmutableMap<String, String> env = ImmutableMap.of("TRANSFER_MODE", "striped_locks");
+
+      assertThat(TransferConfig.from(Config.load(Collections.emptyMap(), new Properties())).mode)
+          .isEqualTo(TransferMode.JDBC);
+      assertThat(TransferConfig.from(Config.load(env, new Properties())).mode)
+          .isEqualTo(TransferMode.STRIPED_LOCKS);
+      assertThat(TransferConfig.from(Config.load(env, properties("transfer.mode", "group_commit"))).mode)
+          .isEqualTo(TransferMode.GROUP_COMMIT);
+    }
+
+    @Test
+    @DisplayName("missing config file fails")
+    void missingFile() {
+      Path file = dir.resolve("missing.properties");
+
+      assertThatThrownBy(() -> Config.load(ImmutableMap.of("CONFIG_FILE", file.toString()), new Properties()))
+          .hasMessageContaining(file.toString());
+    }
+
+    private Path configFile(String content) throws IOException {
+      return Files.write(dir.resolve("test.properties"), content.getBytes(UTF_8));
+    }
+
+    private Properties properties(String key, String value) {
+      Properties properties = new Properties();
+      properties.setProperty(key, value);
+      return properties;
+    }
+  }
+
+  @ParameterizedTest(name = "{0} -> {1}")
+  @CsvSource({
+      "db.pool.max-size, DB_POOL_MAX_SIZE",
+      "db.h2.cache-size-kb, DB_H2_CACHE_SIZE_KB",
+      "config.file, CONFIG_FILE"
+  })
+  @DisplayName("environment variable is named after the key")
+  void envName(String key, String envName) {
+    assertThat(Config.toEnvName(key)).isEqualTo(envName);
+  }
+
+  @Nested
+  class Values {
+
+    @ParameterizedTest(name = "{0} -> {1}")
+    @CsvSource({
+        "500ms, PT0.5S",
+        "2s, PT2S",
+        "10m, PT10M",
+        "1h, PT1H",
+        "PT1.5S, PT1.5S",
+        "' 30s ', PT30S"
+    })
+    @DisplayName("duration is read with unit or in ISO-8601 format")
+    void duration(String value, Duration expected) {
+      assertThat(config(value).getDuration(KEY)).isEqualTo(expected);
+    }
+
+    @ParameterizedTest(name = "\"{0}\"")
+    @ValueSource(strings = {"", "10", "ms", "s", "10x", "1.5s", "P1X"})
+    @DisplayName("malformed duration is rejected")
+    void badDuration(String value) {
+      assertMalformed(() -> config(value).getDuration(KEY), value);
+    }
+
+    @ParameterizedTest(name = "\"{0}\"")
+    @ValueSource(strings = {"", "abc", "1.5", "99999999999"})
+    @DisplayName("malformed int is rejected")
+    void badInt(String value) {
+      assertMalformed(() -> config(value).getInt(KEY), value);
+    }
+
+    @ParameterizedTest(name = "\"{0}\"")
+    @ValueSource(strings = {"postgres", "POSTGRES", "Postgres"})
+    @DisplayName("enum is read case-insensitively")
+    void enumValue(String value) {
+      assertThat(config(value).getEnum(KEY, DatabaseType.class)).isEqualTo(DatabaseType.POSTGRES);
+    }
+
+    @ParameterizedTest(name = "\"{0}\"")
+    @ValueSource(strings = {"", "mysql", "h 2"})
+    @DisplayName("unknown enum value is rejected")
+    void badEnum(String value) {
+      assertMalformed(() -> config(value).getEnum(KEY, DatabaseType.class), value);
+    }
+
+    @ParameterizedTest(name = "\"{0}\"")
+    @ValueSource(strings = {"", "yes", "1"})
+    @DisplayName("malformed boolean is rejected")
+    void badBoolean(String value) {
+      assertMalformed(() -> config(value).getBoolean(KEY), value);
+    }
+
+    @Test
+    @DisplayName("empty optional value is absent")
+    void emptyOptional() {
+      assertThat(config(" ").getOptionalString(KEY)).isEmpty();
+      assertThat(config("x").getOptionalString(KEY)).hasValue("x");
+    }
+
+    private Config config(String value) {
+      return Config.of(ImmutableMap.of(KEY, value));
+    }
+
+    private void assertMalformed(Runnable read, String value) {
+      assertThatThrownBy(read::run)
+          .isInstanceOf(IllegalArgumentException.class)
+          .hasMessage("Malformed config value: " + KEY + "=" + value.trim());
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package revolut.backendtest.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class MoneyTest {
+
+  @ParameterizedTest(name = "{0} is {1} cents")
+  @CsvSource({
+      "0, 0",
+      "0.00, 0",
+      "1, 100",
+      "1.5, 150",
+      "-0.05, -5",
+      "12.34, 1234",
+      "92233720368547758.07, 9223372036854775807",
+      "-92233720368547758.08, -9223372036854775808",
+  })
+  @DisplayName("decimal amount is converted to cents")
+  void of(BigDecimal amount, long cents) {
+    Money money = Money.of(amount);
+
+    assertThat(money.cents).isEqualTo(cents);
+    assertThat(money.toBigDecimal()).isEqualByComparingTo(amount);
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @ValueSource(strings = {"0.001", "1.999", "-0.005"})
+  @DisplayName("amount with digits beyond cents is rejected")
+  void scale(BigDecimal amount) {
+    assertThatThrownBy(() -> Money.of(amount)).isInstanceOf(ArithmeticException.class);
+  }
+
+  @Test
+  @DisplayName("trailing zeros beyond cents are accepted")
+  void trailingZeros() {
+    assertThat(Money.of(new BigDecimal("1.2300"))).isEqualTo(Money.ofCents(123));
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @ValueSource(strings = {"92233720368547758.08", "-92233720368547758.09", "1e20"})
+  @DisplayName("amount out of range is rejected")
+  void outOfRange(BigDecimal amount) {
+    assertThatThrownBy(() -> Money.of(amount)).isInstanceOf(ArithmeticException.class);
+  }
+
+  @Test
+  @DisplayName("arithmetic is exact")
+  void arithmetic() {
+    Money a = Money.ofCents(1050);
+    Money b = Money.ofCents(75);
+
+    assertThat(a.plus(b)).isEqualTo(Money.ofCents(1125));
+    assertThat(a.minus(b)).isEqualTo(Money.ofCents(975));
+    assertThat(b.minus(a)).isEqualTo(Money.ofCents(-975));
+    assertThat(a.negate()).isEqualTo(Money.ofCents(-1050));
+    assertThat(Money.MAX.minus(Money.MAX)).isSameAs(Money.ZERO);
+  }
+
+  @Test
+  @DisplayName("overflow is not wrapped around")
+  void overflow() {
+    Money min = Money.ofCents(Long.MIN_VALUE);
+
+    assertThatThrownBy(() -> Money.MAX.plus(Money.ofCents(1))).isInstanceOf(ArithmeticException.class);
+    assertThatThrownBy(() -> min.minus(Money.ofCents(1))).isInstanceOf(ArithmeticException.class);
+    assertThatThrownBy(() -> Money.ZERO.minus(min)).isInstanceOf(ArithmeticException.class);
+    assertThatThrownBy(min::negate).isInstanceOf(ArithmeticException.class);
+    assertThat(Money.MAX.minus(Money.ofCents(1)).plus(Money.ofCents(1))).isEqualTo(Money.MAX);
+  }
+
+  @Test
+  @DisplayName("amounts are ordered by value")
+  void compare() {
+    assertThat(Money.ofCents(-1)).isLessThan(Money.ZERO);
+    assertThat(Money.MAX).isGreaterThan(Money.ofCents(1));
+    assertThat(Money.of(new BigDecimal("1.10"))).isEqualByComparingTo(Money.ofCents(110));
+    assertThat(Money.ofCents(-3).signum()).isEqualTo(-1);
+    assertThat(Money.ZERO.signum()).isZero();
+  }
+
+  @ParameterizedTest(name = "{0} cents as {1}")
+  @CsvSource({
+      "0, 0.00",
+      "5, 0.05",
+      "-5, -0.05",
+      "100, 1.00",
+      "-1234, -12.34",
+      "9223372036854775807, 92233720368547758.07",
+      "-9223372036854775808, -92233720368547758.08",
+  })
+  @DisplayName("string has exactly two fraction digits")
+  void string(long cents, String expected) {
+    assertThat(Money.ofCents(cents).toString())
+        .isEqualTo(expected)
+        .isEqualTo(Money.ofCents(cents).toBigDecimal().toPlainString());
+  }
+
+  @Test
+  @DisplayName("JSON number has exactly two fraction digits")
+  void json() throws Exception {
+    assertThat(new ObjectMapper().writeValueAsString(Money.ofCents(-1050))).isEqualTo("-10.50");
+  }
+}
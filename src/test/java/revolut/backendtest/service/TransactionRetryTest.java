@@ -0,0 +1,197 @@
+package revolut.backendtest.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jooq.exception.DataAccessException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class TransactionRetryTest {
+
+  private static final Duration BACKOFF = Duration.ofMillis(5);
+  private static final Duration MAX_BACKOFF = Duration.ofMillis(100);
+
+  private final MeterRegistry registry = new SimpleMeterRegistry();
+  private final List<Long> sleeps = new ArrayList<>();
+  private final AtomicInteger attempts = new AtomicInteger();
+
+  @ParameterizedTest(name = "SQL state {0}")
+  @ValueSource(strings = {"HYT00", "90131", "40001", "40P01", "55P03"})
+  @DisplayName("transaction failed because of lock contention is retried")
+  void retryable(String sqlState) {
+    TransactionRetry retry = retry(5);
+
+    String result = retry.call(() -> {
+      if (attempts.incrementAndGet() < 3) {
+        throw failure(sqlState);
+      }
+      return "committed";
+    });
+
+    assertThat(result).isEqualTo("committed");
+    assertThat(attempts).hasValue(3);
+    assertThat(sleeps).hasSize(2);
+    assertThat(registry.get("transfers.transaction.retries").summary().totalAmount()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("SQL state is found anywhere in the causes")
+  void nestedCause() {
+    TransactionRetry retry = retry(5);
+
+    retry.run(() -> {
+      if (attempts.incrementAndGet() < 2) {
+        throw new DataAccessException("failed", new IllegalStateException(new SQLException("timeout", "HYT00")));
+      }
+    });
+
+    assertThat(attempts).hasValue(2);
+  }
+
+  @ParameterizedTest(name = "SQL state {0}")
+  @ValueSource(strings = {"23505", "22003", "08006", "TR003"})
+  @DisplayName("transaction failed for other reasons is not retried")
+  void notRetryable(String sqlState) {
+    TransactionRetry retry = retry(5);
+    DataAccessException failure = failure(sqlState);
+
+    assertThatThrownBy(() -> retry.run(() -> {
+      attempts.incrementAndGet();
+      throw failure;
+    })).isSameAs(failure);
+
+    assertThat(attempts).hasValue(1);
+    assertThat(sleeps).isEmpty();
+  }
+
+  @Test
+  @DisplayName("failure without SQL state & other exceptions are not retried")
+  void noSqlState() {
+    TransactionRetry retry = retry(5);
+
+    assertThatThrownBy(() -> retry.run(() -> {
+      attempts.incrementAndGet();
+      throw new DataAccessException("failed");
+    })).isInstanceOf(DataAccessException.class);
+    assertThatThrownBy(() -> retry.run(() -> {
+      attempts.incrementAndGet();
+      throw new IllegalStateException("failed");
+    })).isInstanceOf(IllegalStateException.class);
+
+    assertThat(attempts).hasValue(2);
+    assertThat(sleeps).isEmpty();
+  }
+
+  @Test
+  @DisplayName("last failure is thrown after max attempts")
+  void maxAttempts() {
+    TransactionRetry retry = retry(4);
+
+    assertThatThrownBy(() -> retry.run(() -> {
+      throw failure("40001", "attempt " + attempts.incrementAndGet());
+    })).hasMessageContaining("attempt 4");
+
+    assertThat(attempts).hasValue(4);
+    assertThat(sleeps).hasSize(3);
+  }
+
+  @Test
+  @DisplayName("single attempt means no retries")
+  void singleAttempt() {
+    TransactionRetry retry = retry(1);
+
+    assertThatThrownBy(() -> retry.run(() -> {
+      attempts.incrementAndGet();
+      throw failure("40001");
+    })).isInstanceOf(DataAccessException.class);
+
+    assertThat(attempts).hasValue(1);
+    assertThat(sleeps).isEmpty();
+  }
+
+  @Test
+  @DisplayName("backoff is random up to the bound doubled for every attempt, but not more than max backoff")
+  void backoffBounds() {
+    int maxAttempts = 100;
+    TransactionRetry retry = retry(maxAttempts);
+
+    for (int i = 0; i < 100; i++) {
+      assertThatThrownBy(() -> retry.run(() -> {
+        throw failure("40001");
+      })).isInstanceOf(DataAccessException.class);
+    }
+
+    assertThat(sleeps).hasSize(100 * (maxAttempts - 1));
+    assertThat(sleeps).allMatch(nanos -> nanos >= 0);
+    for (int attempt = 1; attempt < maxAttempts; attempt++) {
+      long bound = Math.min(MAX_BACKOFF.toNanos(), BACKOFF.toNanos() << Math.min(attempt - 1, 20));
+      long max = 0;
+      for (int i = attempt - 1; i < sleeps.size(); i += maxAttempts - 1) {
+        assertThat(sleeps.get(i)).isLessThanOrEqualTo(bound);
+        max = Math.max(max, sleeps.get(i));
+      }
+      // 100 samples, so the highest one is close to the bound
+      assertThat(max).isGreaterThan(bound / 2);
+    }
+  }
+
+  @Test
+  @DisplayName("no more attempts when backoff is interrupted")
+  void interrupted() {
+    TransactionRetry retry = new TransactionRetry(metrics(), config(5), nanos -> {
+      throw new InterruptedException();
+    });
+
+    try {
+      assertThatThrownBy(() -> retry.run(() -> {
+        attempts.incrementAndGet();
+        throw failure("40001");
+      })).isInstanceOf(DataAccessException.class);
+
+      assertThat(attempts).hasValue(1);
+      assertThat(Thread.currentThread().isInterrupted()).isTrue();
+    } finally {
+      Thread.interrupted();
+    }
+  }
+
+  private TransactionRetry retry(int maxAttempts) {
+    return new TransactionRetry(metrics(), config(maxAttempts), sleeps::add);
+  }
+
+  private TransferMetrics metrics() {
+    return new TransferMetrics(registry, config(1));
+  }
+
+  private static TransferConfig config(int maxAttempts) {
+    return new TransferConfig(
+        TransferMode.JDBC,
+        Duration.ofMillis(2),
+        256,
+        maxAttempts,
+        BACKOFF,
+        MAX_BACKOFF,
+        1024,
+        32,
+        Duration.ofHours(24)
+    );
+  }
+
+  private static DataAccessException failure(String sqlState) {
+    return failure(sqlState, "failed");
+  }
+
+  private static DataAccessException failure(String sqlState, String message) {
+    return new DataAccessException(message, new SQLException(message, sqlState));
+  }
+}
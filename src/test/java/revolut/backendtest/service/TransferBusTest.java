@@ -0,0 +1,151 @@
+package revolut.backendtest.service;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import revolut.backendtest.model.AccountId;
+import revolut.backendtest.model.Money;
+import revolut.backendtest.model.Transfer;
+import revolut.backendtest.model.TransferId;
+
+class TransferBusTest {
+
+  private static final Duration NO_WAIT = Duration.ZERO;
+
+  private final MeterRegistry registry = new SimpleMeterRegistry();
+
+  @Test
+  @DisplayName("committed transfers are delivered to every subscriber in order")
+  void fanOut() throws Exception {
+    TransferBus bus = bus(4, 2);
+    TransferBus.Subscription first = bus.subscribe();
+    TransferBus.Subscription second = bus.subscribe();
+
+    bus.publish(transfer(1));
+    bus.publish(transfer(2));
+
+    for (TransferBus.Subscription subscription : new TransferBus.Subscription[] {first, second}) {
+      assertThat(subscription.hasBuffered()).isTrue();
+      assertThat(subscription.poll(NO_WAIT)).map(transfer -> transfer.id.value).contains(1L);
+      assertThat(subscription.poll(NO_WAIT)).map(transfer -> transfer.id.value).contains(2L);
+      assertThat(subscription.hasBuffered()).isFalse();
+    }
+  }
+
+  @Test
+  @DisplayName("nothing is polled when there is no transfer within timeout")
+  void pollTimeout() throws Exception {
+    TransferBus bus = bus(4, 2);
+
+    try (TransferBus.Subscription subscription = bus.subscribe()) {
+      assertThat(subscription.poll(Duration.ofMillis(10))).isEmpty();
+    }
+  }
+
+  @Test
+  @DisplayName("subscriber with full buffer is disconnected, others are not")
+  void slowSubscriber() throws Exception {
+    TransferBus bus = bus(2, 2);
+    TransferBus.Subscription slow = bus.subscribe();
+    TransferBus.Subscription fast = bus.subscribe();
+
+    for (long id = 1; id <= 3; id++) {
+      bus.publish(transfer(id));
+      assertThat(fast.poll(NO_WAIT)).map(transfer -> transfer.id.value).contains(id);
+    }
+
+    assertThatThrownBy(() -> slow.poll(NO_WAIT))
+        .isInstanceOf(SubscriptionClosedException.class)
+        .hasMessageContaining("too slow");
+    assertThat(registry.get("transfers.stream.overflows").counter().count()).isEqualTo(1);
+    assertThat(registry.get("transfers.stream.subscribers").gauge().value()).isEqualTo(1);
+
+    bus.publish(transfer(4));
+    assertThat(fast.poll(NO_WAIT)).map(transfer -> transfer.id.value).contains(4L);
+  }
+
+  @Test
+  @DisplayName("subscribers above max are rejected until others are closed")
+  void maxSubscribers() throws Exception {
+    TransferBus bus = bus(4, 2);
+    TransferBus.Subscription first = bus.subscribe();
+    bus.subscribe();
+
+    assertThatThrownBy(bus::subscribe)
+        .isInstanceOf(TooManySubscribersException.class)
+        .hasMessageContaining("max is 2");
+
+    first.close();
+    assertThat(bus.subscribe()).isNotNull();
+  }
+
+  @Test
+  @DisplayName("closed subscription is not delivered anything")
+  void closed() throws Exception {
+    TransferBus bus = bus(1, 2);
+    TransferBus.Subscription subscription = bus.subscribe();
+    subscription.close();
+
+    bus.publish(transfer(1));
+    bus.publish(transfer(2));
+
+    assertThat(subscription.hasBuffered()).isFalse();
+    assertThat(registry.get("transfers.stream.overflows").counter().count()).isZero();
+  }
+
+  @Test
+  @DisplayName("disconnecting all subscribers wakes up the waiting ones")
+  void disconnectAll() throws Exception {
+    TransferBus bus = bus(4, 2);
+    TransferBus.Subscription waiting = bus.subscribe();
+    TransferBus.Subscription idle = bus.subscribe();
+    CompletableFuture<Optional<Transfer>> polled = CompletableFuture.supplyAsync(() -> {
+      try {
+        return waiting.poll(Duration.ofMinutes(1));
+      } catch (InterruptedException | SubscriptionClosedException ex) {
+        throw new IllegalStateException(ex);
+      }
+    });
+
+    bus.disconnectAll();
+
+    assertThatThrownBy(() -> polled.get(10, SECONDS))
+        .isInstanceOf(ExecutionException.class)
+        .hasRootCauseInstanceOf(SubscriptionClosedException.class);
+    assertThatThrownBy(() -> idle.poll(NO_WAIT))
+        .isInstanceOf(SubscriptionClosedException.class)
+        .hasMessage("Transfer stream is closed");
+    assertThat(registry.get("transfers.stream.subscribers").gauge().value()).isZero();
+  }
+
+  private TransferBus bus(int bufferSize, int maxSubscribers) {
+    return new TransferBus(
+        new TransferConfig(
+            TransferMode.JDBC,
+            Duration.ofMillis(2),
+            256,
+            5,
+            Duration.ofMillis(5),
+            Duration.ofMillis(100),
+            bufferSize,
+            maxSubscribers,
+            Duration.ofHours(24)
+        ),
+        registry
+    );
+  }
+
+  private static Transfer transfer(long id) {
+    return new Transfer(new TransferId(id), new AccountId(1), new AccountId(2), Instant.now(), Money.ofCents(100));
+  }
+}